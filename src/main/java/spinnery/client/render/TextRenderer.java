@@ -6,7 +6,15 @@ import net.minecraft.text.Text;
 import spinnery.widget.api.Color;
 import spinnery.widget.api.Position;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
 public class TextRenderer {
+	protected static final float[][] ADVANCES = new float[Font.values().length][];
+	protected static int generation = 0;
+
 	public static RenderPass pass() {
 		return new RenderPass();
 	}
@@ -35,7 +43,83 @@ public class TextRenderer {
 	}
 
 	public static int width(char character, Font font) {
-		return (int) getTextRenderer(font).getCharWidth(character);
+		return (int) advance(character, font);
+	}
+
+	/**
+	 * Retrieves the advance of a glyph, from a flat table per font
+	 * which is filled as glyphs are first measured.
+	 *
+	 * @param character Character of the glyph.
+	 * @param font      Font of the glyph.
+	 * @return The advance of the glyph.
+	 */
+	public static float advance(char character, Font font) {
+		float[] advances = ADVANCES[font.ordinal()];
+
+		if (advances == null) {
+			advances = new float[Character.MAX_VALUE + 1];
+			Arrays.fill(advances, -1);
+			ADVANCES[font.ordinal()] = advances;
+		}
+
+		float advance = advances[character];
+
+		if (advance < 0) {
+			advance = getTextRenderer(font).getCharWidth(character);
+			advances[character] = advance;
+		}
+
+		return advance;
+	}
+
+	public static float advance(char character) {
+		return advance(character, Font.DEFAULT);
+	}
+
+	/**
+	 * Discards all measured glyph advances, such as when fonts are reloaded.
+	 */
+	public static void invalidateAdvances() {
+		Arrays.fill(ADVANCES, null);
+		++generation;
+	}
+
+	/**
+	 * Measures the width of every prefix of a string, as {@link #width(String, Font)}
+	 * would, skipping formatting codes and widening bold glyphs.
+	 *
+	 * @param string String to be measured.
+	 * @param font   Font of the string.
+	 * @return Array whose element i is the width of the first i characters.
+	 */
+	public static int[] offsets(String string, Font font) {
+		int[] offsets = new int[string.length() + 1];
+		float width = 0;
+		boolean isBold = false;
+
+		for (int i = 0; i < string.length(); ++i) {
+			char character = string.charAt(i);
+
+			if (character == '§' && i < string.length() - 1) {
+				char code = Character.toLowerCase(string.charAt(i + 1));
+
+				if (code == 'l') {
+					isBold = true;
+				} else if (code == 'r' || (code >= '0' && code <= '9') || (code >= 'a' && code <= 'f')) {
+					isBold = false;
+				}
+
+				offsets[i + 1] = offsets[i];
+				offsets[i + 2] = offsets[i];
+				++i;
+			} else {
+				width += advance(character, font) + (isBold ? 1 : 0);
+				offsets[i + 1] = (int) Math.ceil(width);
+			}
+		}
+
+		return offsets;
 	}
 
 	public static int width(String string) {
@@ -54,6 +138,113 @@ public class TextRenderer {
 		return width(text.asFormattedString(), Font.DEFAULT);
 	}
 
+	/**
+	 * A LineCache caches the prefix widths of the lines
+	 * of a text, by index, such that measuring a line or
+	 * locating a character within it costs a lookup, or
+	 * a binary search, rather than a pass over the line.
+	 * It must be invalidated whenever the lines change.
+	 */
+	public static class LineCache {
+		protected static final int MAXIMUM_SIZE = 1024;
+
+		protected final IntFunction<String> lines;
+		protected final Font font;
+		protected final Map<Integer, int[]> offsets = new HashMap<>();
+		protected int generation = TextRenderer.generation;
+
+		/**
+		 * @param lines Function retrieving a line by its index.
+		 * @param font  Font the lines are drawn with.
+		 */
+		public LineCache(IntFunction<String> lines, Font font) {
+			this.lines = lines;
+			this.font = font;
+		}
+
+		public LineCache(IntFunction<String> lines) {
+			this(lines, Font.DEFAULT);
+		}
+
+		public void invalidate() {
+			offsets.clear();
+		}
+
+		/**
+		 * Retrieves the prefix widths of a line, measuring it if not cached.
+		 *
+		 * @param line Index of the line.
+		 * @return Array whose element i is the width of the first i characters.
+		 */
+		public int[] getOffsets(int line) {
+			if (generation != TextRenderer.generation) {
+				generation = TextRenderer.generation;
+				offsets.clear();
+			}
+
+			int[] lineOffsets = offsets.get(line);
+
+			if (lineOffsets == null) {
+				if (offsets.size() >= MAXIMUM_SIZE) {
+					offsets.clear();
+				}
+
+				lineOffsets = offsets(lines.apply(line), font);
+				offsets.put(line, lineOffsets);
+			}
+
+			return lineOffsets;
+		}
+
+		public int getWidth(int line) {
+			int[] lineOffsets = getOffsets(line);
+			return lineOffsets[lineOffsets.length - 1];
+		}
+
+		/**
+		 * Retrieves the width of the first characters of a line.
+		 *
+		 * @param line  Index of the line.
+		 * @param index Amount of characters, clamped to the line.
+		 * @return The width of the characters.
+		 */
+		public int getOffset(int line, int index) {
+			int[] lineOffsets = getOffsets(line);
+			return lineOffsets[Math.max(0, Math.min(lineOffsets.length - 1, index))];
+		}
+
+		/**
+		 * Locates the character of a line spanning a width,
+		 * by binary search over its prefix widths.
+		 *
+		 * @param line  Index of the line.
+		 * @param width Width from the start of the line, unscaled.
+		 * @return Index of the first character whose end is at or past the width; -1 if none spans it.
+		 */
+		public int getIndex(int line, float width) {
+			int[] lineOffsets = getOffsets(line);
+
+			int low = 0;
+			int high = lineOffsets.length - 1;
+
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+
+				if (lineOffsets[middle + 1] < width) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+
+			if (low < lineOffsets.length - 1 && lineOffsets[low] <= width && lineOffsets[low + 1] >= width) {
+				return low;
+			}
+
+			return -1;
+		}
+	}
+
 	public enum Font {
 		DEFAULT,
 		ENCHANTMENT,
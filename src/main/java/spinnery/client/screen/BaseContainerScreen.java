@@ -10,6 +10,7 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.text.Text;
 import org.lwjgl.glfw.GLFW;
 import spinnery.client.render.BaseRenderer;
+import spinnery.client.utility.AnimationScheduler;
 import spinnery.common.container.BaseContainer;
 import spinnery.common.utility.MouseUtilities;
 import spinnery.widget.WAbstractWidget;
@@ -43,6 +44,8 @@ public class BaseContainerScreen<T extends BaseContainer> extends ContainerScree
 	@Override
 	@Environment(EnvType.CLIENT)
 	public void render(int mouseX, int mouseY, float tickDelta) {
+		AnimationScheduler.update();
+
 		clientInterface.draw();
 
 		if (getDrawSlot() != null && getContainer().getPlayerInventory().getCursorStack().isEmpty() && !getDrawSlot().getStack().isEmpty()) {
@@ -248,6 +251,15 @@ public class BaseContainerScreen<T extends BaseContainer> extends ContainerScree
 		super.tick();
 	}
 
+	/**
+	 * Method called when this screen is closed, unscheduling its animations.
+	 */
+	@Override
+	public void removed() {
+		AnimationScheduler.clear();
+		super.removed();
+	}
+
 	/**
 	 * Retrieves the container associated with this screen.
 	 *
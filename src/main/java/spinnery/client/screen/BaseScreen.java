@@ -4,6 +4,7 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.screen.Screen;
 import net.minecraft.text.LiteralText;
 import org.lwjgl.glfw.GLFW;
+import spinnery.client.utility.AnimationScheduler;
 import spinnery.common.utility.MouseUtilities;
 import spinnery.widget.WInterface;
 import spinnery.widget.api.WInterfaceProvider;
@@ -19,9 +20,18 @@ public class BaseScreen extends Screen implements WInterfaceProvider {
 
 	@Override
 	public void render(int mouseX, int mouseY, float tick) {
+		AnimationScheduler.update();
+
 		getInterface().draw();
 	}
 
+	@Override
+	public void removed() {
+		AnimationScheduler.clear();
+
+		super.removed();
+	}
+
 	@Override
 	public WInterface getInterface() {
 		return screenInterface;
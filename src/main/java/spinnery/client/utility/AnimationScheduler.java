@@ -0,0 +1,132 @@
+package spinnery.client.utility;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The AnimationScheduler drives all running
+ * animations from elapsed time, rather than
+ * from rendered frames or game ticks, such
+ * that they behave the same at any frame rate.
+ * <p>
+ * It is updated once per frame by Spinnery
+ * screens, and advances each animation by the
+ * fractional amount of ticks elapsed since the
+ * previous update. Animations unschedule themselves
+ * once they come to rest, and nothing is done
+ * while none are scheduled.
+ */
+@Environment(EnvType.CLIENT)
+public class AnimationScheduler {
+	public static final long NANOSECONDS_PER_TICK = 50_000_000L;
+	public static final float MAXIMUM_STEP = 20;
+
+	protected static final Set<Animation> ANIMATIONS = new LinkedHashSet<>();
+	protected static final List<Animation> STEPPING = new ArrayList<>();
+	protected static long lastUpdate = 0;
+
+	/**
+	 * Schedules an animation, unless it is already scheduled.
+	 *
+	 * @param animation Animation to be scheduled.
+	 */
+	public static void schedule(Animation animation) {
+		if (ANIMATIONS.isEmpty()) {
+			lastUpdate = System.nanoTime();
+		}
+
+		ANIMATIONS.add(animation);
+	}
+
+	/**
+	 * Unschedules an animation, leaving it where it currently is.
+	 *
+	 * @param animation Animation to be unscheduled.
+	 */
+	public static void cancel(Animation animation) {
+		ANIMATIONS.remove(animation);
+	}
+
+	/**
+	 * Unschedules all animations, such as when the screen they belong to is closed.
+	 */
+	public static void clear() {
+		ANIMATIONS.clear();
+	}
+
+	/**
+	 * Asserts whether any animation is scheduled, such
+	 * that idle or cached screens may skip their work.
+	 *
+	 * @return True if animating; false if not.
+	 */
+	public static boolean isAnimating() {
+		return !ANIMATIONS.isEmpty();
+	}
+
+	/**
+	 * Advances all scheduled animations by the time elapsed since the
+	 * previous update, capped to {@link #MAXIMUM_STEP} ticks, and
+	 * unschedules those which came to rest.
+	 */
+	public static void update() {
+		if (ANIMATIONS.isEmpty()) {
+			return;
+		}
+
+		long now = System.nanoTime();
+		float ticks = Math.min(MAXIMUM_STEP, (now - lastUpdate) / (float) NANOSECONDS_PER_TICK);
+		lastUpdate = now;
+
+		if (ticks <= 0) {
+			return;
+		}
+
+		STEPPING.addAll(ANIMATIONS);
+
+		for (Animation animation : STEPPING) {
+			if (!animation.step(ticks)) {
+				ANIMATIONS.remove(animation);
+			}
+		}
+
+		STEPPING.clear();
+	}
+
+	/**
+	 * Retrieves the distance covered by a geometric decay over a fractional
+	 * amount of steps: the sum of factor^k for k from 0 until steps,
+	 * interpolated between whole steps.
+	 *
+	 * @param factor Factor applied to the velocity on every step.
+	 * @param steps  Amount of steps elapsed.
+	 * @return The distance covered, in multiples of the initial velocity.
+	 */
+	public static float getDecayDistance(float factor, float steps) {
+		if (factor == 1) {
+			return steps;
+		}
+
+		return (float) ((1 - Math.pow(factor, steps)) / (1 - factor));
+	}
+
+	/**
+	 * An Animation is advanced by the scheduler
+	 * while it is scheduled.
+	 */
+	@FunctionalInterface
+	public interface Animation {
+		/**
+		 * Advances this animation.
+		 *
+		 * @param ticks Fractional amount of ticks elapsed since the previous step.
+		 * @return True if still animating; false if at rest.
+		 */
+		boolean step(float ticks);
+	}
+}
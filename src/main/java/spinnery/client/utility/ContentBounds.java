@@ -0,0 +1,183 @@
+package spinnery.client.utility;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import spinnery.widget.WAbstractWidget;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * ContentBounds tracks the extent of the children
+ * of a container, as measured by the container
+ * in a space which does not change as it scrolls.
+ * <p>
+ * Extents are kept in sorted multisets, updated as
+ * children are added or removed, and the bounds are
+ * cached between changes, such that querying them
+ * costs nothing per frame. Changes the container
+ * cannot attribute to a single child, such as a
+ * child resizing itself, invalidate the bounds,
+ * which are then re-measured once, when next queried.
+ */
+@Environment(EnvType.CLIENT)
+public class ContentBounds {
+	protected final Supplier<? extends Collection<WAbstractWidget>> widgets;
+	protected final Measure measure;
+	protected final Map<WAbstractWidget, float[]> extents = new HashMap<>();
+	protected final TreeMap<Float, Integer> lefts = new TreeMap<>();
+	protected final TreeMap<Float, Integer> tops = new TreeMap<>();
+	protected final TreeMap<Float, Integer> rights = new TreeMap<>();
+	protected final TreeMap<Float, Integer> bottoms = new TreeMap<>();
+	protected float left, top, right, bottom;
+	protected boolean isStale = true;
+
+	/**
+	 * @param widgets Supplier of the children of the container, used when re-measuring.
+	 * @param measure Function measuring the extent of a child.
+	 */
+	public ContentBounds(Supplier<? extends Collection<WAbstractWidget>> widgets, Measure measure) {
+		this.widgets = widgets;
+		this.measure = measure;
+	}
+
+	/**
+	 * Discards all extents, such that all children are re-measured when next queried.
+	 */
+	public void invalidate() {
+		isStale = true;
+	}
+
+	/**
+	 * Measures and adds children to the bounds.
+	 *
+	 * @param widgets Children which were added.
+	 */
+	public void add(WAbstractWidget... widgets) {
+		if (isStale) return;
+
+		for (WAbstractWidget widget : widgets) {
+			insert(widget);
+		}
+
+		refresh();
+	}
+
+	/**
+	 * Removes children from the bounds.
+	 *
+	 * @param widgets Children which were removed.
+	 */
+	public void remove(WAbstractWidget... widgets) {
+		if (isStale) return;
+
+		for (WAbstractWidget widget : widgets) {
+			erase(widget);
+		}
+
+		refresh();
+	}
+
+	/**
+	 * Re-measures a single child whose extent changed.
+	 *
+	 * @param widget Child which changed.
+	 */
+	public void update(WAbstractWidget widget) {
+		if (isStale) return;
+
+		erase(widget);
+		insert(widget);
+		refresh();
+	}
+
+	public boolean isEmpty() {
+		validate();
+		return extents.isEmpty();
+	}
+
+	public float getLeft() {
+		validate();
+		return left;
+	}
+
+	public float getTop() {
+		validate();
+		return top;
+	}
+
+	public float getRight() {
+		validate();
+		return right;
+	}
+
+	public float getBottom() {
+		validate();
+		return bottom;
+	}
+
+	protected void validate() {
+		if (!isStale) return;
+
+		isStale = false;
+
+		extents.clear();
+		lefts.clear();
+		tops.clear();
+		rights.clear();
+		bottoms.clear();
+
+		for (WAbstractWidget widget : widgets.get()) {
+			insert(widget);
+		}
+
+		refresh();
+	}
+
+	protected void insert(WAbstractWidget widget) {
+		if (extents.containsKey(widget)) return;
+
+		float[] extent = new float[4];
+		measure.measure(widget, extent);
+		extents.put(widget, extent);
+
+		lefts.merge(extent[0], 1, Integer::sum);
+		tops.merge(extent[1], 1, Integer::sum);
+		rights.merge(extent[2], 1, Integer::sum);
+		bottoms.merge(extent[3], 1, Integer::sum);
+	}
+
+	protected void erase(WAbstractWidget widget) {
+		float[] extent = extents.remove(widget);
+
+		if (extent == null) return;
+
+		decrement(lefts, extent[0]);
+		decrement(tops, extent[1]);
+		decrement(rights, extent[2]);
+		decrement(bottoms, extent[3]);
+	}
+
+	protected static void decrement(TreeMap<Float, Integer> values, float value) {
+		values.computeIfPresent(value, (key, count) -> count > 1 ? count - 1 : null);
+	}
+
+	protected void refresh() {
+		left = lefts.isEmpty() ? 0 : lefts.firstKey();
+		top = tops.isEmpty() ? 0 : tops.firstKey();
+		right = rights.isEmpty() ? 0 : rights.lastKey();
+		bottom = bottoms.isEmpty() ? 0 : bottoms.lastKey();
+	}
+
+	/**
+	 * Measures the extent of a child.
+	 */
+	@FunctionalInterface
+	public interface Measure {
+		/**
+		 * @param widget Child to be measured.
+		 * @param extent Array to be filled with the left, top, right and bottom of the child.
+		 */
+		void measure(WAbstractWidget widget, float[] extent);
+	}
+}
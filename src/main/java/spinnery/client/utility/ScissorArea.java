@@ -1,6 +1,8 @@
 package spinnery.client.utility;
 
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.util.Window;
+import spinnery.widget.WAbstractWidget;
 import spinnery.widget.api.WLayoutElement;
 
 import static org.lwjgl.opengl.GL11.*;
@@ -10,6 +12,10 @@ public class ScissorArea {
 	private static final ScissorArea[] objects = new ScissorArea[max];
 	private static int lastObject = -1;
 
+	private static int frame = 0;
+	private static int drawing = 0;
+	private static int suspended = 0;
+
 	private int index;
 
 	private int left;
@@ -17,6 +23,11 @@ public class ScissorArea {
 	private int top;
 	private int bottom;
 
+	private float clipLeft;
+	private float clipTop;
+	private float clipRight;
+	private float clipBottom;
+
 	public ScissorArea(int x, int y, int width, int height) {
 		lastObject++;
 		if (lastObject < max) {
@@ -37,6 +48,14 @@ public class ScissorArea {
 				if (bottom > parent.bottom) bottom = parent.bottom;
 			}
 
+			Window window = MinecraftClient.getInstance().getWindow();
+			double scale = window.getScaleFactor();
+
+			clipLeft = (float) (left / scale);
+			clipRight = (float) ((right + 1) / scale);
+			clipTop = (float) ((window.getHeight() - bottom - 1) / scale);
+			clipBottom = (float) ((window.getHeight() - top) / scale);
+
 			resume();
 		}
 	}
@@ -70,4 +89,84 @@ public class ScissorArea {
 		if (lastObject > -1)
 			objects[lastObject].resume();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Begins drawing a frame, invalidating the bounds widgets cached
+	 * for culling. Widgets only cache their bounds until the matching
+	 * {@link #endFrame()}, as they may be moved between frames.
+	 */
+	public static void beginFrame() {
+		if (drawing++ == 0) {
+			++frame;
+		}
+	}
+
+	public static void endFrame() {
+		--drawing;
+	}
+
+	/**
+	 * Retrieves the number of the frame being drawn.
+	 *
+	 * @return The number of the frame; -1 if none is being drawn, such that bounds should not be cached.
+	 */
+	public static int getFrame() {
+		return drawing > 0 ? frame : -1;
+	}
+
+	/**
+	 * Suspends culling, such as while drawing under a transformation
+	 * which absolute widget bounds do not account for.
+	 */
+	public static void suspendCulling() {
+		++suspended;
+	}
+
+	public static void resumeCulling() {
+		--suspended;
+	}
+
+	/**
+	 * Asserts whether an area intersects the active scissor area,
+	 * or the screen if there is none.
+	 *
+	 * @param left   Left of the area.
+	 * @param top    Top of the area.
+	 * @param right  Right of the area.
+	 * @param bottom Bottom of the area.
+	 * @return True if visible; false if not.
+	 */
+	public static boolean isVisible(float left, float top, float right, float bottom) {
+		if (suspended > 0 || lastObject >= max) {
+			return true;
+		}
+
+		if (lastObject > -1) {
+			ScissorArea area = objects[lastObject];
+			return right > area.clipLeft && left < area.clipRight && bottom > area.clipTop && top < area.clipBottom;
+		}
+
+		Window window = MinecraftClient.getInstance().getWindow();
+		return right > 0 && left < window.getScaledWidth() && bottom > 0 && top < window.getScaledHeight();
+	}
+
+	/**
+	 * Asserts whether a layout element intersects the active scissor area, or
+	 * the screen if there is none. Elements without a size are always visible,
+	 * as their extent is unknown.
+	 *
+	 * @param element Layout element to be checked.
+	 * @return True if visible; false if not.
+	 */
+	public static boolean isVisible(WLayoutElement element) {
+		if (element instanceof WAbstractWidget) {
+			float[] bounds = ((WAbstractWidget) element).getDrawBounds();
+			return bounds[0] == bounds[2] || bounds[1] == bounds[3] || isVisible(bounds[0], bounds[1], bounds[2], bounds[3]);
+		}
+
+		float width = element.getWidth();
+		float height = element.getHeight();
+
+		return width == 0 || height == 0 || isVisible(element.getX(), element.getY(), element.getX() + width, element.getY() + height);
+	}
+}
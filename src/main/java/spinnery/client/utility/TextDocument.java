@@ -0,0 +1,442 @@
+package spinnery.client.utility;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A TextDocument is the text model of text
+ * editors: a piece table, whose pieces are
+ * spans of either the original text or an
+ * append-only buffer of inserted text.
+ * <p>
+ * Pieces are kept in a balanced tree which
+ * tracks the length and line breaks of every
+ * subtree, and the line breaks of both buffers
+ * are indexed as they are written. Inserting,
+ * deleting, and converting between offsets and
+ * lines therefore cost O(log n), however long
+ * the document is, and the full text is only
+ * built when asked for, then cached until the
+ * next change. Text inserted right after the
+ * previous insertion extends its piece, such
+ * that typing does not add a piece per key.
+ */
+@Environment(EnvType.CLIENT)
+public class TextDocument {
+	protected static final Random RANDOM = new Random();
+
+	protected String original = "";
+	protected int[] originalBreaks = new int[0];
+
+	protected final StringBuilder added = new StringBuilder();
+	protected int[] addedBreaks = new int[16];
+	protected int addedBreakCount = 0;
+
+	protected Piece root;
+
+	protected String text = "";
+
+	public TextDocument() {
+	}
+
+	public TextDocument(String text) {
+		setText(text);
+	}
+
+	/**
+	 * Replaces the whole text of this document, discarding its pieces and buffers.
+	 *
+	 * @param text Text to be set.
+	 */
+	public void setText(String text) {
+		original = text;
+		originalBreaks = indexBreaks(text);
+
+		added.setLength(0);
+		addedBreakCount = 0;
+
+		root = text.isEmpty() ? null : createPiece(false, 0, text.length());
+
+		this.text = text;
+	}
+
+	/**
+	 * Inserts text at an offset.
+	 *
+	 * @param offset Offset to insert at, clamped to the document.
+	 * @param insert Text to be inserted.
+	 */
+	public void insert(int offset, String insert) {
+		if (insert.isEmpty()) return;
+
+		offset = Math.max(0, Math.min(length(), offset));
+
+		int start = added.length();
+
+		added.append(insert);
+
+		for (int i = 0; i < insert.length(); ++i) {
+			if (insert.charAt(i) == '\n') {
+				if (addedBreakCount == addedBreaks.length) {
+					addedBreaks = Arrays.copyOf(addedBreaks, addedBreakCount * 2);
+				}
+
+				addedBreaks[addedBreakCount++] = start + i;
+			}
+		}
+
+		Piece[] parts = split(root, offset);
+
+		if (!extend(parts[0], start, insert.length())) {
+			parts[0] = merge(parts[0], createPiece(true, start, insert.length()));
+		}
+
+		root = merge(parts[0], parts[1]);
+
+		text = null;
+	}
+
+	/**
+	 * Deletes the text between two offsets.
+	 *
+	 * @param start Offset of the first character to be deleted.
+	 * @param end   Offset after the last character to be deleted.
+	 * @return The deleted text.
+	 */
+	public String delete(int start, int end) {
+		start = Math.max(0, start);
+		end = Math.min(length(), end);
+
+		if (start >= end) return "";
+
+		Piece[] right = split(root, end);
+		Piece[] left = split(right[0], start);
+
+		StringBuilder deleted = new StringBuilder(end - start);
+		append(left[1], 0, 0, end - start, deleted);
+
+		root = merge(left[0], right[1]);
+
+		text = null;
+
+		return deleted.toString();
+	}
+
+	public int length() {
+		return length(root);
+	}
+
+	public boolean isEmpty() {
+		return root == null;
+	}
+
+	/**
+	 * Retrieves the amount of lines of this document,
+	 * which is one more than its amount of line breaks.
+	 *
+	 * @return The amount of lines.
+	 */
+	public int getLineCount() {
+		return breaks(root) + 1;
+	}
+
+	/**
+	 * Retrieves the offset of the first character of a line.
+	 *
+	 * @param line Index of the line.
+	 * @return The offset; the length of the document if past its last line.
+	 */
+	public int getLineStart(int line) {
+		if (line <= 0) return 0;
+		if (line >= getLineCount()) return length();
+
+		return getBreakOffset(line - 1) + 1;
+	}
+
+	/**
+	 * Retrieves the offset after the last character of a line, excluding its line break.
+	 *
+	 * @param line Index of the line.
+	 * @return The offset.
+	 */
+	public int getLineEnd(int line) {
+		if (line < 0) return 0;
+		if (line >= getLineCount() - 1) return length();
+
+		return getBreakOffset(line);
+	}
+
+	public int getLineLength(int line) {
+		return getLineEnd(line) - getLineStart(line);
+	}
+
+	public String getLine(int line) {
+		return substring(getLineStart(line), getLineEnd(line));
+	}
+
+	/**
+	 * Retrieves the line containing an offset.
+	 *
+	 * @param offset Offset to be located.
+	 * @return Index of the line.
+	 */
+	public int getLineAt(int offset) {
+		Piece node = root;
+		int line = 0;
+
+		while (node != null) {
+			int leftLength = length(node.left);
+
+			if (offset < leftLength) {
+				node = node.left;
+			} else if (offset < leftLength + node.length) {
+				return line + breaks(node.left) + countBreaks(node.isAdded, node.start, node.start + offset - leftLength);
+			} else {
+				line += breaks(node.left) + node.breaks;
+				offset -= leftLength + node.length;
+				node = node.right;
+			}
+		}
+
+		return line;
+	}
+
+	/**
+	 * Retrieves the text between two offsets.
+	 *
+	 * @param start Offset of the first character.
+	 * @param end   Offset after the last character.
+	 * @return The text between both offsets.
+	 */
+	public String substring(int start, int end) {
+		start = Math.max(0, start);
+		end = Math.min(length(), end);
+
+		if (start >= end) return "";
+
+		if (text != null) return text.substring(start, end);
+
+		StringBuilder builder = new StringBuilder(end - start);
+		append(root, 0, start, end, builder);
+		return builder.toString();
+	}
+
+	@Override
+	public String toString() {
+		if (text == null) {
+			StringBuilder builder = new StringBuilder(length());
+			append(root, 0, 0, length(), builder);
+			text = builder.toString();
+		}
+
+		return text;
+	}
+
+	protected int getBreakOffset(int index) {
+		Piece node = root;
+		int offset = 0;
+
+		while (node != null) {
+			int leftBreaks = breaks(node.left);
+
+			if (index < leftBreaks) {
+				node = node.left;
+			} else if (index < leftBreaks + node.breaks) {
+				int[] breaks = node.isAdded ? addedBreaks : originalBreaks;
+				int first = lowerBound(breaks, node.isAdded ? addedBreakCount : originalBreaks.length, node.start);
+				return offset + length(node.left) + breaks[first + index - leftBreaks] - node.start;
+			} else {
+				index -= leftBreaks + node.breaks;
+				offset += length(node.left) + node.length;
+				node = node.right;
+			}
+		}
+
+		return length();
+	}
+
+	protected void append(Piece node, int offset, int start, int end, StringBuilder builder) {
+		if (node == null || offset >= end || offset + node.totalLength <= start) return;
+
+		append(node.left, offset, start, end, builder);
+
+		int pieceOffset = offset + length(node.left);
+		int from = Math.max(start, pieceOffset) - pieceOffset;
+		int to = Math.min(end, pieceOffset + node.length) - pieceOffset;
+
+		if (from < to) {
+			if (node.isAdded) {
+				builder.append(added, node.start + from, node.start + to);
+			} else {
+				builder.append(original, node.start + from, node.start + to);
+			}
+		}
+
+		append(node.right, pieceOffset + node.length, start, end, builder);
+	}
+
+	protected Piece createPiece(boolean isAdded, int start, int length) {
+		Piece piece = new Piece(isAdded, start, length, RANDOM.nextInt());
+		piece.breaks = countBreaks(isAdded, start, start + length);
+		update(piece);
+		return piece;
+	}
+
+	/**
+	 * Extends the last piece of a tree by text appended to the added buffer,
+	 * if that piece ends where the text starts within the buffer.
+	 *
+	 * @param node   Root of the tree.
+	 * @param start  Offset of the text within the added buffer.
+	 * @param length Length of the text.
+	 * @return True if extended; false if not.
+	 */
+	protected boolean extend(Piece node, int start, int length) {
+		if (node == null) return false;
+
+		if (node.right != null) {
+			if (!extend(node.right, start, length)) return false;
+		} else if (node.isAdded && node.start + node.length == start) {
+			node.length += length;
+			node.breaks += countBreaks(true, start, start + length);
+		} else {
+			return false;
+		}
+
+		update(node);
+		return true;
+	}
+
+	/**
+	 * Splits a tree at an offset, splitting the piece containing it if needed.
+	 *
+	 * @return The tree before the offset, and the tree after it.
+	 */
+	protected Piece[] split(Piece node, int offset) {
+		if (node == null) return new Piece[2];
+
+		int leftLength = length(node.left);
+
+		if (offset <= leftLength) {
+			Piece[] parts = split(node.left, offset);
+			node.left = parts[1];
+			update(node);
+			parts[1] = node;
+			return parts;
+		} else if (offset >= leftLength + node.length) {
+			Piece[] parts = split(node.right, offset - leftLength - node.length);
+			node.right = parts[0];
+			update(node);
+			parts[0] = node;
+			return parts;
+		} else {
+			int local = offset - leftLength;
+
+			Piece rest = new Piece(node.isAdded, node.start + local, node.length - local, node.priority);
+			rest.breaks = countBreaks(rest.isAdded, rest.start, rest.start + rest.length);
+			rest.right = node.right;
+
+			node.length = local;
+			node.breaks -= rest.breaks;
+			node.right = null;
+
+			update(rest);
+			update(node);
+
+			return new Piece[]{node, rest};
+		}
+	}
+
+	protected Piece merge(Piece left, Piece right) {
+		if (left == null) return right;
+		if (right == null) return left;
+
+		if (left.priority > right.priority) {
+			left.right = merge(left.right, right);
+			update(left);
+			return left;
+		} else {
+			right.left = merge(left, right.left);
+			update(right);
+			return right;
+		}
+	}
+
+	protected int countBreaks(boolean isAdded, int start, int end) {
+		int[] breaks = isAdded ? addedBreaks : originalBreaks;
+		int count = isAdded ? addedBreakCount : originalBreaks.length;
+		return lowerBound(breaks, count, end) - lowerBound(breaks, count, start);
+	}
+
+	protected static int lowerBound(int[] values, int count, int value) {
+		int low = 0;
+		int high = count;
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+
+			if (values[middle] < value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		return low;
+	}
+
+	protected static int[] indexBreaks(String text) {
+		int count = 0;
+
+		for (int i = 0; i < text.length(); ++i) {
+			if (text.charAt(i) == '\n') ++count;
+		}
+
+		int[] breaks = new int[count];
+
+		for (int i = 0, j = 0; i < text.length(); ++i) {
+			if (text.charAt(i) == '\n') breaks[j++] = i;
+		}
+
+		return breaks;
+	}
+
+	protected static int length(Piece node) {
+		return node == null ? 0 : node.totalLength;
+	}
+
+	protected static int breaks(Piece node) {
+		return node == null ? 0 : node.totalBreaks;
+	}
+
+	protected static void update(Piece node) {
+		node.totalLength = length(node.left) + node.length + length(node.right);
+		node.totalBreaks = breaks(node.left) + node.breaks + breaks(node.right);
+	}
+
+	/**
+	 * A Piece is a span of either buffer, and a node
+	 * of the tree, tracking the totals of its subtree.
+	 */
+	protected static class Piece {
+		protected final boolean isAdded;
+		protected final int priority;
+		protected int start;
+		protected int length;
+		protected int breaks;
+		protected int totalLength;
+		protected int totalBreaks;
+		protected Piece left;
+		protected Piece right;
+
+		protected Piece(boolean isAdded, int start, int length, int priority) {
+			this.isAdded = isAdded;
+			this.start = start;
+			this.length = length;
+			this.priority = priority;
+		}
+	}
+}
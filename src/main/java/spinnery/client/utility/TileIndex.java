@@ -0,0 +1,208 @@
+package spinnery.client.utility;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import spinnery.widget.WAbstractWidget;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * A TileIndex is a spatial index over the children
+ * of a container, which divides the space they are
+ * measured in into square tiles, and keeps track of
+ * which children overlap each tile.
+ * <p>
+ * Querying an area only visits the tiles intersecting
+ * it, such that the cost of drawing or hit-testing
+ * a viewport depends on what is in view, rather than
+ * on how many children there are. Like ContentBounds,
+ * children are indexed as they are added or removed,
+ * and changes the container cannot attribute to a
+ * single child invalidate the index, which is then
+ * rebuilt once, when next queried.
+ */
+@Environment(EnvType.CLIENT)
+public class TileIndex {
+	protected final float tileSize;
+	protected final Supplier<? extends Collection<WAbstractWidget>> widgets;
+	protected final ContentBounds.Measure measure;
+	protected final Map<Long, List<WAbstractWidget>> tiles = new HashMap<>();
+	protected final Map<WAbstractWidget, int[]> ranges = new HashMap<>();
+	protected final float[] extent = new float[4];
+	protected boolean isStale = true;
+	protected int revision = 0;
+
+	/**
+	 * @param tileSize Size of every tile, in the space children are measured in.
+	 * @param widgets  Supplier of the children of the container, used when rebuilding.
+	 * @param measure  Function measuring the extent of a child.
+	 */
+	public TileIndex(float tileSize, Supplier<? extends Collection<WAbstractWidget>> widgets, ContentBounds.Measure measure) {
+		this.tileSize = tileSize;
+		this.widgets = widgets;
+		this.measure = measure;
+	}
+
+	protected static long pack(int tileX, int tileY) {
+		return ((long) tileX << 32) | (tileY & 0xFFFFFFFFL);
+	}
+
+	public float getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * Retrieves the tile containing a coordinate, along either axis.
+	 *
+	 * @param coordinate Coordinate, in the space children are measured in.
+	 * @return The tile coordinate.
+	 */
+	public int getTile(float coordinate) {
+		return (int) Math.floor(coordinate / tileSize);
+	}
+
+	/**
+	 * Retrieves the revision of this index, which changes
+	 * whenever children are added, removed or re-measured.
+	 *
+	 * @return The revision.
+	 */
+	public int getRevision() {
+		validate();
+		return revision;
+	}
+
+	/**
+	 * Discards all tiles, such that all children are re-indexed when next queried.
+	 */
+	public void invalidate() {
+		isStale = true;
+	}
+
+	/**
+	 * Measures and indexes children.
+	 *
+	 * @param widgets Children which were added.
+	 */
+	public void add(WAbstractWidget... widgets) {
+		if (isStale) return;
+
+		for (WAbstractWidget widget : widgets) {
+			insert(widget);
+		}
+
+		++revision;
+	}
+
+	/**
+	 * Removes children from the index.
+	 *
+	 * @param widgets Children which were removed.
+	 */
+	public void remove(WAbstractWidget... widgets) {
+		if (isStale) return;
+
+		for (WAbstractWidget widget : widgets) {
+			erase(widget);
+		}
+
+		++revision;
+	}
+
+	/**
+	 * Re-measures a single child which moved or resized.
+	 *
+	 * @param widget Child which changed.
+	 */
+	public void update(WAbstractWidget widget) {
+		if (isStale) return;
+
+		erase(widget);
+		insert(widget);
+
+		++revision;
+	}
+
+	/**
+	 * Collects the children overlapping a range of tiles. Every child
+	 * is collected once, from the first tile of the range it overlaps,
+	 * such that no de-duplication is needed.
+	 *
+	 * @param minimumTileX First tile along X, inclusive.
+	 * @param minimumTileY First tile along Y, inclusive.
+	 * @param maximumTileX Last tile along X, inclusive.
+	 * @param maximumTileY Last tile along Y, inclusive.
+	 * @param into         Collection the children are added to.
+	 */
+	public void query(int minimumTileX, int minimumTileY, int maximumTileX, int maximumTileY, Collection<WAbstractWidget> into) {
+		validate();
+
+		for (int tileX = minimumTileX; tileX <= maximumTileX; ++tileX) {
+			for (int tileY = minimumTileY; tileY <= maximumTileY; ++tileY) {
+				List<WAbstractWidget> tile = tiles.get(pack(tileX, tileY));
+
+				if (tile == null) continue;
+
+				for (WAbstractWidget widget : tile) {
+					int[] range = ranges.get(widget);
+
+					if (tileX == Math.max(range[0], minimumTileX) && tileY == Math.max(range[1], minimumTileY)) {
+						into.add(widget);
+					}
+				}
+			}
+		}
+	}
+
+	protected void validate() {
+		if (!isStale) return;
+
+		isStale = false;
+
+		tiles.clear();
+		ranges.clear();
+
+		for (WAbstractWidget widget : widgets.get()) {
+			insert(widget);
+		}
+
+		++revision;
+	}
+
+	protected void insert(WAbstractWidget widget) {
+		if (ranges.containsKey(widget)) return;
+
+		measure.measure(widget, extent);
+
+		int[] range = new int[]{getTile(extent[0]), getTile(extent[1]), getTile(extent[2]), getTile(extent[3])};
+		ranges.put(widget, range);
+
+		for (int tileX = range[0]; tileX <= range[2]; ++tileX) {
+			for (int tileY = range[1]; tileY <= range[3]; ++tileY) {
+				tiles.computeIfAbsent(pack(tileX, tileY), key -> new ArrayList<>()).add(widget);
+			}
+		}
+	}
+
+	protected void erase(WAbstractWidget widget) {
+		int[] range = ranges.remove(widget);
+
+		if (range == null) return;
+
+		for (int tileX = range[0]; tileX <= range[2]; ++tileX) {
+			for (int tileY = range[1]; tileY <= range[3]; ++tileY) {
+				long key = pack(tileX, tileY);
+				List<WAbstractWidget> tile = tiles.get(key);
+
+				if (tile == null) continue;
+
+				tile.remove(widget);
+
+				if (tile.isEmpty()) {
+					tiles.remove(key);
+				}
+			}
+		}
+	}
+}
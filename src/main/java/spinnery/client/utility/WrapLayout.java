@@ -0,0 +1,247 @@
+package spinnery.client.utility;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import spinnery.client.render.TextRenderer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A WrapLayout tracks how the lines of a
+ * TextDocument wrap into visual lines of a
+ * given width, storing for every logical line
+ * the columns its visual lines start at.
+ * <p>
+ * The amount of visual lines of every logical
+ * line is kept in a Fenwick tree, such that a
+ * visual line is resolved to its logical line in
+ * O(log n). Edits re-wrap only the logical lines
+ * they touched, and the whole document is only
+ * re-wrapped when the width or scale changes.
+ */
+@Environment(EnvType.CLIENT)
+public class WrapLayout {
+	protected final TextDocument document;
+	protected final List<int[]> starts = new ArrayList<>();
+	protected int[] tree = new int[1];
+	protected int visualLineCount = 0;
+	protected float width = 0;
+	protected double scale = 1;
+	protected boolean isStale = true;
+
+	/**
+	 * @param document Document whose lines are wrapped.
+	 */
+	public WrapLayout(TextDocument document) {
+		this.document = document;
+	}
+
+	/**
+	 * Sets the width lines are wrapped at, re-wrapping all lines if it changed.
+	 *
+	 * @param width Width lines are wrapped at.
+	 * @param scale Scale text is drawn at.
+	 */
+	public void setWidth(float width, double scale) {
+		if (width != this.width || scale != this.scale) {
+			this.width = width;
+			this.scale = scale;
+			invalidate();
+		}
+	}
+
+	/**
+	 * Discards all visual lines, such that all lines are re-wrapped when next queried.
+	 */
+	public void invalidate() {
+		isStale = true;
+	}
+
+	/**
+	 * Re-wraps the logical lines touched by an edit.
+	 *
+	 * @param line    Index of the first logical line touched.
+	 * @param removed Amount of logical lines the edit replaced.
+	 * @param added   Amount of logical lines which replaced them.
+	 */
+	public void onLinesChanged(int line, int removed, int added) {
+		if (isStale) return;
+
+		List<int[]> replaced = starts.subList(line, Math.min(starts.size(), line + removed));
+		List<int[]> previous = new ArrayList<>(replaced);
+		replaced.clear();
+
+		List<int[]> wrapped = new ArrayList<>(added);
+
+		for (int i = 0; i < added; ++i) {
+			wrapped.add(wrap(line + i));
+		}
+
+		starts.addAll(line, wrapped);
+
+		if (previous.size() == added) {
+			for (int i = 0; i < added; ++i) {
+				int delta = wrapped.get(i).length - previous.get(i).length;
+
+				if (delta != 0) {
+					for (int j = line + i + 1; j < tree.length; j += j & -j) {
+						tree[j] += delta;
+					}
+
+					visualLineCount += delta;
+				}
+			}
+		} else {
+			rebuildTree();
+		}
+	}
+
+	public int getVisualLineCount() {
+		validate();
+		return visualLineCount;
+	}
+
+	/**
+	 * Retrieves the logical line a visual line belongs to.
+	 *
+	 * @param visualLine Index of the visual line.
+	 * @return Index of the logical line.
+	 */
+	public int getLogicalLine(int visualLine) {
+		validate();
+
+		int line = 0;
+
+		for (int step = Integer.highestOneBit(Math.max(1, tree.length - 1)); step > 0; step >>= 1) {
+			if (line + step < tree.length && tree[line + step] <= visualLine) {
+				line += step;
+				visualLine -= tree[line];
+			}
+		}
+
+		return Math.min(line, starts.size() - 1);
+	}
+
+	/**
+	 * Retrieves the first visual line of a logical line.
+	 *
+	 * @param logicalLine Index of the logical line.
+	 * @return Index of the visual line.
+	 */
+	public int getFirstVisualLine(int logicalLine) {
+		validate();
+
+		int visualLine = 0;
+
+		for (int i = Math.min(logicalLine, tree.length - 1); i > 0; i -= i & -i) {
+			visualLine += tree[i];
+		}
+
+		return visualLine;
+	}
+
+	/**
+	 * Retrieves the offset, within the document, of the first character of a visual line.
+	 *
+	 * @param visualLine Index of the visual line.
+	 * @return The offset.
+	 */
+	public int getVisualLineStart(int visualLine) {
+		int line = getLogicalLine(visualLine);
+		int[] lineStarts = starts.get(line);
+		int index = Math.max(0, Math.min(lineStarts.length - 1, visualLine - getFirstVisualLine(line)));
+		return document.getLineStart(line) + lineStarts[index];
+	}
+
+	public int getVisualLineLength(int visualLine) {
+		int line = getLogicalLine(visualLine);
+		int[] lineStarts = starts.get(line);
+		int index = Math.max(0, Math.min(lineStarts.length - 1, visualLine - getFirstVisualLine(line)));
+		int end = index + 1 < lineStarts.length ? lineStarts[index + 1] : document.getLineLength(line);
+		return end - lineStarts[index];
+	}
+
+	public String getVisualLine(int visualLine) {
+		int start = getVisualLineStart(visualLine);
+		return document.substring(start, start + getVisualLineLength(visualLine));
+	}
+
+	/**
+	 * Asserts whether a visual line is the last of its logical line,
+	 * i.e. whether it ends with a line break rather than a wrap.
+	 *
+	 * @param visualLine Index of the visual line.
+	 * @return True if the last; false if not.
+	 */
+	public boolean isLogicalLineEnd(int visualLine) {
+		int line = getLogicalLine(visualLine);
+		return visualLine - getFirstVisualLine(line) >= starts.get(line).length - 1;
+	}
+
+	protected void validate() {
+		if (!isStale) return;
+
+		isStale = false;
+
+		starts.clear();
+
+		for (int line = 0; line < document.getLineCount(); ++line) {
+			starts.add(wrap(line));
+		}
+
+		rebuildTree();
+	}
+
+	protected void rebuildTree() {
+		tree = new int[starts.size() + 1];
+		visualLineCount = 0;
+
+		for (int i = 1; i < tree.length; ++i) {
+			int count = starts.get(i - 1).length;
+			visualLineCount += count;
+			tree[i] += count;
+
+			int parent = i + (i & -i);
+
+			if (parent < tree.length) {
+				tree[parent] += tree[i];
+			}
+		}
+	}
+
+	/**
+	 * Wraps a logical line, breaking before the first character
+	 * which would make a visual line wider than the width.
+	 *
+	 * @param line Index of the logical line.
+	 * @return The columns its visual lines start at.
+	 */
+	protected int[] wrap(int line) {
+		String text = document.getLine(line);
+
+		int[] lineStarts = new int[4];
+		int count = 1;
+		int lineWidth = 0;
+		int lineStart = 0;
+
+		for (int i = 0; i < text.length(); ++i) {
+			int characterWidth = (int) Math.round(TextRenderer.width(text.charAt(i)) * scale);
+
+			lineWidth += characterWidth;
+
+			if (lineWidth > width && i > lineStart) {
+				if (count == lineStarts.length) {
+					lineStarts = Arrays.copyOf(lineStarts, count * 2);
+				}
+
+				lineStarts[count++] = i;
+				lineStart = i;
+				lineWidth = characterWidth;
+			}
+		}
+
+		return Arrays.copyOf(lineStarts, count);
+	}
+}
@@ -2,6 +2,7 @@ package spinnery.common.container;
 
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.network.ClientSidePacketRegistry;
 import net.fabricmc.fabric.api.network.ServerSidePacketRegistry;
 import net.minecraft.container.Container;
 import net.minecraft.container.Slot;
@@ -9,19 +10,28 @@ import net.minecraft.container.SlotActionType;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.inventory.Inventory;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.PacketByteBuf;
 import net.minecraft.world.World;
 import org.lwjgl.glfw.GLFW;
+import spinnery.common.inventory.InventoryJournal;
+import spinnery.common.inventory.TrackedInventory;
 import spinnery.common.registry.NetworkRegistry;
-import spinnery.common.utility.MutablePair;
+import spinnery.common.utility.InventoryUtilities;
+import spinnery.common.utility.SlotStackMap;
 import spinnery.common.utility.StackUtilities;
 import spinnery.widget.WAbstractWidget;
 import spinnery.widget.WInterface;
 import spinnery.widget.WSlot;
+import spinnery.widget.WSlotGrid;
 import spinnery.widget.api.Action;
+import spinnery.widget.api.EventPayload;
+import spinnery.widget.api.SyncedProperty;
 import spinnery.widget.api.WNetworked;
+import spinnery.widget.api.WSynced;
 
 import java.util.*;
 
@@ -42,11 +52,22 @@ public class BaseContainer extends Container {
 	public static final int PLAYER_INVENTORY = 0;
 	protected final WInterface serverInterface;
 	public Map<Integer, Inventory> inventories = new HashMap<>();
-	public Map<Integer, Map<Integer, ItemStack>> cachedInventories = new HashMap<>();
-	protected Set<WSlot> splitSlots = new HashSet<>();
-	protected Set<WSlot> singleSlots = new HashSet<>();
-	protected Map<Integer, Map<Integer, ItemStack>> previewStacks = new HashMap<>();
+	public SlotStackMap cachedInventories = new SlotStackMap();
+	protected Map<Integer, InventoryJournal.Cursor> journalCursors = new HashMap<>();
+	protected QuickMoveRoutes quickMoveRoutes = new QuickMoveRoutes(this);
+	protected SlotIndex slotIndex = new SlotIndex(this);
+	protected Map<Integer, InventoryQuery> queries = new HashMap<>();
+	protected int queryRevision = 0;
+	protected Set<Integer> dirtyInventories = new HashSet<>();
+	protected List<WSlot> shownSlots = new ArrayList<>();
+	protected boolean isSnapshotSent = false;
+	protected SlotDrag splitSlots = new SlotDrag();
+	protected SlotDrag singleSlots = new SlotDrag();
+	protected SlotStackMap previewStacks = new SlotStackMap();
 	protected ItemStack previewCursorStack = ItemStack.EMPTY;
+	protected SlotActionLog actionLog = new SlotActionLog();
+	protected SlotStackMap previousStacks = null;
+	protected SlotStackMap touchedSlots = null;
 	protected World world;
 
 	/**
@@ -114,13 +135,13 @@ public class BaseContainer extends Container {
 	}
 
 	/**
-	 * Retrieves the set of WSlots on which the mouse has been dragged, given a mouse button.
+	 * Retrieves the WSlots on which the mouse has been dragged, given a mouse button.
 	 *
 	 * @param mouseButton Mouse button used for dragging.
-	 * @return Set of WSlots on which the mouse has been dragged, given the mouse button.
+	 * @return SlotDrag of the WSlots on which the mouse has been dragged, given the mouse button.
 	 */
 	@Environment(EnvType.CLIENT)
-	public Set<WSlot> getDragSlots(int mouseButton) {
+	public SlotDrag getDragSlots(int mouseButton) {
 		switch (mouseButton) {
 			case 0:
 				return splitSlots;
@@ -140,13 +161,23 @@ public class BaseContainer extends Container {
 		return serverInterface;
 	}
 
+	/**
+	 * Retrieves the SlotIndex of this container, mapping
+	 * each Item to the WSlots currently holding it.
+	 *
+	 * @return The SlotIndex of this container.
+	 */
+	public SlotIndex getSlotIndex() {
+		return slotIndex;
+	}
+
 	/**
 	 * Retrieves the preview ItemStacks associated with all WSlots inventory numbers and numbers.
 	 *
 	 * @return ItemStacks of all WSlots, whose key is the inventory number, and value key is the number.
 	 */
 	@Environment(EnvType.CLIENT)
-	public Map<Integer, Map<Integer, ItemStack>> getPreviewStacks() {
+	public SlotStackMap getPreviewStacks() {
 		return previewStacks;
 	}
 
@@ -157,7 +188,7 @@ public class BaseContainer extends Container {
 	 */
 	@Environment(EnvType.CLIENT)
 	public boolean isDragging() {
-		return getDragSlots(GLFW.GLFW_MOUSE_BUTTON_1).isEmpty() || getDragSlots(GLFW.GLFW_MOUSE_BUTTON_2).isEmpty();
+		return !getDragSlots(GLFW.GLFW_MOUSE_BUTTON_1).isEmpty() || !getDragSlots(GLFW.GLFW_MOUSE_BUTTON_2).isEmpty();
 	}
 
 	/**
@@ -179,73 +210,139 @@ public class BaseContainer extends Container {
 		}
 	}
 
+	/**
+	 * Method called on the server when a WNetworked widget
+	 * WNetworked.Event is received in its binary layout.
+	 *
+	 * @param widgetSyncId Synchronization ID of the WNetworked widget; must match between client and server.
+	 * @param payload      EventPayload decoded from the packet.
+	 */
+	public void onInterfaceEvent(int widgetSyncId, EventPayload payload) {
+		Set<WAbstractWidget> checkWidgets = serverInterface.getAllWidgets();
+		for (WAbstractWidget widget : checkWidgets) {
+			if (!(widget instanceof WNetworked)) continue;
+			if (((WNetworked) widget).getSyncId() == widgetSyncId) {
+				((WNetworked) widget).onInterfaceEvent(payload);
+				return;
+			}
+		}
+	}
+
 	/**
 	 * Method called when a drag Action is performed on a WSlot, both on the client and server.
 	 *
-	 * @param slotNumber      Number of WSlot in which the Action happened.
-	 * @param inventoryNumber Inventory number of WSlot in which the Action happened.
+	 * @param slotNumber      Numbers of the WSlots over which the drag happened.
+	 * @param inventoryNumber Inventory numbers of the WSlots over which the drag happened.
 	 * @param action          Action which was performed.
 	 */
 	public void onSlotDrag(int[] slotNumber, int[] inventoryNumber, Action action) {
-		HashMap<Integer, WSlot> slots = new HashMap<>();
+		SlotDrag drag = new SlotDrag();
 
-		for (int i = 0; i < slotNumber.length; ++i) {
-			WSlot slot = getInterface().getSlot(inventoryNumber[0], slotNumber[0]);
+		for (int i = 0; i < Math.min(slotNumber.length, inventoryNumber.length); ++i) {
+			WSlot slot = getInterface().getSlot(inventoryNumber[i], slotNumber[i]);
 
 			if (slot != null) {
-				slots.put(i, slot);
+				drag.add(slot);
 			}
 		}
 
-		if (slots.isEmpty()) {
-			return;
-		}
+		onSlotDrag(drag, action);
+	}
 
-		int split;
+	/**
+	 * Distributes the cursor ItemStack over the WSlots of a drag: each WSlot
+	 * which accepts it receives an equal split of it when splitting, or one
+	 * Item otherwise, up to its maximum count. The split is computed over the
+	 * WSlots which may receive any, excluding locked, refusing and full ones,
+	 * which are counted in a first pass.
+	 * <p>
+	 * Previews write into the existing preview ItemStacks where possible,
+	 * such that recomputing them while dragging does not allocate; otherwise,
+	 * every WSlot and the cursor are set once, after the split is computed.
+	 *
+	 * @param drag   WSlots over which the drag happened.
+	 * @param action Action which was performed.
+	 */
+	public void onSlotDrag(SlotDrag drag, Action action) {
+		ItemStack cursorStack = getPlayerInventory().getCursorStack();
 
-		if (action.isSplit()) {
-			split = getPlayerInventory().getCursorStack().getCount() / slots.size();
-		} else {
-			split = 1;
+		if (drag.isEmpty() || cursorStack.isEmpty()) {
+			return;
 		}
 
-		ItemStack stackA;
+		int targets = 0;
 
-		if (action.isPreview()) {
-			stackA = getPlayerInventory().getCursorStack().copy();
-		} else {
-			stackA = getPlayerInventory().getCursorStack();
-		}
+		for (int i = 0; i < drag.size(); ++i) {
+			WSlot slot = drag.getSlot(i);
 
-		if (stackA.isEmpty()) {
-			return;
+			if (getDragCapacity(slot, slot.getStack(), cursorStack) > 0) {
+				++targets;
+			}
 		}
 
+		int split = targets == 0 ? 0 : action.isSplit() ? cursorStack.getCount() / targets : 1;
+		int remaining = cursorStack.getCount();
 
-		for (Integer number : slots.keySet()) {
-			WSlot slotA = slots.get(number);
+		for (int i = 0; i < drag.size(); ++i) {
+			WSlot slot = drag.getSlot(i);
+			ItemStack stack = slot.getStack();
 
-			if (slotA.refuses(stackA)) continue;
+			int moved = Math.min(Math.min(split, remaining), getDragCapacity(slot, stack, cursorStack));
 
-			ItemStack stackB;
+			remaining -= moved;
 
 			if (action.isPreview()) {
-				stackB = slotA.getStack().copy();
-			} else {
-				stackB = slotA.getStack();
-			}
+				if (moved == 0) {
+					previewStacks.remove(slot.getInventoryNumber(), slot.getSlotNumber());
+					continue;
+				}
 
-			MutablePair<ItemStack, ItemStack> stacks = StackUtilities.merge(stackA, stackB, split, Math.min(stackA.getMaxCount(), split));
+				ItemStack preview = previewStacks.get(slot.getInventoryNumber(), slot.getSlotNumber());
 
-			if (action.isPreview()) {
-				slotA.getInterface().getContainer().previewCursorStack = stacks.getFirst().copy();
-				slotA.setPreviewStack(stacks.getSecond().copy());
+				if (preview == null || !StackUtilities.equalItemAndTag(preview, cursorStack)) {
+					preview = cursorStack.copy();
+					previewStacks.put(slot.getInventoryNumber(), slot.getSlotNumber(), preview);
+				}
+
+				preview.setCount(stack.getCount() + moved);
+			} else if (moved == 0) {
+				continue;
+			} else if (stack.isEmpty()) {
+				ItemStack placed = cursorStack.copy();
+				placed.setCount(moved);
+				slot.setStack(placed);
 			} else {
-				stackA = stacks.getFirst();
-				slotA.getInterface().getContainer().previewCursorStack = ItemStack.EMPTY;
-				slotA.setStack(stacks.getSecond());
+				stack.increment(moved);
+				slot.setStack(stack);
 			}
 		}
+
+		if (action.isPreview()) {
+			if (previewCursorStack.isEmpty() || !StackUtilities.equalItemAndTag(previewCursorStack, cursorStack)) {
+				previewCursorStack = cursorStack.copy();
+			}
+
+			previewCursorStack.setCount(remaining);
+		} else {
+			cursorStack.setCount(remaining);
+			previewCursorStack = ItemStack.EMPTY;
+		}
+	}
+
+	/**
+	 * Retrieves the amount of Items of the cursor ItemStack a WSlot of a drag may receive.
+	 *
+	 * @param slot        WSlot of the drag.
+	 * @param stack       ItemStack of the WSlot.
+	 * @param cursorStack Cursor ItemStack.
+	 * @return The amount of Items; zero if the WSlot is locked, refuses it or is full.
+	 */
+	protected int getDragCapacity(WSlot slot, ItemStack stack, ItemStack cursorStack) {
+		if (slot.isLocked() || slot.refuses(cursorStack) || (!stack.isEmpty() && !StackUtilities.equalItemAndTag(cursorStack, stack))) {
+			return 0;
+		}
+
+		return Math.max(0, getTransferLimit(slot, stack, cursorStack) - stack.getCount());
 	}
 
 	/**
@@ -332,38 +429,714 @@ public class BaseContainer extends Container {
 				break;
 			}
 			case QUICK_MOVE: {
-				for (WAbstractWidget widget : serverInterface.getAllWidgets()) {
-					if (widget instanceof WSlot && ((WSlot) widget).getLinkedInventory() != slotA.getLinkedInventory()) {
-						WSlot slotB = ((WSlot) widget);
-						ItemStack stackC = slotB.getStack();
-						stackA = slotA.getStack();
-
-						if (slotB.refuses(stackA)) continue;
-						if (slotB.isLocked()) continue;
-
-						if ((!slotA.getStack().isEmpty() && stackC.isEmpty()) || (StackUtilities.equalItemAndTag(stackA, stackC) && stackC.getCount() < (slotB.getInventoryNumber() == PLAYER_INVENTORY ? stackA.getMaxCount() : slotB.getMaxCount()))) {
-							int maxB = stackC.isEmpty() || slotB.getInventoryNumber() == PLAYER_INVENTORY ? stackA.getMaxCount() : slotB.getMaxCount();
-							slotA.consume(action, Action.Subtype.FROM_SLOT_TO_SLOT_CUSTOM_FULL_STACK);
-							StackUtilities.merge(slotA::getStack, slotB::getStack, slotA::getMaxCount, () -> maxB).apply(slotA::setStack, slotB::setStack);
-							break;
-						}
-					}
+				WSlot slotB = quickMoveRoutes.findTarget(slotA, slotIndex);
+
+				if (slotB != null) {
+					ItemStack stackC = slotB.getStack();
+					int maxB = stackC.isEmpty() || slotB.getInventoryNumber() == PLAYER_INVENTORY ? slotA.getStack().getMaxCount() : slotB.getMaxCount();
+					slotA.consume(action, Action.Subtype.FROM_SLOT_TO_SLOT_CUSTOM_FULL_STACK);
+					StackUtilities.merge(slotA::getStack, slotB::getStack, slotA::getMaxCount, () -> maxB).apply(slotA::setStack, slotB::setStack);
 				}
 				break;
 			}
 			case PICKUP_ALL: {
-				for (WAbstractWidget widget : getInterface().getAllWidgets()) {
-					if (widget instanceof WSlot && StackUtilities.equalItemAndTag(((WSlot) widget).getStack(), stackB)) {
-						WSlot slotB = (WSlot) widget;
+				if (stackB.isEmpty()) break;
+
+				BitSet positions = slotIndex.getSlotsCopy(stackB.getItem());
+
+				for (int position = positions.nextSetBit(0); position >= 0; position = positions.nextSetBit(position + 1)) {
+					WSlot slotB = slotIndex.getSlot(position);
+
+					if (slotB == null) continue;
+					if (!StackUtilities.equalItemAndTag(slotB.getStack(), stackB)) continue;
+					if (slotB.isLocked()) continue;
+
+					slotB.consume(action, Action.Subtype.FROM_SLOT_TO_CURSOR_CUSTOM_FULL_STACK);
+					StackUtilities.merge(slotB::getStack, inventory::getCursorStack, slotB::getMaxCount, stackB::getMaxCount).apply(slotB::setStack, inventory::setCursorStack);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Moves all ItemStacks from the slots of one inventory into those of another,
+	 * optionally only those of a given Item. All merges are planned in a single pass
+	 * over both inventories, filling matching ItemStacks first and empty slots second,
+	 * after which each changed slot is set once.
+	 * <p>
+	 * Every slot displayed by a WSlot or a WSlotGrid is considered, visible or not.
+	 * Slots are read through {@link InventoryUtilities}, and their WSlots are only
+	 * resolved, and ItemStacks only copied, for those a merge may involve.
+	 *
+	 * @param fromInventoryNumber Inventory number of the source inventory.
+	 * @param toInventoryNumber   Inventory number of the target inventory.
+	 * @param filter              Item to be moved; null to move everything.
+	 */
+	public void onSlotTransfer(int fromInventoryNumber, int toInventoryNumber, Item filter) {
+		Inventory fromInventory = getInventory(fromInventoryNumber);
+		Inventory toInventory = getInventory(toInventoryNumber);
+
+		if (fromInventoryNumber == toInventoryNumber || fromInventory == null || toInventory == null) {
+			return;
+		}
+
+		int[] sources = getSortedSlots(fromInventoryNumber);
+		int[] targets = getSortedSlots(toInventoryNumber);
+
+		Set<Item> items = new HashSet<>();
+
+		for (int slotNumber : sources) {
+			if (InventoryUtilities.getCount(fromInventory, slotNumber) <= 0) continue;
+
+			Item item = InventoryUtilities.getItem(fromInventory, slotNumber);
+
+			if (filter == null || item == filter) {
+				items.add(item);
+			}
+		}
+
+		if (items.isEmpty()) {
+			return;
+		}
+
+		WSlot[] targetSlots = new WSlot[targets.length];
+		ItemStack[] targetStacks = new ItemStack[targets.length];
+		boolean[] isTargetChanged = new boolean[targets.length];
+
+		Map<Item, List<Integer>> partialTargets = new HashMap<>();
+		Deque<Integer> emptyTargets = new ArrayDeque<>();
+
+		for (int i = 0; i < targets.length; ++i) {
+			if (InventoryUtilities.getCount(toInventory, targets[i]) <= 0) {
+				targetStacks[i] = ItemStack.EMPTY;
+				emptyTargets.addLast(i);
+				continue;
+			}
+
+			Item item = InventoryUtilities.getItem(toInventory, targets[i]);
+
+			if (items.contains(item)) {
+				targetStacks[i] = InventoryUtilities.copyStack(toInventory, targets[i]);
+				partialTargets.computeIfAbsent(item, key -> new ArrayList<>()).add(i);
+			}
+		}
+
+		for (int slotNumber : sources) {
+			if (InventoryUtilities.getCount(fromInventory, slotNumber) <= 0 || !items.contains(InventoryUtilities.getItem(fromInventory, slotNumber))) continue;
+
+			WSlot source = getInterface().getSlot(fromInventoryNumber, slotNumber);
+
+			if (source == null || source.isLocked()) continue;
 
-						if (slotB.isLocked()) continue;
+			ItemStack stackA = source.getStack();
+			ItemStack remainder = stackA.copy();
 
-						slotB.consume(action, Action.Subtype.FROM_SLOT_TO_CURSOR_CUSTOM_FULL_STACK);
-						StackUtilities.merge(slotB::getStack, inventory::getCursorStack, slotB::getMaxCount, stackB::getMaxCount).apply(slotB::setStack, inventory::setCursorStack);
+			List<Integer> partial = partialTargets.get(remainder.getItem());
+
+			if (partial != null) {
+				for (Iterator<Integer> iterator = partial.iterator(); iterator.hasNext() && !remainder.isEmpty(); ) {
+					int i = iterator.next();
+					ItemStack stackB = targetStacks[i];
+
+					if (!ItemStack.areTagsEqual(remainder, stackB)) continue;
+
+					WSlot target = getTargetSlot(targetSlots, toInventoryNumber, targets, i);
+
+					if (target == null || target.isLocked()) {
+						iterator.remove();
+						continue;
+					}
+
+					if (target.refuses(remainder)) continue;
+
+					int limit = getTransferLimit(target, stackB, remainder);
+					int moved = Math.min(remainder.getCount(), limit - stackB.getCount());
+
+					if (moved > 0) {
+						stackB.increment(moved);
+						remainder.decrement(moved);
+						isTargetChanged[i] = true;
 					}
+
+					if (stackB.getCount() >= limit) {
+						iterator.remove();
+					}
+				}
+			}
+
+			for (Iterator<Integer> iterator = emptyTargets.iterator(); iterator.hasNext() && !remainder.isEmpty(); ) {
+				int i = iterator.next();
+
+				WSlot target = getTargetSlot(targetSlots, toInventoryNumber, targets, i);
+
+				if (target == null || target.isLocked()) {
+					iterator.remove();
+					continue;
 				}
+
+				if (target.refuses(remainder)) continue;
+
+				int limit = getTransferLimit(target, ItemStack.EMPTY, remainder);
+				int moved = Math.min(remainder.getCount(), limit);
+
+				if (moved <= 0) continue;
+
+				targetStacks[i] = remainder.split(moved);
+				isTargetChanged[i] = true;
+				iterator.remove();
+
+				if (moved < limit) {
+					partialTargets.computeIfAbsent(targetStacks[i].getItem(), key -> new ArrayList<>()).add(i);
+				}
+			}
+
+			if (remainder.getCount() != stackA.getCount()) {
+				source.consume(Action.TRANSFER_ALL, Action.Subtype.FROM_SLOT_TO_SLOT_CUSTOM_FULL_STACK);
+				source.setStack(remainder.isEmpty() ? ItemStack.EMPTY : remainder);
+			}
+		}
+
+		for (int i = 0; i < targets.length; ++i) {
+			if (isTargetChanged[i]) {
+				targetSlots[i].setStack(targetStacks[i]);
+			}
+		}
+	}
+
+	/**
+	 * Retrieves the WSlot of a target slot of a transfer, resolving it when first needed.
+	 */
+	protected WSlot getTargetSlot(WSlot[] targetSlots, int inventoryNumber, int[] targets, int i) {
+		if (targetSlots[i] == null) {
+			targetSlots[i] = getInterface().getSlot(inventoryNumber, targets[i]);
+		}
+
+		return targetSlots[i];
+	}
+
+	/**
+	 * Retrieves the maximum count of an ItemStack moved into a WSlot,
+	 * following the same rules as {@link Action#QUICK_MOVE}. As the
+	 * maximum count of a WSlot which does not override it is that of
+	 * the last ItemStack it held, that of the moved ItemStack is used
+	 * instead, such that WSlots need not be read first.
+	 */
+	protected int getTransferLimit(WSlot target, ItemStack targetStack, ItemStack stack) {
+		return targetStack.isEmpty() || target.getInventoryNumber() == PLAYER_INVENTORY || !target.isOverrideMaximumCount() ? stack.getMaxCount() : target.getMaxCount();
+	}
+
+	/**
+	 * Retrieves the numbers of the slots of an inventory displayed by a WSlot
+	 * or a WSlotGrid, visible or not, in ascending order.
+	 */
+	protected int[] getSortedSlots(int inventoryNumber) {
+		Inventory inventory = getInventory(inventoryNumber);
+
+		if (inventory == null) {
+			return new int[0];
+		}
+
+		BitSet slots = new BitSet();
+
+		for (SlotIndex.Range range : slotIndex.getRanges()) {
+			if (range.getInventoryNumber() == inventoryNumber) {
+				slots.set(Math.max(0, range.getSlotOffset()), Math.max(0, range.getSlotOffset() + range.getSlotCount()));
+			}
+		}
+
+		return slots.get(0, inventory.getInvSize()).stream().toArray();
+	}
+
+	/**
+	 * Requests a bulk transfer between two inventories, predicting it
+	 * locally and sending it to the server as a single packet.
+	 *
+	 * @param fromInventoryNumber Inventory number of the source inventory.
+	 * @param toInventoryNumber   Inventory number of the target inventory.
+	 * @param filter              Item to be moved; null to move everything.
+	 */
+	@Environment(EnvType.CLIENT)
+	public void requestSlotTransfer(int fromInventoryNumber, int toInventoryNumber, Item filter) {
+		int sequence = predict(() -> onSlotTransfer(fromInventoryNumber, toInventoryNumber, filter));
+		ClientSidePacketRegistry.INSTANCE.sendToServer(NetworkRegistry.SLOT_TRANSFER_PACKET, NetworkRegistry.createSlotTransferPacket(syncId, sequence, fromInventoryNumber, toInventoryNumber, filter));
+	}
+
+	/**
+	 * Retrieves the active query over an inventory.
+	 *
+	 * @param inventoryNumber Inventory number of the inventory.
+	 * @return The active InventoryQuery; null if there is none.
+	 */
+	public InventoryQuery getQuery(int inventoryNumber) {
+		return queries.get(inventoryNumber);
+	}
+
+	/**
+	 * Requests a query over an inventory from the server, replacing the
+	 * active one. Its first page of results is sent along with it; further
+	 * pages are requested through {@link #requestQueryPage(int, int)}.
+	 *
+	 * @param inventoryNumber Inventory number of the inventory.
+	 * @param search          Search string, matched against Item identifiers; empty to match everything.
+	 * @param sort            Sort key.
+	 */
+	@Environment(EnvType.CLIENT)
+	public void requestQuery(int inventoryNumber, String search, InventoryQuery.Sort sort) {
+		int revision = ++queryRevision;
+
+		if (InventoryQuery.isIdentity(search, sort)) {
+			queries.remove(inventoryNumber);
+		} else {
+			InventoryQuery query = new InventoryQuery(inventoryNumber, revision, search, sort);
+			query.markRequested(0);
+			queries.put(inventoryNumber, query);
+		}
+
+		ClientSidePacketRegistry.INSTANCE.sendToServer(NetworkRegistry.QUERY_PACKET, NetworkRegistry.createQueryPacket(syncId, inventoryNumber, revision, search, sort));
+
+		onQueryChanged(inventoryNumber, true);
+	}
+
+	/**
+	 * Requests a page of results of the active query over an inventory
+	 * from the server, unless it was already requested.
+	 *
+	 * @param inventoryNumber Inventory number of the inventory.
+	 * @param page            Number of the page.
+	 */
+	@Environment(EnvType.CLIENT)
+	public void requestQueryPage(int inventoryNumber, int page) {
+		InventoryQuery query = queries.get(inventoryNumber);
+
+		if (query != null && page >= 0 && page * InventoryQuery.PAGE_SIZE < query.getSize() && query.markRequested(page)) {
+			ClientSidePacketRegistry.INSTANCE.sendToServer(NetworkRegistry.QUERY_PAGE_REQUEST_PACKET, NetworkRegistry.createQueryPageRequestPacket(syncId, inventoryNumber, query.getRevision(), page));
+		}
+	}
+
+	/**
+	 * Method called on the server when a query over an inventory is
+	 * received. Computes its view over the slots displayed by WSlotGrids,
+	 * replacing the active query, and sends its first page of results.
+	 * Queries over inventories which no WSlotGrid displays are discarded.
+	 *
+	 * @param inventoryNumber Inventory number of the inventory.
+	 * @param revision        Revision of the query.
+	 * @param search          Search string; empty to match everything.
+	 * @param sort            Sort key.
+	 */
+	public void onQuery(int inventoryNumber, int revision, String search, InventoryQuery.Sort sort) {
+		Inventory inventory = getInventory(inventoryNumber);
+		BitSet range = getQueryRange(inventoryNumber);
+
+		if (inventory == null || range.isEmpty()) {
+			return;
+		}
+
+		if (InventoryQuery.isIdentity(search, sort)) {
+			queries.remove(inventoryNumber);
+		} else {
+			InventoryQuery query = new InventoryQuery(inventoryNumber, revision, search, sort);
+			query.compute(inventory, range);
+			queries.put(inventoryNumber, query);
+
+			sendQueryPage(query, 0);
+		}
+
+		onQueryChanged(inventoryNumber, true);
+	}
+
+	/**
+	 * Method called on the server when a page of results of a
+	 * query is requested, sending it if the query is still active.
+	 *
+	 * @param inventoryNumber Inventory number of the inventory.
+	 * @param revision        Revision of the query.
+	 * @param page            Number of the page.
+	 */
+	public void onQueryPageRequest(int inventoryNumber, int revision, int page) {
+		InventoryQuery query = queries.get(inventoryNumber);
+
+		if (query != null && query.getRevision() == revision) {
+			sendQueryPage(query, page);
+		}
+	}
+
+	protected void sendQueryPage(InventoryQuery query, int page) {
+		if (this.getPlayerInventory().player instanceof ServerPlayerEntity) {
+			ServerSidePacketRegistry.INSTANCE.sendToPlayer(this.getPlayerInventory().player, NetworkRegistry.QUERY_PAGE_PACKET, NetworkRegistry.createQueryPagePacket(syncId, query, page));
+		}
+	}
+
+	/**
+	 * Method called on the client when a page of results of a query is
+	 * received, storing it if the query is still active. Slot numbers
+	 * which no WSlotGrid displays are discarded.
+	 *
+	 * @param inventoryNumber Inventory number of the inventory.
+	 * @param revision        Revision of the query.
+	 * @param size            Total amount of results.
+	 * @param page            Number of the page.
+	 * @param slotNumbers     Slot numbers of the page.
+	 */
+	@Environment(EnvType.CLIENT)
+	public void onQueryPage(int inventoryNumber, int revision, int size, int page, int[] slotNumbers) {
+		InventoryQuery query = queries.get(inventoryNumber);
+
+		if (query == null || query.getRevision() != revision || page < 0 || size < 0) {
+			return;
+		}
+
+		BitSet range = getQueryRange(inventoryNumber);
+
+		for (int i = 0; i < slotNumbers.length; ++i) {
+			if (slotNumbers[i] < 0 || !range.get(slotNumbers[i])) {
+				slotNumbers[i] = -1;
 			}
 		}
+
+		query.setPage(size, page, slotNumbers);
+
+		onQueryChanged(inventoryNumber, false);
+	}
+
+	/**
+	 * Method called when the active query over an inventory, or
+	 * its results, change, updating the WSlotGrids displaying it.
+	 *
+	 * @param inventoryNumber Inventory number of the inventory.
+	 * @param isReset         Whether the query was replaced, such that the WSlotGrids scroll back to their top.
+	 */
+	protected void onQueryChanged(int inventoryNumber, boolean isReset) {
+		for (WSlotGrid grid : getInterface().getSlotGrids(inventoryNumber)) {
+			grid.onQueryChanged(isReset);
+		}
+	}
+
+	/**
+	 * Retrieves the numbers of the slots of an inventory displayed by
+	 * the WSlotGrids of the attached WInterface, which are the only
+	 * slots queries over it may include.
+	 *
+	 * @param inventoryNumber Inventory number of the inventory.
+	 * @return The numbers of the displayed slots; empty if there are none.
+	 */
+	protected BitSet getQueryRange(int inventoryNumber) {
+		Inventory inventory = getInventory(inventoryNumber);
+		BitSet range = new BitSet();
+
+		if (inventory == null) {
+			return range;
+		}
+
+		for (WSlotGrid grid : getInterface().getSlotGrids(inventoryNumber)) {
+			int offset = Math.max(0, grid.getRangeOffset());
+			int end = Math.min(inventory.getInvSize(), grid.getRangeOffset() + grid.getRangeSize());
+
+			if (offset < end) {
+				range.set(offset, end);
+			}
+		}
+
+		return range;
+	}
+
+	/**
+	 * Method called by a WSlot before its ItemStack is retrieved or
+	 * changed. While a client-side prediction is being recorded, stores
+	 * a copy of the ItemStack as it was before the action.
+	 *
+	 * @param slot WSlot being accessed.
+	 */
+	public void onSlotAccessed(WSlot slot) {
+		if (previousStacks != null && !previousStacks.containsKey(slot.getInventoryNumber(), slot.getSlotNumber())) {
+			previousStacks.put(slot.getInventoryNumber(), slot.getSlotNumber(), InventoryUtilities.copyStack(slot.getLinkedInventory(), slot.getSlotNumber()));
+		}
+	}
+
+	/**
+	 * Method called by a WSlot after its ItemStack is changed.
+	 * While an action is being tracked, stores its slot as touched.
+	 *
+	 * @param slot WSlot which was changed.
+	 */
+	public void onSlotTouched(WSlot slot) {
+		slotIndex.update(slot.getInventoryNumber(), slot.getSlotNumber());
+
+		if (touchedSlots != null) {
+			touchedSlots.put(slot.getInventoryNumber(), slot.getSlotNumber(), ItemStack.EMPTY);
+		}
+	}
+
+	/**
+	 * Runs an action, tracking the slots it changes.
+	 *
+	 * @param action Action to be run.
+	 * @return Copies of the resulting ItemStacks of the slots changed by the action.
+	 */
+	protected SlotStackMap runTracked(Runnable action) {
+		SlotStackMap touched = new SlotStackMap();
+		touchedSlots = touched;
+
+		try {
+			action.run();
+		} finally {
+			touchedSlots = null;
+		}
+
+		touched.replaceAll((inventoryNumber, slotNumber, stack) -> InventoryUtilities.copyStack(getInventory(inventoryNumber), slotNumber));
+
+		return touched;
+	}
+
+	/**
+	 * Method called on the server when a sequenced Action is received. Runs the action
+	 * and acknowledges its sequence ID with the resulting ItemStacks of the slots it
+	 * touched and of the cursor, which are also stored in the cache such that they are
+	 * not sent again by {@link #sendContentUpdates()}.
+	 *
+	 * @param sequence Sequence ID of the action; zero if no acknowledgement is expected.
+	 * @param action   Action to be run.
+	 */
+	public void onSequencedSlotAction(int sequence, Runnable action) {
+		SlotStackMap touched = runTracked(action);
+
+		if (sequence == 0 || !(this.getPlayerInventory().player instanceof ServerPlayerEntity)) {
+			return;
+		}
+
+		ServerSidePacketRegistry.INSTANCE.sendToPlayer(this.getPlayerInventory().player, NetworkRegistry.SLOT_ACKNOWLEDGE_PACKET, NetworkRegistry.createSlotAcknowledgePacket(syncId, sequence, getPlayerInventory().getCursorStack(), touched));
+
+		touched.forEach(cachedInventories::put);
+	}
+
+	/**
+	 * Predicts an action on the client, recording it in the
+	 * SlotActionLog such that it may be reconciled when the
+	 * server acknowledges it.
+	 *
+	 * @param action Action to be predicted.
+	 * @return The sequence ID to be sent alongside the action.
+	 */
+	@Environment(EnvType.CLIENT)
+	public int predict(Runnable action) {
+		SlotActionLog.Entry entry = new SlotActionLog.Entry(actionLog.nextSequence(), action);
+		record(entry);
+		actionLog.add(entry);
+		return entry.getSequence();
+	}
+
+	/**
+	 * Runs the action of an entry, recording the ItemStacks of the
+	 * slots it touches and of the cursor before and after it.
+	 *
+	 * @param entry Entry whose action is to be run.
+	 */
+	@Environment(EnvType.CLIENT)
+	protected void record(SlotActionLog.Entry entry) {
+		ItemStack previousCursorStack = getPlayerInventory().getCursorStack().copy();
+
+		SlotStackMap accessedStacks = new SlotStackMap();
+		previousStacks = accessedStacks;
+
+		SlotStackMap touched;
+
+		try {
+			touched = runTracked(entry.getAction());
+		} finally {
+			previousStacks = null;
+		}
+
+		SlotStackMap previous = new SlotStackMap(touched.size());
+
+		touched.forEach((inventoryNumber, slotNumber, stack) -> previous.put(inventoryNumber, slotNumber, accessedStacks.getOrDefault(inventoryNumber, slotNumber, ItemStack.EMPTY)));
+
+		entry.record(previous, touched, previousCursorStack, getPlayerInventory().getCursorStack().copy());
+	}
+
+	/**
+	 * Method called on the client when the server acknowledges a sequenced Action.
+	 * If the authoritative ItemStacks differ from the predicted ones, all pending
+	 * predictions are rewound, the authoritative ItemStacks are applied, and the
+	 * pending predictions are replayed on top of them.
+	 *
+	 * @param sequence         Sequence ID acknowledged.
+	 * @param inventoryNumbers Inventory numbers of the touched slots.
+	 * @param slotNumbers      Numbers of the touched slots.
+	 * @param stacks           Authoritative ItemStacks of the touched slots.
+	 * @param cursorStack      Authoritative cursor ItemStack.
+	 */
+	@Environment(EnvType.CLIENT)
+	public void onSlotAcknowledge(int sequence, int[] inventoryNumbers, int[] slotNumbers, ItemStack[] stacks, ItemStack cursorStack) {
+		SlotActionLog.Entry entry = actionLog.acknowledge(sequence);
+		Deque<SlotActionLog.Entry> pending = actionLog.getEntries();
+
+		boolean isMismatch = entry == null;
+
+		if (entry != null) {
+			for (int i = 0; i < stacks.length && !isMismatch; ++i) {
+				ItemStack predictedStack = getPredictedStack(entry, pending, inventoryNumbers[i], slotNumbers[i]);
+
+				if (predictedStack != null) {
+					isMismatch = !StackUtilities.equalItemTagAndCount(predictedStack, stacks[i]);
+				}
+			}
+
+			ItemStack predictedCursorStack = pending.isEmpty() ? getPlayerInventory().getCursorStack() : pending.peekFirst().getPreviousCursorStack();
+
+			isMismatch |= !StackUtilities.equalItemTagAndCount(predictedCursorStack, cursorStack);
+		}
+
+		if (!isMismatch) {
+			return;
+		}
+
+		rewind(pending);
+
+		for (int i = 0; i < stacks.length; ++i) {
+			applyStack(inventoryNumbers[i], slotNumbers[i], stacks[i]);
+		}
+
+		getPlayerInventory().setCursorStack(cursorStack);
+
+		replay(pending);
+	}
+
+	/**
+	 * Method called on the client when authoritative ItemStacks of an inventory are
+	 * received outside of an acknowledgement, such as from a journal batch. If any
+	 * pending prediction touched one of their slots, the pending predictions are
+	 * rewound, the ItemStacks applied, and the predictions replayed on top of them;
+	 * otherwise, they are applied directly.
+	 *
+	 * @param inventoryNumber Inventory number of the slots.
+	 * @param slotNumbers     Numbers of the slots.
+	 * @param stacks          Authoritative ItemStacks of the slots.
+	 */
+	@Environment(EnvType.CLIENT)
+	public void onSlotUpdate(int inventoryNumber, int[] slotNumbers, ItemStack[] stacks) {
+		if (getInventory(inventoryNumber) == null) {
+			return;
+		}
+
+		Deque<SlotActionLog.Entry> pending = actionLog.getEntries();
+
+		boolean isPredicted = false;
+
+		for (int i = 0; i < slotNumbers.length && !isPredicted && !pending.isEmpty(); ++i) {
+			for (SlotActionLog.Entry pendingEntry : pending) {
+				if (isTouched(pendingEntry, inventoryNumber, slotNumbers[i])) {
+					isPredicted = true;
+					break;
+				}
+			}
+		}
+
+		if (isPredicted) {
+			rewind(pending);
+		}
+
+		for (int i = 0; i < slotNumbers.length; ++i) {
+			applyStack(inventoryNumber, slotNumbers[i], stacks[i]);
+		}
+
+		if (isPredicted) {
+			replay(pending);
+		}
+	}
+
+	@Environment(EnvType.CLIENT)
+	protected static boolean isTouched(SlotActionLog.Entry entry, int inventoryNumber, int slotNumber) {
+		return entry.getPreviousStacks().containsKey(inventoryNumber, slotNumber);
+	}
+
+	/**
+	 * Restores the ItemStacks of all slots touched by pending
+	 * predictions, and of the cursor, to those before them.
+	 *
+	 * @param pending Entries of the pending predictions.
+	 */
+	@Environment(EnvType.CLIENT)
+	protected void rewind(Deque<SlotActionLog.Entry> pending) {
+		Iterator<SlotActionLog.Entry> rewind = pending.descendingIterator();
+
+		while (rewind.hasNext()) {
+			SlotActionLog.Entry pendingEntry = rewind.next();
+
+			pendingEntry.getPreviousStacks().forEach((inventoryNumber, slotNumber, stack) -> applyStack(inventoryNumber, slotNumber, stack.copy()));
+
+			getPlayerInventory().setCursorStack(pendingEntry.getPreviousCursorStack().copy());
+		}
+	}
+
+	/**
+	 * Runs pending predictions again, recording them anew.
+	 *
+	 * @param pending Entries of the pending predictions.
+	 */
+	@Environment(EnvType.CLIENT)
+	protected void replay(Deque<SlotActionLog.Entry> pending) {
+		for (SlotActionLog.Entry pendingEntry : pending) {
+			record(pendingEntry);
+		}
+	}
+
+	/**
+	 * Applies an authoritative ItemStack to a slot, through its WSlot if it has one.
+	 *
+	 * @param inventoryNumber Inventory number of the slot.
+	 * @param slotNumber      Number of the slot.
+	 * @param stack           Authoritative ItemStack of the slot.
+	 */
+	@Environment(EnvType.CLIENT)
+	protected void applyStack(int inventoryNumber, int slotNumber, ItemStack stack) {
+		Inventory inventory = getInventory(inventoryNumber);
+
+		if (inventory == null || slotNumber < 0 || slotNumber >= inventory.getInvSize()) return;
+
+		WSlot slot = getInterface().getSlot(inventoryNumber, slotNumber);
+
+		if (slot != null) {
+			slot.setStack(stack);
+		} else {
+			inventory.setInvStack(slotNumber, stack);
+			slotIndex.markStale(inventoryNumber, slotNumber);
+		}
+	}
+
+	/**
+	 * Retrieves the ItemStack a slot was predicted to hold right after an action,
+	 * from the action itself, the first pending action which touched it, or its
+	 * current ItemStack.
+	 *
+	 * @param entry           Entry of the action.
+	 * @param pending         Entries of the actions predicted after it.
+	 * @param inventoryNumber Inventory number of the slot.
+	 * @param slotNumber      Number of the slot.
+	 * @return The predicted ItemStack; null if the slot does not exist.
+	 */
+	@Environment(EnvType.CLIENT)
+	protected ItemStack getPredictedStack(SlotActionLog.Entry entry, Deque<SlotActionLog.Entry> pending, int inventoryNumber, int slotNumber) {
+		ItemStack predicted = entry.getPredictedStacks().get(inventoryNumber, slotNumber);
+
+		if (predicted != null) {
+			return predicted;
+		}
+
+		for (SlotActionLog.Entry pendingEntry : pending) {
+			ItemStack previous = pendingEntry.getPreviousStacks().get(inventoryNumber, slotNumber);
+
+			if (previous != null) {
+				return previous;
+			}
+		}
+
+		Inventory inventory = getInventory(inventoryNumber);
+
+		if (inventory == null || slotNumber < 0 || slotNumber >= inventory.getInvSize()) {
+			return null;
+		}
+
+		return InventoryUtilities.copyStack(inventory, slotNumber);
 	}
 
 	/**
@@ -395,53 +1168,303 @@ public class BaseContainer extends Container {
 	}
 
 	/**
-	 * Adds an inventory to the BaseContainer.
+	 * Adds an inventory to the BaseContainer. If the inventory
+	 * is a TrackedInventory, its changes are read from an
+	 * InventoryJournal shared with all other containers viewing
+	 * it; otherwise, all of its slots are compared on synchronization.
 	 *
 	 * @param inventoryNumber Inventory number associated with the inventory.
 	 * @param inventory       Inventory associated with the inventory number.
 	 */
 	public <C extends BaseContainer> C addInventory(int inventoryNumber, Inventory inventory) {
+		detachJournal(inventoryNumber);
+		queries.remove(inventoryNumber);
+
 		this.inventories.put(inventoryNumber, inventory);
+
+		dirtyInventories.add(inventoryNumber);
+		quickMoveRoutes.invalidate();
+		slotIndex.invalidate();
+
 		return (C) this;
 	}
 
+	/**
+	 * Retrieves the Cursor of this container in the InventoryJournal of an
+	 * inventory, attaching to it if needed, and flushes the journal.
+	 * Server-side only.
+	 *
+	 * @param inventoryNumber Inventory number associated with the inventory.
+	 * @param inventory       Inventory associated with the inventory number.
+	 * @return The Cursor; null if the inventory is not a TrackedInventory.
+	 */
+	protected InventoryJournal.Cursor getJournalCursor(int inventoryNumber, Inventory inventory) {
+		if (!(inventory instanceof TrackedInventory)) {
+			return null;
+		}
+
+		InventoryJournal.Cursor cursor = journalCursors.get(inventoryNumber);
+
+		if (cursor == null) {
+			cursor = InventoryJournal.attach((TrackedInventory) inventory);
+			journalCursors.put(inventoryNumber, cursor);
+			dirtyInventories.add(inventoryNumber);
+		}
+
+		cursor.getJournal().flush(world.getTime());
+
+		return cursor;
+	}
+
+	/**
+	 * Detaches this container from the InventoryJournal
+	 * of an inventory, if attached.
+	 *
+	 * @param inventoryNumber Inventory number associated with the inventory.
+	 */
+	protected void detachJournal(int inventoryNumber) {
+		InventoryJournal.Cursor cursor = journalCursors.remove(inventoryNumber);
+
+		if (cursor != null) {
+			cursor.detach();
+		}
+	}
+
+	/**
+	 * Method called when the WSlots of the attached
+	 * WInterface change, forcing all inventories to be
+	 * compared on the next synchronization.
+	 */
+	public void onSlotsChanged() {
+		dirtyInventories.addAll(inventories.keySet());
+		quickMoveRoutes.invalidate();
+		slotIndex.invalidate();
+	}
+
+	/**
+	 * Method called when WSlots of the attached WInterface are
+	 * shown without its slots changing, such as when a WSlotGrid
+	 * scrolls, such that only they are compared on the next
+	 * synchronization.
+	 *
+	 * @param slots WSlots which were shown.
+	 */
+	public void onSlotsShown(Collection<WSlot> slots) {
+		if (this.getPlayerInventory().player instanceof ServerPlayerEntity) {
+			shownSlots.addAll(slots);
+		}
+	}
+
+	/**
+	 * Method called when the filters of a WSlot of the
+	 * attached WInterface change, invalidating routes
+	 * which depend on them.
+	 */
+	public void onSlotFiltersChanged() {
+		quickMoveRoutes.invalidate();
+	}
+
 	/**
 	 * Dispatches packets for WSlots whose contents
-	 * have changed since the last call.
+	 * and WSynced widgets whose properties have
+	 * changed since the last call.
+	 * <p>
+	 * For a TrackedInventory, the batches of its
+	 * InventoryJournal are sent as they are, to
+	 * every viewer including the one whose action
+	 * caused them; the client reconciles them with
+	 * its pending predictions. Other inventories,
+	 * or those whose WSlots changed, have all
+	 * their slots compared.
 	 */
 	@Override
 	public void sendContentUpdates() {
 		if (!(this.getPlayerInventory().player instanceof ServerPlayerEntity))
 			return;
 
-		for (WAbstractWidget widget : serverInterface.getAllWidgets()) {
-			if (widget instanceof WSlot) {
-				WSlot slotA = ((WSlot) widget);
+		sendPropertyUpdates();
 
+		if (!isSnapshotSent) {
+			isSnapshotSent = true;
 
-				if (cachedInventories.get(slotA.getInventoryNumber()) != null && cachedInventories.get(slotA.getInventoryNumber()).get(slotA.getSlotNumber()) != null) {
-					ItemStack stackA = slotA.getStack();
-					ItemStack stackB = cachedInventories.get(slotA.getInventoryNumber()).get(slotA.getSlotNumber());
+			if (sendSnapshot()) {
+				return;
+			}
+		}
 
-					if (stackA.getItem() != stackB.getItem() || stackA.getCount() != stackB.getCount() || (stackA.hasTag() && !stackA.getTag().equals(stackB.getOrCreateTag()))) {
-						ServerSidePacketRegistry.INSTANCE.sendToPlayer(this.getPlayerInventory().player, NetworkRegistry.SLOT_UPDATE_PACKET, NetworkRegistry.createSlotUpdatePacket(syncId, slotA.getSlotNumber(), slotA.getInventoryNumber(), slotA.getStack()));
-					}
+		for (Map.Entry<Integer, Inventory> entry : inventories.entrySet()) {
+			int inventoryNumber = entry.getKey();
 
-					cachedInventories.get(slotA.getInventoryNumber()).put(slotA.getSlotNumber(), slotA.getStack().copy());
-				} else {
-					cachedInventories.computeIfAbsent(slotA.getInventoryNumber(), value -> new HashMap<>());
+			Map<Integer, WSlot> slots = serverInterface.getSlots(inventoryNumber);
 
-					ItemStack stackA = slotA.getStack();
-					ItemStack stackB = Optional.ofNullable(cachedInventories.get(slotA.getInventoryNumber()).get(slotA.getSlotNumber())).orElse(ItemStack.EMPTY);
+			if (slots.isEmpty()) {
+				continue;
+			}
 
-					if (stackA.getItem() != stackB.getItem() || stackA.getCount() != stackB.getCount() || (stackA.hasTag() && !stackA.getTag().equals(stackB.getOrCreateTag()))) {
-						ServerSidePacketRegistry.INSTANCE.sendToPlayer(this.getPlayerInventory().player, NetworkRegistry.SLOT_UPDATE_PACKET, NetworkRegistry.createSlotUpdatePacket(syncId, slotA.getSlotNumber(), slotA.getInventoryNumber(), slotA.getStack()));
-					}
+			InventoryJournal.Cursor cursor = getJournalCursor(inventoryNumber, entry.getValue());
+
+			if (cursor == null || dirtyInventories.remove(inventoryNumber) || cursor.isBehind()) {
+				for (WSlot slot : slots.values()) {
+					sendSlotUpdate(slot);
+				}
 
-					cachedInventories.get(slotA.getInventoryNumber()).put(slotA.getSlotNumber(), slotA.getStack().copy());
+				if (cursor != null) {
+					cursor.advance();
+					slotIndex.markStale(inventoryNumber, TrackedInventory.ALL);
 				}
+			} else {
+				cursor.read(batch -> sendSlotBatch(inventoryNumber, batch));
 			}
 		}
+
+		for (WSlot slot : shownSlots) {
+			sendSlotUpdate(slot);
+		}
+
+		shownSlots.clear();
+	}
+
+	/**
+	 * Dispatches a batch of an InventoryJournal, and stores its ItemStacks
+	 * in the cache, such that falling back to comparing all slots does
+	 * not send them again. Its slots are marked as stale in the SlotIndex,
+	 * which is how changes not made through WSlots reach it.
+	 *
+	 * @param inventoryNumber Inventory number of the batch.
+	 * @param batch           Batch to be sent.
+	 */
+	protected void sendSlotBatch(int inventoryNumber, InventoryJournal.Batch batch) {
+		ServerSidePacketRegistry.INSTANCE.sendToPlayer(this.getPlayerInventory().player, NetworkRegistry.SLOT_BATCH_UPDATE_PACKET, NetworkRegistry.createSlotBatchUpdatePacket(syncId, inventoryNumber, batch.getData()));
+
+		int[] slots = batch.getSlots();
+		ItemStack[] stacks = batch.getStacks();
+
+		for (int i = 0; i < slots.length; ++i) {
+			cachedInventories.put(inventoryNumber, slots[i], stacks[i]);
+			slotIndex.markStale(inventoryNumber, slots[i]);
+		}
+	}
+
+	/**
+	 * Dispatches a single compressed packet containing the contents
+	 * of all WSlots of all inventories, and fills the cache with them.
+	 * Called on the first synchronization after the container is opened.
+	 *
+	 * @return True if the snapshot was sent; false if it was too large, and slots should be synchronized individually.
+	 */
+	protected boolean sendSnapshot() {
+		Map<Integer, Map<Integer, ItemStack>> snapshot = new HashMap<>();
+
+		for (Integer inventoryNumber : inventories.keySet()) {
+			Map<Integer, WSlot> slots = serverInterface.getSlots(inventoryNumber);
+
+			if (slots.isEmpty()) {
+				continue;
+			}
+
+			Map<Integer, ItemStack> stacks = new HashMap<>();
+
+			for (WSlot slot : slots.values()) {
+				stacks.put(slot.getSlotNumber(), InventoryUtilities.copyStack(slot.getLinkedInventory(), slot.getSlotNumber()));
+			}
+
+			snapshot.put(inventoryNumber, stacks);
+		}
+
+		if (snapshot.isEmpty()) {
+			return false;
+		}
+
+		PacketByteBuf buffer = NetworkRegistry.createInventorySnapshotPacket(syncId, snapshot);
+
+		if (buffer == null) {
+			return false;
+		}
+
+		ServerSidePacketRegistry.INSTANCE.sendToPlayer(this.getPlayerInventory().player, NetworkRegistry.INVENTORY_SNAPSHOT_PACKET, buffer);
+
+		for (Map.Entry<Integer, Map<Integer, ItemStack>> inventory : snapshot.entrySet()) {
+			for (Map.Entry<Integer, ItemStack> entry : inventory.getValue().entrySet()) {
+				cachedInventories.put(inventory.getKey(), entry.getKey(), entry.getValue());
+			}
+		}
+
+		for (Integer inventoryNumber : snapshot.keySet()) {
+			InventoryJournal.Cursor cursor = getJournalCursor(inventoryNumber, inventories.get(inventoryNumber));
+
+			if (cursor != null) {
+				cursor.advance();
+				slotIndex.markStale(inventoryNumber, TrackedInventory.ALL);
+			}
+		}
+
+		dirtyInventories.clear();
+
+		return true;
+	}
+
+	/**
+	 * Dispatches a packet for a WSlot if its contents
+	 * differ from the cached ones, updating the cache.
+	 * The slot is compared without materializing its
+	 * ItemStack, which is only copied if it differs.
+	 *
+	 * @param slot WSlot to be compared.
+	 */
+	protected void sendSlotUpdate(WSlot slot) {
+		Inventory inventory = slot.getLinkedInventory();
+		ItemStack stackB = cachedInventories.getOrDefault(slot.getInventoryNumber(), slot.getSlotNumber(), ItemStack.EMPTY);
+
+		if (!InventoryUtilities.isEqual(inventory, slot.getSlotNumber(), stackB)) {
+			ItemStack stackA = InventoryUtilities.copyStack(inventory, slot.getSlotNumber());
+
+			ServerSidePacketRegistry.INSTANCE.sendToPlayer(this.getPlayerInventory().player, NetworkRegistry.SLOT_UPDATE_PACKET, NetworkRegistry.createSlotUpdatePacket(syncId, slot.getSlotNumber(), slot.getInventoryNumber(), stackA));
+
+			cachedInventories.put(slot.getInventoryNumber(), slot.getSlotNumber(), stackA);
+		}
+	}
+
+	/**
+	 * Dispatches a single packet containing the properties
+	 * of all WSynced widgets which have changed since the
+	 * last call.
+	 */
+	public void sendPropertyUpdates() {
+		if (!(this.getPlayerInventory().player instanceof ServerPlayerEntity))
+			return;
+
+		List<WSynced> dirtyWidgets = new ArrayList<>();
+
+		for (WAbstractWidget widget : serverInterface.getAllWidgets()) {
+			if (widget instanceof WSynced) {
+				boolean isDirty = false;
+
+				for (SyncedProperty<?> property : ((WSynced) widget).getSyncedProperties()) {
+					isDirty |= property.update();
+				}
+
+				if (isDirty) {
+					dirtyWidgets.add((WSynced) widget);
+				}
+			}
+		}
+
+		if (!dirtyWidgets.isEmpty()) {
+			ServerSidePacketRegistry.INSTANCE.sendToPlayer(this.getPlayerInventory().player, NetworkRegistry.WIDGET_PROPERTIES_PACKET, NetworkRegistry.createWidgetPropertiesPacket(syncId, dirtyWidgets));
+		}
+	}
+
+	/**
+	 * Detaches this container from the InventoryJournals
+	 * of its inventories when closed.
+	 */
+	@Override
+	public void close(PlayerEntity player) {
+		super.close(player);
+
+		for (Integer inventoryNumber : new ArrayList<>(journalCursors.keySet())) {
+			detachJournal(inventoryNumber);
+		}
 	}
 
 	/**
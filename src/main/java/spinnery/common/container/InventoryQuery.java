@@ -0,0 +1,208 @@
+package spinnery.common.container;
+
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.Item;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.registry.Registry;
+import spinnery.common.utility.InventoryUtilities;
+
+import java.util.*;
+
+/**
+ * An InventoryQuery is a filtered and sorted view
+ * over the slots of an inventory displayed by its
+ * WSlotGrids, mapping each result index to a slot
+ * number, without changing the inventory itself.
+ * <p>
+ * The view is computed by the server when the query
+ * is made, and is not updated as the inventory changes;
+ * the contents of its slots are synchronized as usual.
+ * Clients receive it in pages of {@link #PAGE_SIZE}
+ * results, as they are displayed, and hold -1 for
+ * results not received yet.
+ */
+public class InventoryQuery {
+	public static final int PAGE_SIZE = 64;
+
+	protected final int inventoryNumber;
+	protected final int revision;
+	protected final String search;
+	protected final Sort sort;
+	protected int[] view = new int[0];
+	protected BitSet requestedPages = new BitSet();
+
+	public InventoryQuery(int inventoryNumber, int revision, String search, Sort sort) {
+		this.inventoryNumber = inventoryNumber;
+		this.revision = revision;
+		this.search = search.trim().toLowerCase(Locale.ROOT);
+		this.sort = sort;
+	}
+
+	public int getInventoryNumber() {
+		return inventoryNumber;
+	}
+
+	/**
+	 * Retrieves the revision of this query, chosen by the client
+	 * such that pages of previous queries may be discarded.
+	 *
+	 * @return The revision of this query.
+	 */
+	public int getRevision() {
+		return revision;
+	}
+
+	public String getSearch() {
+		return search;
+	}
+
+	public Sort getSort() {
+		return sort;
+	}
+
+	/**
+	 * Asserts whether a query with the given search and sort would
+	 * display an inventory as it is, such that none is needed.
+	 *
+	 * @param search Search string.
+	 * @param sort   Sort key.
+	 * @return True if no query is needed; false if not.
+	 */
+	public static boolean isIdentity(String search, Sort sort) {
+		return search.trim().isEmpty() && sort == Sort.NONE;
+	}
+
+	/**
+	 * Retrieves the amount of results of this query.
+	 *
+	 * @return The amount of results.
+	 */
+	public int getSize() {
+		return view.length;
+	}
+
+	/**
+	 * Retrieves the slot number of a result of this query.
+	 *
+	 * @param index Index of the result.
+	 * @return The slot number; -1 if out of bounds or not received yet.
+	 */
+	public int getSlot(int index) {
+		return index < 0 || index >= view.length ? -1 : view[index];
+	}
+
+	/**
+	 * Computes the view of this query over the given slots of an inventory,
+	 * such that a query never exposes slots which are not displayed. Empty
+	 * slots are excluded, as are those whose Item's identifier does not contain
+	 * the search string. Slots are read through {@link InventoryUtilities},
+	 * such that no ItemStack is retained by inventories which do not store
+	 * one per slot.
+	 * <p>
+	 * As the view is computed by the server, which does not know the
+	 * language of the client, display names are neither searched nor
+	 * sorted by; {@link Sort#NAME} sorts by the path of the identifier,
+	 * and {@link Sort#IDENTIFIER} by the whole identifier.
+	 *
+	 * @param inventory Inventory to be queried.
+	 * @param range     Numbers of the slots which may be included.
+	 */
+	public void compute(Inventory inventory, BitSet range) {
+		List<Integer> slots = new ArrayList<>();
+		Map<Item, Identifier> identifiers = new HashMap<>();
+
+		for (int slot = range.nextSetBit(0); slot >= 0 && slot < inventory.getInvSize(); slot = range.nextSetBit(slot + 1)) {
+			if (InventoryUtilities.getCount(inventory, slot) <= 0) continue;
+
+			if (!search.isEmpty()) {
+				Identifier identifier = identifiers.computeIfAbsent(InventoryUtilities.getItem(inventory, slot), Registry.ITEM::getId);
+
+				if (!identifier.toString().contains(search)) continue;
+			}
+
+			slots.add(slot);
+		}
+
+		switch (sort) {
+			case NAME:
+				slots.sort(Comparator.comparing((Integer slot) -> identifiers.computeIfAbsent(InventoryUtilities.getItem(inventory, slot), Registry.ITEM::getId).getPath())
+						.thenComparing(slot -> identifiers.computeIfAbsent(InventoryUtilities.getItem(inventory, slot), Registry.ITEM::getId).getNamespace()));
+				break;
+			case COUNT:
+				slots.sort(Comparator.comparingLong((Integer slot) -> InventoryUtilities.getCount(inventory, slot)).reversed());
+				break;
+			case IDENTIFIER:
+				slots.sort(Comparator.comparing((Integer slot) -> identifiers.computeIfAbsent(InventoryUtilities.getItem(inventory, slot), Registry.ITEM::getId).toString()));
+				break;
+			default:
+				break;
+		}
+
+		view = new int[slots.size()];
+
+		for (int i = 0; i < view.length; ++i) {
+			view[i] = slots.get(i);
+		}
+	}
+
+	/**
+	 * Retrieves the slot numbers of a page of results.
+	 *
+	 * @param page Number of the page.
+	 * @return The slot numbers; empty if out of bounds.
+	 */
+	public int[] getPage(int page) {
+		int offset = page * PAGE_SIZE;
+
+		if (page < 0 || offset >= view.length) {
+			return new int[0];
+		}
+
+		return Arrays.copyOfRange(view, offset, Math.min(view.length, offset + PAGE_SIZE));
+	}
+
+	/**
+	 * Stores a page of results received from the server.
+	 *
+	 * @param size  Total amount of results.
+	 * @param page  Number of the page.
+	 * @param slots Slot numbers of the page.
+	 */
+	public void setPage(int size, int page, int[] slots) {
+		if (view.length != size) {
+			int previousSize = view.length;
+			view = Arrays.copyOf(view, size);
+			Arrays.fill(view, Math.min(previousSize, size), size, -1);
+		}
+
+		int offset = page * PAGE_SIZE;
+
+		for (int i = 0; i < slots.length && offset + i < size; ++i) {
+			view[offset + i] = slots[i];
+		}
+
+		requestedPages.set(page);
+	}
+
+	/**
+	 * Marks a page as requested, such that it is only requested once.
+	 *
+	 * @param page Number of the page.
+	 * @return True if it was not requested yet; false if it was.
+	 */
+	public boolean markRequested(int page) {
+		if (requestedPages.get(page)) {
+			return false;
+		}
+
+		requestedPages.set(page);
+		return true;
+	}
+
+	public enum Sort {
+		NONE,
+		NAME,
+		COUNT,
+		IDENTIFIER,
+	}
+}
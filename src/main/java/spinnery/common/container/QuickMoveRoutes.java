@@ -0,0 +1,144 @@
+package spinnery.common.container;
+
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.tag.ItemTags;
+import net.minecraft.tag.TagContainer;
+import spinnery.common.utility.StackUtilities;
+import spinnery.widget.WSlot;
+
+import java.util.*;
+
+/**
+ * QuickMoveRoutes is a routing table for the
+ * QUICK_MOVE action of a BaseContainer, mapping
+ * each source inventory number to the positions,
+ * within the container's SlotIndex, of the slots
+ * an ItemStack may be moved into.
+ * <p>
+ * Targets are further narrowed, per Item, to
+ * those whose filters accept it, and looked up
+ * through the SlotIndex. Ranges of a WSlotGrid
+ * share the filters of their WSlots, such that
+ * each range is checked once rather than per
+ * slot, and WSlots of hidden rows are only created
+ * for slots holding the Item, or empty ones. Routes
+ * are built lazily and invalidated when the WSlots
+ * of the container or their filters change, or when
+ * Tags are reloaded.
+ */
+public class QuickMoveRoutes {
+	protected final BaseContainer container;
+	protected final Map<Integer, Map<Item, BitSet>> compatibleTargets = new HashMap<>();
+	protected TagContainer<Item> tags = null;
+	protected int revision = -1;
+
+	public QuickMoveRoutes(BaseContainer container) {
+		this.container = container;
+	}
+
+	/**
+	 * Discards all routes, which will be rebuilt when next needed.
+	 */
+	public void invalidate() {
+		compatibleTargets.clear();
+	}
+
+	/**
+	 * Retrieves the positions of the slots of other inventories an Item may
+	 * be moved into from an inventory, in the order of the container's widgets.
+	 * Whether they are locked, or whether their inventory accepts the full
+	 * ItemStack, is not considered, as that may change at any time.
+	 *
+	 * @param inventoryNumber Inventory number of the source slot.
+	 * @param item            Item to be moved.
+	 * @return The positions of the slots whose filters accept the Item; must not be modified.
+	 */
+	public BitSet getTargets(int inventoryNumber, Item item) {
+		SlotIndex index = container.getSlotIndex();
+
+		if (tags != ItemTags.getContainer() || revision != index.getRevision()) {
+			compatibleTargets.clear();
+			tags = ItemTags.getContainer();
+			revision = index.getRevision();
+		}
+
+		return compatibleTargets.computeIfAbsent(inventoryNumber, key -> new HashMap<>()).computeIfAbsent(item, key -> {
+			Inventory inventory = container.getInventory(inventoryNumber);
+
+			BitSet compatible = new BitSet();
+
+			for (SlotIndex.Range range : index.getRanges()) {
+				if (container.getInventory(range.getInventoryNumber()) == inventory) continue;
+
+				WSlot slot = range.getSlot(range.getSlotOffset());
+
+				if (slot != null && slot.accepts(item)) {
+					compatible.set(range.getPositionOffset(), range.getPositionOffset() + range.getSlotCount());
+				}
+			}
+
+			return compatible;
+		});
+	}
+
+	/**
+	 * Finds the WSlot an ItemStack should be moved into: the first
+	 * one holding a matching ItemStack which is not full or, if
+	 * there is none, the first empty one. Only slots holding the
+	 * Item, or empty ones, are looked up, through the SlotIndex.
+	 *
+	 * @param source WSlot the ItemStack is moved from.
+	 * @param index  SlotIndex of the container.
+	 * @return The target WSlot; null if there is none.
+	 */
+	public WSlot findTarget(WSlot source, SlotIndex index) {
+		ItemStack stackA = source.getStack();
+
+		if (stackA.isEmpty()) {
+			return null;
+		}
+
+		BitSet candidates = getTargets(source.getInventoryNumber(), stackA.getItem());
+
+		if (candidates.isEmpty()) {
+			return null;
+		}
+
+		BitSet matching = index.getSlots(stackA.getItem());
+
+		for (int position = matching.nextSetBit(0); position >= 0; position = matching.nextSetBit(position + 1)) {
+			if (!candidates.get(position)) continue;
+
+			WSlot slotB = index.getSlot(position);
+
+			if (slotB == null || slotB.isLocked()) continue;
+
+			ItemStack stackB = slotB.getStack();
+
+			if (StackUtilities.equalItemAndTag(stackA, stackB) && stackB.getCount() < (slotB.getInventoryNumber() == BaseContainer.PLAYER_INVENTORY ? stackA.getMaxCount() : slotB.getMaxCount())) {
+				if (slotB.getLinkedInventory().isValidInvStack(slotB.getSlotNumber(), stackA)) {
+					return slotB;
+				}
+			}
+		}
+
+		BitSet empty = index.getSlots(Items.AIR);
+
+		for (int position = empty.nextSetBit(0); position >= 0; position = empty.nextSetBit(position + 1)) {
+			if (!candidates.get(position)) continue;
+
+			WSlot slotB = index.getSlot(position);
+
+			if (slotB == null || slotB.isLocked()) continue;
+
+			if (slotB.getStack().isEmpty() && slotB.getLinkedInventory().isValidInvStack(slotB.getSlotNumber(), stackA)) {
+				return slotB;
+			}
+		}
+
+		return null;
+	}
+}
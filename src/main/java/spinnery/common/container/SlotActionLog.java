@@ -0,0 +1,150 @@
+package spinnery.common.container;
+
+import net.minecraft.item.ItemStack;
+import spinnery.common.utility.SlotStackMap;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A SlotActionLog is a short, client-side log
+ * of slot actions which have been predicted
+ * locally, but not yet acknowledged by the server.
+ * <p>
+ * Each entry keeps the action itself, so that it
+ * may be replayed, alongside the ItemStacks of
+ * the slots it touched and of the cursor, both
+ * before and after it was predicted. Slots are
+ * identified by their inventory and slot number
+ * rather than by WSlot, as WSlots of hidden rows
+ * of a WSlotGrid are not kept.
+ */
+public class SlotActionLog {
+	public static final int MAXIMUM_ENTRIES = 64;
+
+	protected final Deque<Entry> entries = new ArrayDeque<>();
+	protected int nextSequence = 1;
+
+	/**
+	 * Retrieves the sequence ID to be used by the next action.
+	 * Sequence IDs wrap around past the largest integer, such
+	 * that they stay ordered, but are never zero, which denotes
+	 * an action which expects no acknowledgement.
+	 *
+	 * @return The sequence ID to be used by the next action.
+	 */
+	public int nextSequence() {
+		int sequence = nextSequence;
+		nextSequence = nextSequence == -1 ? 1 : nextSequence + 1;
+		return sequence;
+	}
+
+	/**
+	 * Adds a predicted action to this log, discarding the
+	 * oldest one if the log is full.
+	 *
+	 * @param entry Entry of the predicted action.
+	 */
+	public void add(Entry entry) {
+		if (entries.size() >= MAXIMUM_ENTRIES) {
+			entries.pollFirst();
+		}
+
+		entries.addLast(entry);
+	}
+
+	/**
+	 * Removes all entries up to and including the given sequence ID.
+	 *
+	 * @param sequence Sequence ID acknowledged by the server.
+	 * @return The entry of the given sequence ID; null if it is not in this log.
+	 */
+	public Entry acknowledge(int sequence) {
+		Entry acknowledged = null;
+
+		while (!entries.isEmpty() && isBefore(entries.peekFirst().sequence, sequence)) {
+			entries.pollFirst();
+		}
+
+		if (!entries.isEmpty() && entries.peekFirst().sequence == sequence) {
+			acknowledged = entries.pollFirst();
+		}
+
+		return acknowledged;
+	}
+
+	/**
+	 * Retrieves the entries of actions which have not been acknowledged, oldest first.
+	 *
+	 * @return The pending entries.
+	 */
+	public Deque<Entry> getEntries() {
+		return entries;
+	}
+
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	protected static boolean isBefore(int sequenceA, int sequenceB) {
+		return sequenceA - sequenceB < 0;
+	}
+
+	public static class Entry {
+		protected final int sequence;
+		protected final Runnable action;
+		protected SlotStackMap previousStacks;
+		protected SlotStackMap predictedStacks;
+		protected ItemStack previousCursorStack;
+		protected ItemStack predictedCursorStack;
+
+		public Entry(int sequence, Runnable action) {
+			this.sequence = sequence;
+			this.action = action;
+		}
+
+		/**
+		 * Records the state surrounding the prediction of this action.
+		 *
+		 * @param previousStacks       ItemStacks of touched slots before the action.
+		 * @param predictedStacks      ItemStacks of touched slots after the action.
+		 * @param previousCursorStack  Cursor ItemStack before the action.
+		 * @param predictedCursorStack Cursor ItemStack after the action.
+		 */
+		public Entry record(SlotStackMap previousStacks, SlotStackMap predictedStacks, ItemStack previousCursorStack, ItemStack predictedCursorStack) {
+			this.previousStacks = previousStacks;
+			this.predictedStacks = predictedStacks;
+			this.previousCursorStack = previousCursorStack;
+			this.predictedCursorStack = predictedCursorStack;
+			return this;
+		}
+
+		public int getSequence() {
+			return sequence;
+		}
+
+		public Runnable getAction() {
+			return action;
+		}
+
+		public SlotStackMap getPreviousStacks() {
+			return previousStacks;
+		}
+
+		public SlotStackMap getPredictedStacks() {
+			return predictedStacks;
+		}
+
+		public ItemStack getPreviousCursorStack() {
+			return previousCursorStack;
+		}
+
+		public ItemStack getPredictedCursorStack() {
+			return predictedCursorStack;
+		}
+	}
+}
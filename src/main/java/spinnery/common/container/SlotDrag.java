@@ -0,0 +1,136 @@
+package spinnery.common.container;
+
+import spinnery.common.utility.SlotStackMap;
+import spinnery.widget.WSlot;
+
+import java.util.Arrays;
+
+/**
+ * A SlotDrag is the ordered set of WSlots
+ * a mouse drag has passed over, kept as
+ * packed inventory and slot numbers alongside
+ * the WSlots themselves.
+ * <p>
+ * Its arrays grow as needed and are reused
+ * after {@link #clear()}, such that adding
+ * WSlots while dragging does not allocate.
+ */
+public class SlotDrag {
+	protected long[] ids = new long[16];
+	protected WSlot[] slots = new WSlot[16];
+	protected int size = 0;
+
+	/**
+	 * Packs an inventory number and a slot number into a single identifier.
+	 *
+	 * @param inventoryNumber Inventory number of the slot.
+	 * @param slotNumber      Number of the slot.
+	 * @return The packed identifier.
+	 */
+	public static long pack(int inventoryNumber, int slotNumber) {
+		return SlotStackMap.pack(inventoryNumber, slotNumber);
+	}
+
+	public static int getInventoryNumber(long id) {
+		return (int) (id >> 32);
+	}
+
+	public static int getSlotNumber(long id) {
+		return (int) id;
+	}
+
+	/**
+	 * Adds a WSlot to this drag, unless it is locked or this drag
+	 * already contains its slot.
+	 *
+	 * @param slot WSlot to be added.
+	 * @return True if added; false if locked or already contained.
+	 */
+	public boolean add(WSlot slot) {
+		if (slot.isLocked()) {
+			return false;
+		}
+
+		long id = pack(slot.getInventoryNumber(), slot.getSlotNumber());
+
+		if (contains(id)) {
+			return false;
+		}
+
+		if (size == ids.length) {
+			ids = Arrays.copyOf(ids, size * 2);
+			slots = Arrays.copyOf(slots, size * 2);
+		}
+
+		ids[size] = id;
+		slots[size] = slot;
+		++size;
+
+		return true;
+	}
+
+	public boolean contains(WSlot slot) {
+		return contains(pack(slot.getInventoryNumber(), slot.getSlotNumber()));
+	}
+
+	public boolean contains(long id) {
+		for (int i = 0; i < size; ++i) {
+			if (ids[i] == id) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public WSlot getSlot(int index) {
+		return slots[index];
+	}
+
+	public long getId(int index) {
+		return ids[index];
+	}
+
+	/**
+	 * Retrieves the slot numbers of this drag, in order, as sent to the server.
+	 *
+	 * @return The slot numbers.
+	 */
+	public int[] getSlotNumbers() {
+		int[] slotNumbers = new int[size];
+
+		for (int i = 0; i < size; ++i) {
+			slotNumbers[i] = getSlotNumber(ids[i]);
+		}
+
+		return slotNumbers;
+	}
+
+	/**
+	 * Retrieves the inventory numbers of this drag, in order, as sent to the server.
+	 *
+	 * @return The inventory numbers.
+	 */
+	public int[] getInventoryNumbers() {
+		int[] inventoryNumbers = new int[size];
+
+		for (int i = 0; i < size; ++i) {
+			inventoryNumbers[i] = getInventoryNumber(ids[i]);
+		}
+
+		return inventoryNumbers;
+	}
+
+	public void clear() {
+		Arrays.fill(slots, 0, size, null);
+		size = 0;
+	}
+}
@@ -0,0 +1,365 @@
+package spinnery.common.container;
+
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
+import spinnery.common.inventory.TrackedInventory;
+import spinnery.common.utility.InventoryUtilities;
+import spinnery.widget.WAbstractWidget;
+import spinnery.widget.WSlot;
+import spinnery.widget.WSlotGrid;
+
+import java.util.*;
+
+/**
+ * A SlotIndex maps each Item to the slots of
+ * a BaseContainer currently holding it, in the
+ * order of the container's widgets. Empty slots
+ * are indexed under the empty Item.
+ * <p>
+ * Slots are identified by their position in that
+ * order: each WSlot holds one, and each WSlotGrid
+ * one per slot of its whole range, visible or not,
+ * such that WSlots of hidden rows need not exist
+ * to be indexed. WSlots are created, for grids,
+ * only when a position is resolved.
+ * <p>
+ * The index is updated incrementally, from
+ * changes made through WSlots and from the
+ * slots of the journal batches the container
+ * reads once per synchronization, rather than
+ * from a listener per container. Slots of
+ * inventories which are not tracked are
+ * re-indexed on every query instead.
+ */
+public class SlotIndex {
+	protected static final BitSet EMPTY = new BitSet();
+
+	protected final BaseContainer container;
+	protected final List<Range> ranges = new ArrayList<>();
+	protected final Map<Integer, List<Range>> rangesByInventory = new HashMap<>();
+	protected final Map<Item, BitSet> slotsByItem = new HashMap<>();
+	protected final Map<Integer, BitSet> staleSlots = new HashMap<>();
+	protected final Set<Integer> staleInventories = new HashSet<>();
+	protected Item[] indexedItems = new Item[0];
+	protected int size = 0;
+	protected int revision = 0;
+	protected boolean isBuilt = false;
+
+	public SlotIndex(BaseContainer container) {
+		this.container = container;
+	}
+
+	/**
+	 * Discards the index, which will be rebuilt on the next query.
+	 */
+	public void invalidate() {
+		isBuilt = false;
+		ranges.clear();
+		rangesByInventory.clear();
+		slotsByItem.clear();
+		staleSlots.clear();
+		staleInventories.clear();
+		indexedItems = new Item[0];
+		size = 0;
+	}
+
+	/**
+	 * Retrieves the revision of this index, incremented whenever it is
+	 * rebuilt, such that positions obtained before may be discarded.
+	 *
+	 * @return The revision of this index.
+	 */
+	public int getRevision() {
+		if (!isBuilt) build();
+		return revision;
+	}
+
+	/**
+	 * Marks a slot of an inventory as changed, such
+	 * that it is re-indexed on the next query.
+	 *
+	 * @param inventoryNumber Inventory number of the changed slot.
+	 * @param slotNumber      Number of the changed slot; {@link TrackedInventory#ALL} if unknown.
+	 */
+	public void markStale(int inventoryNumber, int slotNumber) {
+		if (!isBuilt) {
+			return;
+		}
+
+		if (slotNumber == TrackedInventory.ALL) {
+			staleInventories.add(inventoryNumber);
+		} else {
+			staleSlots.computeIfAbsent(inventoryNumber, key -> new BitSet()).set(slotNumber);
+		}
+	}
+
+	/**
+	 * Re-indexes a slot of an inventory immediately.
+	 *
+	 * @param inventoryNumber Inventory number of the slot.
+	 * @param slotNumber      Number of the slot.
+	 */
+	public void update(int inventoryNumber, int slotNumber) {
+		if (!isBuilt) {
+			return;
+		}
+
+		for (Range range : rangesByInventory.getOrDefault(inventoryNumber, Collections.emptyList())) {
+			if (range.contains(slotNumber)) {
+				update(range, slotNumber);
+			}
+		}
+	}
+
+	protected void update(Range range, int slotNumber) {
+		int position = range.positionOffset + slotNumber - range.slotOffset;
+
+		Item item = getItem(container.getInventory(range.inventoryNumber), slotNumber);
+		Item previous = indexedItems[position];
+
+		if (previous == item) {
+			return;
+		}
+
+		indexedItems[position] = item;
+
+		if (previous != null) {
+			BitSet positions = slotsByItem.get(previous);
+
+			if (positions != null) {
+				positions.clear(position);
+
+				if (positions.isEmpty()) {
+					slotsByItem.remove(previous);
+				}
+			}
+		}
+
+		slotsByItem.computeIfAbsent(item, key -> new BitSet()).set(position);
+	}
+
+	/**
+	 * Retrieves the positions of the slots holding an Item, in the order of
+	 * the container's widgets. The returned set must not be modified, nor
+	 * slots changed while iterating it.
+	 *
+	 * @param item Item to be queried; the empty Item for empty slots.
+	 * @return The positions of the slots holding the Item.
+	 */
+	public BitSet getSlots(Item item) {
+		refresh();
+
+		BitSet positions = slotsByItem.get(item);
+
+		return positions == null ? EMPTY : positions;
+	}
+
+	/**
+	 * Retrieves a copy of the positions of the slots holding an Item, in the
+	 * order of the container's widgets, which may be iterated while changing them.
+	 *
+	 * @param item Item to be queried; the empty Item for empty slots.
+	 * @return The positions of the slots holding the Item.
+	 */
+	public BitSet getSlotsCopy(Item item) {
+		return (BitSet) getSlots(item).clone();
+	}
+
+	/**
+	 * Retrieves the WSlot at a position, creating it if it belongs to
+	 * a WSlotGrid and is not visible.
+	 *
+	 * @param position Position of the slot.
+	 * @return The WSlot; null if out of bounds.
+	 */
+	public WSlot getSlot(int position) {
+		Range range = getRange(position);
+
+		if (range == null) {
+			return null;
+		}
+
+		return range.getSlot(range.slotOffset + position - range.positionOffset);
+	}
+
+	/**
+	 * Retrieves the ranges of slots of this index, in the order of the
+	 * container's widgets, each a WSlot or the whole range of a WSlotGrid.
+	 *
+	 * @return The ranges of slots.
+	 */
+	public List<Range> getRanges() {
+		if (!isBuilt) build();
+		return ranges;
+	}
+
+	/**
+	 * Retrieves the amount of positions of this index.
+	 *
+	 * @return The amount of positions.
+	 */
+	public int size() {
+		if (!isBuilt) build();
+		return size;
+	}
+
+	protected Range getRange(int position) {
+		if (!isBuilt) build();
+
+		int low = 0;
+		int high = ranges.size() - 1;
+
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			Range range = ranges.get(middle);
+
+			if (position < range.positionOffset) {
+				high = middle - 1;
+			} else if (position >= range.positionOffset + range.slotCount) {
+				low = middle + 1;
+			} else {
+				return range;
+			}
+		}
+
+		return null;
+	}
+
+	protected static Item getItem(Inventory inventory, int slotNumber) {
+		if (inventory == null || slotNumber < 0 || slotNumber >= inventory.getInvSize()) {
+			return Items.AIR;
+		}
+
+		return InventoryUtilities.getItem(inventory, slotNumber);
+	}
+
+	protected void refresh() {
+		if (!isBuilt) {
+			build();
+			return;
+		}
+
+		for (Map.Entry<Integer, Inventory> entry : container.getInventories().entrySet()) {
+			if (!(entry.getValue() instanceof TrackedInventory)) {
+				staleInventories.add(entry.getKey());
+			}
+		}
+
+		for (Integer inventoryNumber : staleInventories) {
+			for (Range range : rangesByInventory.getOrDefault(inventoryNumber, Collections.emptyList())) {
+				for (int slotNumber = range.slotOffset; slotNumber < range.slotOffset + range.slotCount; ++slotNumber) {
+					update(range, slotNumber);
+				}
+			}
+
+			staleSlots.remove(inventoryNumber);
+		}
+
+		staleInventories.clear();
+
+		for (Map.Entry<Integer, BitSet> entry : staleSlots.entrySet()) {
+			BitSet stale = entry.getValue();
+
+			for (int slotNumber = stale.nextSetBit(0); slotNumber >= 0; slotNumber = stale.nextSetBit(slotNumber + 1)) {
+				update(entry.getKey(), slotNumber);
+			}
+
+			stale.clear();
+		}
+	}
+
+	protected void build() {
+		invalidate();
+
+		isBuilt = true;
+		++revision;
+
+		Set<WSlot> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		for (WAbstractWidget widget : container.getInterface().getAllWidgets()) {
+			if (widget instanceof WSlotGrid) {
+				WSlotGrid grid = (WSlotGrid) widget;
+				addRange(new Range(grid.getInventoryNumber(), grid.getRangeOffset(), grid.getRangeSize(), size, null, grid));
+			} else if (widget instanceof WSlot && !(((WSlot) widget).getParent() instanceof WSlotGrid) && visited.add((WSlot) widget)) {
+				WSlot slot = (WSlot) widget;
+				addRange(new Range(slot.getInventoryNumber(), slot.getSlotNumber(), 1, size, slot, null));
+			}
+		}
+
+		indexedItems = new Item[size];
+
+		for (Range range : ranges) {
+			for (int slotNumber = range.slotOffset; slotNumber < range.slotOffset + range.slotCount; ++slotNumber) {
+				update(range, slotNumber);
+			}
+		}
+	}
+
+	protected void addRange(Range range) {
+		if (range.slotCount <= 0) {
+			return;
+		}
+
+		ranges.add(range);
+		rangesByInventory.computeIfAbsent(range.inventoryNumber, key -> new ArrayList<>()).add(range);
+		size += range.slotCount;
+	}
+
+	/**
+	 * A Range is a run of consecutive slots of an
+	 * inventory, held by a single WSlot or by a
+	 * WSlotGrid, along with its first position.
+	 */
+	public static class Range {
+		protected final int inventoryNumber;
+		protected final int slotOffset;
+		protected final int slotCount;
+		protected final int positionOffset;
+		protected final WSlot slot;
+		protected final WSlotGrid grid;
+
+		protected Range(int inventoryNumber, int slotOffset, int slotCount, int positionOffset, WSlot slot, WSlotGrid grid) {
+			this.inventoryNumber = inventoryNumber;
+			this.slotOffset = slotOffset;
+			this.slotCount = Math.max(0, slotCount);
+			this.positionOffset = positionOffset;
+			this.slot = slot;
+			this.grid = grid;
+		}
+
+		public int getInventoryNumber() {
+			return inventoryNumber;
+		}
+
+		public int getSlotOffset() {
+			return slotOffset;
+		}
+
+		public int getSlotCount() {
+			return slotCount;
+		}
+
+		public int getPositionOffset() {
+			return positionOffset;
+		}
+
+		public boolean contains(int slotNumber) {
+			return slotNumber >= slotOffset && slotNumber < slotOffset + slotCount;
+		}
+
+		/**
+		 * Retrieves the WSlot of a slot of this range.
+		 *
+		 * @param slotNumber Number of the slot.
+		 * @return The WSlot; null if not in this range.
+		 */
+		public WSlot getSlot(int slotNumber) {
+			if (!contains(slotNumber)) {
+				return null;
+			}
+
+			return slot != null ? slot : grid.getCell(slotNumber);
+		}
+	}
+}
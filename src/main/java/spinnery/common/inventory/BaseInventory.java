@@ -2,7 +2,6 @@ package spinnery.common.inventory;
 
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.inventory.Inventories;
-import net.minecraft.inventory.Inventory;
 import net.minecraft.inventory.InventoryListener;
 import net.minecraft.item.ItemStack;
 import net.minecraft.recipe.RecipeFinder;
@@ -19,11 +18,17 @@ import java.util.stream.Collectors;
  * effectively handling what a BasicInventory
  * does, however, allowing stack sizes
  * higher than the default of 64.
+ * <p>
+ * Changes made through {@link #setInvStack(int, ItemStack)},
+ * {@link #takeInvStack(int, int)} and {@link #removeInvStack(int)}
+ * are reported to slot listeners with their slot.
  */
-public class BaseInventory implements Inventory, RecipeInputProvider {
+public class BaseInventory implements TrackedInventory, RecipeInputProvider {
 	protected int size;
 	protected DefaultedList<ItemStack> stacks;
 	protected List<InventoryListener> listeners = new ArrayList<>();
+	protected List<TrackedInventory.Listener> slotListeners = new ArrayList<>();
+	protected int dirtySlot = ALL;
 
 	public BaseInventory(int size) {
 		this.size = size;
@@ -43,6 +48,16 @@ public class BaseInventory implements Inventory, RecipeInputProvider {
 		this.listeners.removeAll(Arrays.asList(listeners));
 	}
 
+	@Override
+	public void addSlotListener(TrackedInventory.Listener listener) {
+		this.slotListeners.add(listener);
+	}
+
+	@Override
+	public void removeSlotListener(TrackedInventory.Listener listener) {
+		this.slotListeners.remove(listener);
+	}
+
 	@Override
 	public int getInvSize() {
 		return this.size;
@@ -62,7 +77,7 @@ public class BaseInventory implements Inventory, RecipeInputProvider {
 	public ItemStack takeInvStack(int slot, int amount) {
 		ItemStack itemStack = Inventories.splitStack(this.stacks, slot, amount);
 		if (!itemStack.isEmpty()) {
-			this.markDirty();
+			this.markDirty(slot);
 		}
 
 		return itemStack;
@@ -75,7 +90,7 @@ public class BaseInventory implements Inventory, RecipeInputProvider {
 			return ItemStack.EMPTY;
 		} else {
 			this.stacks.set(slot, ItemStack.EMPTY);
-			this.markDirty();
+			this.markDirty(slot);
 			return itemStack;
 		}
 	}
@@ -84,11 +99,27 @@ public class BaseInventory implements Inventory, RecipeInputProvider {
 	public void setInvStack(int slot, ItemStack stack) {
 		this.stacks.set(slot, stack);
 
+		this.markDirty(slot);
+	}
+
+	/**
+	 * Marks this inventory as dirty, reporting
+	 * the given slot to slot listeners.
+	 *
+	 * @param slot Slot which changed.
+	 */
+	public void markDirty(int slot) {
+		this.dirtySlot = slot;
 		this.markDirty();
+		this.dirtySlot = ALL;
 	}
 
 	@Override
 	public void markDirty() {
+		for (TrackedInventory.Listener listener : slotListeners) {
+			listener.onSlotChange(this, dirtySlot);
+		}
+
 		for (InventoryListener listener : listeners) {
 			listener.onInvChange(this);
 		}
@@ -0,0 +1,543 @@
+package spinnery.common.inventory;
+
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.inventory.InventoryListener;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.registry.Registry;
+
+import java.util.*;
+
+/**
+ * A BulkInventory is a high-capacity inventory
+ * which stores the Item raw ID and count of each
+ * slot in primitive arrays, rather than one
+ * ItemStack per slot. Only Tags of ItemStacks
+ * which have one are kept, in a side table.
+ * <p>
+ * ItemStacks returned by {@link #getInvStack(int)}
+ * are views, materialized when first requested
+ * and written back to the arrays, then discarded,
+ * on {@link #markDirty()}, or once more than
+ * {@link #MAXIMUM_VIEWS} are held. As such, changes
+ * made to a view must be followed by a call to
+ * markDirty. Reads which do not change the slot
+ * should go through {@link #getItem(int)},
+ * {@link #getCount(int)}, {@link #getTag(int)}
+ * or {@link #copyInvStack(int)}, none of which
+ * materialize a view.
+ * <p>
+ * Counts are stored as longs; views of slots
+ * holding more than {@link Integer#MAX_VALUE}
+ * Items are capped to it.
+ */
+public class BulkInventory implements TrackedInventory {
+	public static final int MAXIMUM_VIEWS = 256;
+
+	protected final int size;
+	protected final int[] rawIds;
+	protected final long[] counts;
+	protected final Map<Integer, CompoundTag> tags = new HashMap<>();
+	protected final Map<Integer, ItemStack> views = new HashMap<>();
+	protected int occupied = 0;
+	protected List<InventoryListener> listeners = new ArrayList<>();
+	protected List<TrackedInventory.Listener> slotListeners = new ArrayList<>();
+	protected int dirtySlot = ALL;
+
+	public BulkInventory(int size) {
+		this.size = size;
+		this.rawIds = new int[size];
+		this.counts = new long[size];
+	}
+
+	public void addListener(InventoryListener... listeners) {
+		this.listeners.addAll(Arrays.asList(listeners));
+	}
+
+	public void removeListener(InventoryListener... listeners) {
+		this.listeners.removeAll(Arrays.asList(listeners));
+	}
+
+	@Override
+	public void addSlotListener(TrackedInventory.Listener listener) {
+		this.slotListeners.add(listener);
+	}
+
+	@Override
+	public void removeSlotListener(TrackedInventory.Listener listener) {
+		this.slotListeners.remove(listener);
+	}
+
+	@Override
+	public int getInvSize() {
+		return this.size;
+	}
+
+	@Override
+	public boolean isInvEmpty() {
+		flushViews();
+		return this.occupied == 0;
+	}
+
+	/**
+	 * Retrieves the Item held in a slot, without materializing an ItemStack.
+	 *
+	 * @param slot Slot to be queried.
+	 * @return The Item held in the slot; air if empty.
+	 */
+	@Override
+	public Item getItem(int slot) {
+		if (slot < 0 || slot >= this.size) {
+			return Items.AIR;
+		}
+
+		ItemStack view = this.views.get(slot);
+
+		if (view != null) {
+			return view.getItem();
+		}
+
+		return this.counts[slot] > 0 ? Item.byRawId(this.rawIds[slot]) : Items.AIR;
+	}
+
+	/**
+	 * Retrieves the amount of Items held in a slot, without materializing an ItemStack.
+	 *
+	 * @param slot Slot to be queried.
+	 * @return The amount of Items held in the slot.
+	 */
+	@Override
+	public long getCount(int slot) {
+		if (slot < 0 || slot >= this.size) {
+			return 0;
+		}
+
+		ItemStack view = this.views.get(slot);
+
+		if (view != null) {
+			return view.isEmpty() ? 0 : view.getCount();
+		}
+
+		return this.counts[slot];
+	}
+
+	/**
+	 * Retrieves the Tag held in a slot, without materializing an ItemStack.
+	 * The Tag must not be modified.
+	 *
+	 * @param slot Slot to be queried.
+	 * @return The Tag held in the slot; null if there is none.
+	 */
+	@Override
+	public CompoundTag getTag(int slot) {
+		if (slot < 0 || slot >= this.size) {
+			return null;
+		}
+
+		ItemStack view = this.views.get(slot);
+
+		if (view != null) {
+			return view.getTag();
+		}
+
+		return this.tags.get(slot);
+	}
+
+	/**
+	 * Retrieves a copy of the ItemStack held in a slot, without
+	 * materializing a view.
+	 *
+	 * @param slot Slot to be queried.
+	 * @return The copy.
+	 */
+	@Override
+	public ItemStack copyInvStack(int slot) {
+		if (slot < 0 || slot >= this.size) {
+			return ItemStack.EMPTY;
+		}
+
+		ItemStack view = this.views.get(slot);
+
+		if (view != null) {
+			return view.copy();
+		}
+
+		return createStack(slot);
+	}
+
+	/**
+	 * Sets the amount of Items held in a slot, without materializing an
+	 * ItemStack. Setting it to zero or less empties the slot; empty
+	 * slots are left unchanged, as they hold no Item.
+	 *
+	 * @param slot  Slot to be changed.
+	 * @param count Amount of Items to be held in the slot.
+	 */
+	public void setCount(int slot, long count) {
+		flushView(slot);
+
+		if (this.counts[slot] <= 0) {
+			return;
+		}
+
+		if (count <= 0) {
+			clearSlot(slot);
+		} else {
+			this.counts[slot] = count;
+		}
+
+		this.markDirty(slot);
+	}
+
+	@Override
+	public ItemStack getInvStack(int slot) {
+		if (slot < 0 || slot >= this.size) {
+			return ItemStack.EMPTY;
+		}
+
+		ItemStack view = this.views.get(slot);
+
+		if (view == null) {
+			if (this.counts[slot] <= 0) {
+				return ItemStack.EMPTY;
+			}
+
+			if (this.views.size() >= MAXIMUM_VIEWS) {
+				flushViews();
+			}
+
+			view = createStack(slot);
+
+			this.views.put(slot, view);
+		}
+
+		return view;
+	}
+
+	/**
+	 * Creates a new ItemStack from the arrays of a slot.
+	 *
+	 * @param slot Slot to be read.
+	 * @return The ItemStack; empty if the slot is.
+	 */
+	protected ItemStack createStack(int slot) {
+		if (this.counts[slot] <= 0) {
+			return ItemStack.EMPTY;
+		}
+
+		ItemStack stack = new ItemStack(Item.byRawId(this.rawIds[slot]), (int) Math.min(this.counts[slot], Integer.MAX_VALUE));
+
+		CompoundTag tag = this.tags.get(slot);
+
+		if (tag != null) {
+			stack.setTag(tag.copy());
+		}
+
+		return stack;
+	}
+
+	@Override
+	public ItemStack takeInvStack(int slot, int amount) {
+		flushView(slot);
+
+		if (slot < 0 || slot >= this.size || this.counts[slot] <= 0 || amount <= 0) {
+			return ItemStack.EMPTY;
+		}
+
+		int taken = (int) Math.min(amount, this.counts[slot]);
+
+		ItemStack stack = new ItemStack(Item.byRawId(this.rawIds[slot]), taken);
+
+		CompoundTag tag = this.tags.get(slot);
+
+		if (tag != null) {
+			stack.setTag(tag.copy());
+		}
+
+		this.counts[slot] -= taken;
+
+		if (this.counts[slot] <= 0) {
+			clearSlot(slot);
+		}
+
+		this.markDirty(slot);
+
+		return stack;
+	}
+
+	@Override
+	public ItemStack removeInvStack(int slot) {
+		if (slot < 0 || slot >= this.size) {
+			return ItemStack.EMPTY;
+		}
+
+		ItemStack stack = getInvStack(slot);
+
+		this.views.remove(slot);
+
+		if (stack.isEmpty()) {
+			return ItemStack.EMPTY;
+		}
+
+		clearSlot(slot);
+
+		this.markDirty(slot);
+
+		return stack;
+	}
+
+	@Override
+	public void setInvStack(int slot, ItemStack stack) {
+		this.views.remove(slot);
+
+		write(slot, stack);
+
+		this.markDirty(slot);
+	}
+
+	/**
+	 * Writes the contents of an ItemStack to the arrays of a slot.
+	 *
+	 * @param slot  Slot to be written.
+	 * @param stack ItemStack to be written.
+	 */
+	protected void write(int slot, ItemStack stack) {
+		if (stack.isEmpty()) {
+			clearSlot(slot);
+			return;
+		}
+
+		if (this.counts[slot] <= 0) {
+			++this.occupied;
+		}
+
+		this.rawIds[slot] = Item.getRawId(stack.getItem());
+		this.counts[slot] = stack.getCount();
+
+		if (stack.hasTag()) {
+			this.tags.put(slot, stack.getTag().copy());
+		} else {
+			this.tags.remove(slot);
+		}
+	}
+
+	protected void clearSlot(int slot) {
+		if (this.counts[slot] > 0) {
+			--this.occupied;
+		}
+
+		this.rawIds[slot] = 0;
+		this.counts[slot] = 0;
+		this.tags.remove(slot);
+	}
+
+	/**
+	 * Writes the materialized view of a slot, if any,
+	 * back to the arrays, and discards it.
+	 *
+	 * @param slot Slot whose view is to be flushed.
+	 */
+	protected void flushView(int slot) {
+		ItemStack view = this.views.remove(slot);
+
+		if (view != null) {
+			writeView(slot, view);
+		}
+	}
+
+	/**
+	 * Writes a materialized view back to the arrays of its slot,
+	 * preserving counts above {@link Integer#MAX_VALUE} if the
+	 * view is still capped to it.
+	 *
+	 * @param slot Slot of the view.
+	 * @param view View to be written.
+	 */
+	protected void writeView(int slot, ItemStack view) {
+		long count = this.counts[slot];
+
+		write(slot, view);
+
+		if (count > Integer.MAX_VALUE && view.getCount() == Integer.MAX_VALUE) {
+			this.counts[slot] = count;
+		}
+	}
+
+	/**
+	 * Writes all materialized views back to the arrays, and discards them.
+	 */
+	public void flushViews() {
+		if (this.views.isEmpty()) {
+			return;
+		}
+
+		for (Map.Entry<Integer, ItemStack> entry : this.views.entrySet()) {
+			writeView(entry.getKey(), entry.getValue());
+		}
+
+		this.views.clear();
+	}
+
+	/**
+	 * Marks this inventory as dirty, reporting
+	 * the given slot to slot listeners.
+	 *
+	 * @param slot Slot which changed.
+	 */
+	public void markDirty(int slot) {
+		this.dirtySlot = slot;
+		this.markDirty();
+		this.dirtySlot = ALL;
+	}
+
+	@Override
+	public void markDirty() {
+		flushViews();
+
+		for (TrackedInventory.Listener listener : slotListeners) {
+			listener.onSlotChange(this, dirtySlot);
+		}
+
+		for (InventoryListener listener : listeners) {
+			listener.onInvChange(this);
+		}
+	}
+
+	@Override
+	public boolean canPlayerUseInv(PlayerEntity player) {
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.rawIds, 0);
+		Arrays.fill(this.counts, 0);
+		this.tags.clear();
+		this.views.clear();
+		this.occupied = 0;
+		this.markDirty();
+	}
+
+	/**
+	 * Serializes this inventory into a CompoundTag. Items are stored
+	 * by identifier in a palette, such that raw ID changes between
+	 * sessions do not corrupt the contents.
+	 *
+	 * @param tag CompoundTag to serialize into.
+	 * @return The CompoundTag serialized into.
+	 */
+	public CompoundTag toTag(CompoundTag tag) {
+		flushViews();
+
+		Map<Integer, Integer> palette = new LinkedHashMap<>();
+		ListTag paletteTag = new ListTag();
+		int[] indexes = new int[this.size];
+
+		for (int slot = 0; slot < this.size; ++slot) {
+			if (this.counts[slot] <= 0) {
+				indexes[slot] = -1;
+				continue;
+			}
+
+			int rawId = this.rawIds[slot];
+
+			Integer index = palette.get(rawId);
+
+			if (index == null) {
+				index = palette.size();
+				palette.put(rawId, index);
+				paletteTag.add(StringTag.of(Registry.ITEM.getId(Item.byRawId(rawId)).toString()));
+			}
+
+			indexes[slot] = index;
+		}
+
+		ListTag tagsTag = new ListTag();
+
+		for (Map.Entry<Integer, CompoundTag> entry : this.tags.entrySet()) {
+			CompoundTag entryTag = new CompoundTag();
+			entryTag.putInt("slot", entry.getKey());
+			entryTag.put("tag", entry.getValue());
+			tagsTag.add(entryTag);
+		}
+
+		tag.putInt("size", this.size);
+		tag.put("palette", paletteTag);
+		tag.putIntArray("items", indexes);
+		tag.putLongArray("counts", this.counts);
+		tag.put("tags", tagsTag);
+
+		return tag;
+	}
+
+	/**
+	 * Deserializes the contents of this inventory from a CompoundTag
+	 * written by {@link #toTag(CompoundTag)}. Slots beyond the size
+	 * of this inventory, or holding unknown Items, are discarded.
+	 *
+	 * @param tag CompoundTag to deserialize from.
+	 * @return This inventory.
+	 */
+	public BulkInventory fromTag(CompoundTag tag) {
+		Arrays.fill(this.rawIds, 0);
+		Arrays.fill(this.counts, 0);
+		this.tags.clear();
+		this.views.clear();
+		this.occupied = 0;
+
+		ListTag paletteTag = tag.getList("palette", 8);
+		int[] palette = new int[paletteTag.size()];
+
+		for (int i = 0; i < palette.length; ++i) {
+			Item item = Registry.ITEM.get(new Identifier(paletteTag.getString(i)));
+			palette[i] = item == Items.AIR ? -1 : Item.getRawId(item);
+		}
+
+		int[] indexes = tag.getIntArray("items");
+		long[] counts = tag.getLongArray("counts");
+
+		for (int slot = 0; slot < Math.min(this.size, Math.min(indexes.length, counts.length)); ++slot) {
+			int index = indexes[slot];
+
+			if (index < 0 || index >= palette.length || palette[index] < 0 || counts[slot] <= 0) continue;
+
+			this.rawIds[slot] = palette[index];
+			this.counts[slot] = counts[slot];
+			++this.occupied;
+		}
+
+		ListTag tagsTag = tag.getList("tags", 10);
+
+		for (int i = 0; i < tagsTag.size(); ++i) {
+			CompoundTag entryTag = tagsTag.getCompound(i);
+			int slot = entryTag.getInt("slot");
+
+			if (slot >= 0 && slot < this.size && this.counts[slot] > 0) {
+				this.tags.put(slot, entryTag.getCompound("tag"));
+			}
+		}
+
+		this.markDirty();
+
+		return this;
+	}
+
+	public String toString() {
+		flushViews();
+
+		List<String> contents = new ArrayList<>();
+
+		for (int slot = 0; slot < this.size; ++slot) {
+			if (this.counts[slot] > 0) {
+				contents.add(this.counts[slot] + " " + Registry.ITEM.getId(Item.byRawId(this.rawIds[slot])));
+			}
+		}
+
+		return contents.toString();
+	}
+}
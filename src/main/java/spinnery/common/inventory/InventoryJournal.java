@@ -0,0 +1,322 @@
+package spinnery.common.inventory;
+
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundTag;
+import spinnery.common.registry.NetworkRegistry;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+
+/**
+ * An InventoryJournal is a server-side log
+ * of the slot changes of a TrackedInventory,
+ * shared by every BaseContainer viewing it.
+ * <p>
+ * Changes are compared against the journal's
+ * own cache, which holds the Item, count and
+ * Tag of each slot rather than an ItemStack,
+ * and read through the TrackedInventory's
+ * accessors such that no ItemStack is
+ * materialized for unchanged slots. They are
+ * encoded once per tick, into
+ * batches which each viewer reads from its
+ * own Cursor. As such, synchronizing an
+ * inventory costs its amount of changes,
+ * rather than its changes times its viewers.
+ * <p>
+ * A Cursor which falls behind the oldest
+ * retained batch must be synchronized in full.
+ */
+public class InventoryJournal implements TrackedInventory.Listener {
+	public static final int MAXIMUM_BATCHES = 20;
+
+	protected static final Map<TrackedInventory, InventoryJournal> JOURNALS = new WeakHashMap<>();
+
+	protected final TrackedInventory inventory;
+	protected final Deque<Batch> batches = new ArrayDeque<>();
+	protected final BitSet pendingSlots = new BitSet();
+	protected final Map<Integer, CompoundTag> cachedTags = new HashMap<>();
+	protected Item[] cachedItems;
+	protected long[] cachedCounts;
+	protected long revision = 0;
+	protected long lastFlush = Long.MIN_VALUE;
+	protected int viewers = 0;
+
+	protected InventoryJournal(TrackedInventory inventory) {
+		this.inventory = inventory;
+		this.cachedItems = new Item[inventory.getInvSize()];
+		this.cachedCounts = new long[inventory.getInvSize()];
+
+		for (int slot = 0; slot < cachedItems.length; ++slot) {
+			cache(slot);
+		}
+	}
+
+	/**
+	 * Asserts whether a slot differs from the cache.
+	 *
+	 * @param slot Slot to be compared.
+	 * @return True if it differs; false if not.
+	 */
+	protected boolean isChanged(int slot) {
+		long count = inventory.getCount(slot);
+
+		if (count <= 0) {
+			return cachedCounts[slot] > 0;
+		}
+
+		return count != cachedCounts[slot]
+				|| inventory.getItem(slot) != cachedItems[slot]
+				|| !Objects.equals(inventory.getTag(slot), cachedTags.get(slot));
+	}
+
+	/**
+	 * Caches the Item, count and Tag of a slot.
+	 *
+	 * @param slot Slot to be cached.
+	 */
+	protected void cache(int slot) {
+		long count = inventory.getCount(slot);
+
+		if (count <= 0) {
+			cachedItems[slot] = null;
+			cachedCounts[slot] = 0;
+			cachedTags.remove(slot);
+		} else {
+			cachedItems[slot] = inventory.getItem(slot);
+			cachedCounts[slot] = count;
+
+			CompoundTag tag = inventory.getTag(slot);
+
+			if (tag == null) {
+				cachedTags.remove(slot);
+			} else {
+				cachedTags.put(slot, tag.copy());
+			}
+		}
+	}
+
+	/**
+	 * Attaches a new viewer to the journal of an inventory,
+	 * creating the journal if it has no viewers yet.
+	 *
+	 * @param inventory Inventory to be viewed.
+	 * @return Cursor of the new viewer, positioned at the latest batch.
+	 */
+	public static Cursor attach(TrackedInventory inventory) {
+		synchronized (JOURNALS) {
+			InventoryJournal journal = JOURNALS.get(inventory);
+
+			if (journal == null) {
+				journal = new InventoryJournal(inventory);
+				inventory.addSlotListener(journal);
+				JOURNALS.put(inventory, journal);
+			}
+
+			++journal.viewers;
+
+			return new Cursor(journal, journal.revision);
+		}
+	}
+
+	/**
+	 * Detaches a viewer from this journal, discarding
+	 * the journal if it has no viewers left.
+	 */
+	protected void detach() {
+		synchronized (JOURNALS) {
+			if (--viewers <= 0 && JOURNALS.get(inventory) == this) {
+				inventory.removeSlotListener(this);
+				JOURNALS.remove(inventory);
+			}
+		}
+	}
+
+	@Override
+	public void onSlotChange(Inventory inventory, int slot) {
+		if (slot == TrackedInventory.ALL) {
+			pendingSlots.set(0, Math.max(inventory.getInvSize(), cachedItems.length));
+		} else {
+			pendingSlots.set(slot);
+		}
+	}
+
+	/**
+	 * Compares the slots changed since the last flush against
+	 * the cache, encoding those which differ into a new batch.
+	 * Only the first call of a tick has any effect.
+	 *
+	 * @param tick Current tick of the world.
+	 */
+	public void flush(long tick) {
+		if (tick == lastFlush) {
+			return;
+		}
+
+		lastFlush = tick;
+
+		if (pendingSlots.isEmpty()) {
+			return;
+		}
+
+		int size = inventory.getInvSize();
+
+		if (cachedItems.length != size) {
+			cachedItems = Arrays.copyOf(cachedItems, size);
+			cachedCounts = Arrays.copyOf(cachedCounts, size);
+			cachedTags.keySet().removeIf(slot -> slot >= size);
+		}
+
+		int[] slots = new int[pendingSlots.cardinality()];
+		ItemStack[] stacks = new ItemStack[slots.length];
+		int changes = 0;
+
+		for (int slot = pendingSlots.nextSetBit(0); slot >= 0 && slot < size; slot = pendingSlots.nextSetBit(slot + 1)) {
+			if (isChanged(slot)) {
+				cache(slot);
+				slots[changes] = slot;
+				stacks[changes] = inventory.copyInvStack(slot);
+				++changes;
+			}
+		}
+
+		pendingSlots.clear();
+
+		if (changes == 0) {
+			return;
+		}
+
+		batches.addLast(new Batch(++revision, Arrays.copyOf(slots, changes), Arrays.copyOf(stacks, changes)));
+
+		if (batches.size() > MAXIMUM_BATCHES) {
+			batches.pollFirst();
+		}
+	}
+
+	public TrackedInventory getInventory() {
+		return inventory;
+	}
+
+	public long getRevision() {
+		return revision;
+	}
+
+	/**
+	 * A Batch is the set of slots which changed in a
+	 * single flush, along with their ItemStacks at the
+	 * time. Its ItemStacks are shared by every viewer,
+	 * and must not be modified.
+	 */
+	public static class Batch {
+		protected final long revision;
+		protected final int[] slots;
+		protected final ItemStack[] stacks;
+		protected byte[] data;
+
+		protected Batch(long revision, int[] slots, ItemStack[] stacks) {
+			this.revision = revision;
+			this.slots = slots;
+			this.stacks = stacks;
+		}
+
+		public long getRevision() {
+			return revision;
+		}
+
+		public int[] getSlots() {
+			return slots;
+		}
+
+		public ItemStack[] getStacks() {
+			return stacks;
+		}
+
+		/**
+		 * Retrieves this batch in its encoded form, encoding
+		 * it when first requested.
+		 *
+		 * @return The encoded batch.
+		 */
+		public byte[] getData() {
+			if (data == null) {
+				data = NetworkRegistry.encodeSlotBatch(slots, stacks, slots.length);
+			}
+
+			return data;
+		}
+	}
+
+	/**
+	 * A Cursor is the position of a single
+	 * viewer within an InventoryJournal.
+	 */
+	public static class Cursor {
+		protected final InventoryJournal journal;
+		protected long revision;
+		protected boolean isDetached = false;
+
+		protected Cursor(InventoryJournal journal, long revision) {
+			this.journal = journal;
+			this.revision = revision;
+		}
+
+		public InventoryJournal getJournal() {
+			return journal;
+		}
+
+		/**
+		 * Asserts whether batches this Cursor has not read were
+		 * already discarded, such that its viewer must be
+		 * synchronized in full.
+		 *
+		 * @return True if this Cursor fell behind; false if not.
+		 */
+		public boolean isBehind() {
+			return !journal.batches.isEmpty() && journal.batches.peekFirst().revision > revision + 1;
+		}
+
+		/**
+		 * Reads the batches this Cursor has not read, oldest first,
+		 * and advances it to the latest batch.
+		 *
+		 * @param consumer Consumer of the batches.
+		 */
+		public void read(Consumer<Batch> consumer) {
+			if (revision != journal.revision) {
+				for (Batch batch : journal.batches) {
+					if (batch.revision > revision) {
+						consumer.accept(batch);
+					}
+				}
+			}
+
+			advance();
+		}
+
+		/**
+		 * Advances this Cursor to the latest batch without reading.
+		 */
+		public void advance() {
+			revision = journal.revision;
+		}
+
+		/**
+		 * Detaches this Cursor from its journal.
+		 */
+		public void detach() {
+			if (!isDetached) {
+				isDetached = true;
+				journal.detach();
+			}
+		}
+	}
+}
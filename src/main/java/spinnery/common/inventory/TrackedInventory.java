@@ -0,0 +1,91 @@
+package spinnery.common.inventory;
+
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundTag;
+
+/**
+ * Generic interface representing an inventory
+ * which reports changes at slot granularity,
+ * allowing a BaseContainer to synchronize only
+ * the slots which actually changed.
+ * <p>
+ * Changes whose slot is unknown, such as
+ * a plain call to {@link Inventory#markDirty()},
+ * are reported with the slot {@link #ALL}.
+ * <p>
+ * Slots may also be read without retrieving their
+ * ItemStack, which implementations that do not store
+ * one per slot should override to avoid creating it.
+ */
+public interface TrackedInventory extends Inventory {
+	int ALL = -1;
+
+	/**
+	 * Adds a listener to be notified of slot changes.
+	 *
+	 * @param listener Listener to be added.
+	 */
+	void addSlotListener(Listener listener);
+
+	/**
+	 * Removes a listener previously added.
+	 *
+	 * @param listener Listener to be removed.
+	 */
+	void removeSlotListener(Listener listener);
+
+	/**
+	 * Retrieves the Item held in a slot.
+	 *
+	 * @param slot Slot to be queried.
+	 * @return The Item held in the slot; air if empty.
+	 */
+	default Item getItem(int slot) {
+		return getInvStack(slot).getItem();
+	}
+
+	/**
+	 * Retrieves the amount of Items held in a slot.
+	 *
+	 * @param slot Slot to be queried.
+	 * @return The amount of Items held in the slot.
+	 */
+	default long getCount(int slot) {
+		ItemStack stack = getInvStack(slot);
+		return stack.isEmpty() ? 0 : stack.getCount();
+	}
+
+	/**
+	 * Retrieves the Tag of the ItemStack held in a slot,
+	 * which must not be modified.
+	 *
+	 * @param slot Slot to be queried.
+	 * @return The Tag; null if there is none.
+	 */
+	default CompoundTag getTag(int slot) {
+		return getInvStack(slot).getTag();
+	}
+
+	/**
+	 * Retrieves a copy of the ItemStack held in a slot,
+	 * which the inventory does not keep a reference to.
+	 *
+	 * @param slot Slot to be queried.
+	 * @return The copy.
+	 */
+	default ItemStack copyInvStack(int slot) {
+		return getInvStack(slot).copy();
+	}
+
+	interface Listener {
+		/**
+		 * Method called when a slot of an inventory changes.
+		 *
+		 * @param inventory Inventory which changed.
+		 * @param slot      Slot which changed; {@link #ALL} if unknown.
+		 */
+		void onSlotChange(Inventory inventory, int slot);
+	}
+}
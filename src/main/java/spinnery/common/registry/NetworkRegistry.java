@@ -4,15 +4,39 @@ import io.netty.buffer.Unpooled;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.fabricmc.fabric.api.network.ClientSidePacketRegistry;
+import net.fabricmc.fabric.api.network.PacketContext;
 import net.fabricmc.fabric.api.network.ServerSidePacketRegistry;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.TranslatableText;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.PacketByteBuf;
+import org.apache.logging.log4j.Level;
+import spinnery.Spinnery;
 import spinnery.common.container.BaseContainer;
+import spinnery.common.container.InventoryQuery;
+import spinnery.common.inventory.TrackedInventory;
+import spinnery.common.utility.PacketLimiter;
+import spinnery.common.utility.SlotStackMap;
+import spinnery.widget.WAbstractWidget;
 import spinnery.widget.WSlot;
 import spinnery.widget.api.Action;
+import spinnery.widget.api.EventPayload;
+import spinnery.widget.api.SyncedProperty;
 import spinnery.widget.api.WNetworked;
+import spinnery.widget.api.WSynced;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 /**
  * Registers all the network-related
@@ -22,11 +46,98 @@ public class NetworkRegistry {
 	public static final Identifier SLOT_CLICK_PACKET = new Identifier("spinnery", "slot_click");
 	public static final Identifier SLOT_UPDATE_PACKET = new Identifier("spinnery", "slot_update");
 	public static final Identifier SLOT_DRAG_PACKET = new Identifier("spinnery", "slot_drag");
+	public static final Identifier SLOT_TRANSFER_PACKET = new Identifier("spinnery", "slot_transfer");
+	public static final Identifier SLOT_BATCH_UPDATE_PACKET = new Identifier("spinnery", "slot_batch_update");
+	public static final Identifier SLOT_ACKNOWLEDGE_PACKET = new Identifier("spinnery", "slot_acknowledge");
 	public static final Identifier SYNCED_WIDGET_PACKET = new Identifier("spinnery", "synced_widget");
+	public static final Identifier WIDGET_PROPERTIES_PACKET = new Identifier("spinnery", "widget_properties");
+	public static final Identifier INVENTORY_SNAPSHOT_PACKET = new Identifier("spinnery", "inventory_snapshot");
+	public static final Identifier QUERY_PACKET = new Identifier("spinnery", "query");
+	public static final Identifier QUERY_PAGE_PACKET = new Identifier("spinnery", "query_page");
+	public static final Identifier QUERY_PAGE_REQUEST_PACKET = new Identifier("spinnery", "query_page_request");
+
+	public static final int MAXIMUM_QUERY_LENGTH = 256;
+
+	public static final int MAXIMUM_SNAPSHOT_SIZE = 1048576 - 64;
+	public static final int MAXIMUM_SNAPSHOT_UNCOMPRESSED_SIZE = 8388608;
+
+	public static final PacketLimiter LIMITER = new PacketLimiter()
+			.setBudget(SLOT_CLICK_PACKET, 128, 64)
+			.setBudget(SLOT_DRAG_PACKET, 32, 16)
+			.setBudget(SLOT_TRANSFER_PACKET, 16, 8)
+			.setBudget(QUERY_PACKET, 32, 16)
+			.setBudget(QUERY_PAGE_REQUEST_PACKET, 128, 64)
+			.setBudget(SYNCED_WIDGET_PACKET, 512, 256);
+
+	/**
+	 * Scratch buffers, reused for encoding nested blocks whose
+	 * contents are copied into the packet buffer. Packet buffers
+	 * themselves are handed over to vanilla packets, which hold
+	 * on to them after being sent, so they are instead allocated
+	 * with their expected size up front.
+	 */
+	protected static final int SCRATCH_CAPACITY = 256;
+	protected static final int SCRATCH_MAXIMUM_CAPACITY = 65536;
+	protected static final ThreadLocal<PacketByteBuf> SCRATCH_BUFFER = ThreadLocal.withInitial(() -> new PacketByteBuf(Unpooled.buffer(SCRATCH_CAPACITY)));
+
+	protected static final int ESTIMATED_STACK_SIZE = 32;
+	protected static final int ESTIMATED_TAG_SIZE = 256;
+
+	/**
+	 * Allocates a packet buffer with the given initial capacity.
+	 *
+	 * @param capacity Expected size of the packet, in bytes.
+	 * @return The allocated buffer.
+	 */
+	public static PacketByteBuf createBuffer(int capacity) {
+		return new PacketByteBuf(Unpooled.buffer(capacity));
+	}
+
+	/**
+	 * Retrieves the cleared scratch buffer of the current thread. Its contents
+	 * must be copied before it is retrieved again, and it must be given back
+	 * through {@link #releaseScratchBuffer(PacketByteBuf)} after use.
+	 *
+	 * @return The scratch buffer of the current thread.
+	 */
+	public static PacketByteBuf acquireScratchBuffer() {
+		PacketByteBuf scratch = SCRATCH_BUFFER.get();
+		scratch.clear();
+		return scratch;
+	}
+
+	/**
+	 * Gives back the scratch buffer of the current thread, discarding
+	 * it if it grew larger than the maximum retained capacity.
+	 *
+	 * @param scratch The scratch buffer of the current thread.
+	 */
+	public static void releaseScratchBuffer(PacketByteBuf scratch) {
+		if (scratch.capacity() > SCRATCH_MAXIMUM_CAPACITY) {
+			SCRATCH_BUFFER.remove();
+		} else {
+			scratch.clear();
+		}
+	}
+
+	/**
+	 * Estimates the encoded size of an ItemStack, in bytes.
+	 *
+	 * @param stack ItemStack to be estimated.
+	 * @return The estimated size of the ItemStack.
+	 */
+	public static int estimateSize(ItemStack stack) {
+		return stack.hasTag() ? ESTIMATED_STACK_SIZE + ESTIMATED_TAG_SIZE : ESTIMATED_STACK_SIZE;
+	}
 
 	public static PacketByteBuf createSlotClickPacket(int syncId, int slotNumber, int inventoryNumber, int button, Action action) {
-		PacketByteBuf buffer = new PacketByteBuf(Unpooled.buffer());
+		return createSlotClickPacket(syncId, 0, slotNumber, inventoryNumber, button, action);
+	}
+
+	public static PacketByteBuf createSlotClickPacket(int syncId, int sequence, int slotNumber, int inventoryNumber, int button, Action action) {
+		PacketByteBuf buffer = createBuffer(26);
 		buffer.writeInt(syncId);
+		buffer.writeVarInt(sequence);
 		buffer.writeInt(slotNumber);
 		buffer.writeInt(inventoryNumber);
 		buffer.writeInt(button);
@@ -35,16 +146,162 @@ public class NetworkRegistry {
 	}
 
 	public static PacketByteBuf createSlotDragPacket(int syncId, int[] slotNumber, int[] inventoryNumber, Action action) {
-		PacketByteBuf buffer = new PacketByteBuf(Unpooled.buffer());
+		return createSlotDragPacket(syncId, 0, slotNumber, inventoryNumber, action);
+	}
+
+	public static PacketByteBuf createSlotDragPacket(int syncId, int sequence, int[] slotNumber, int[] inventoryNumber, Action action) {
+		PacketByteBuf buffer = createBuffer(24 + 5 * (slotNumber.length + inventoryNumber.length));
 		buffer.writeInt(syncId);
+		buffer.writeVarInt(sequence);
 		buffer.writeIntArray(slotNumber);
 		buffer.writeIntArray(inventoryNumber);
 		buffer.writeEnumConstant(action);
 		return buffer;
 	}
 
+	/**
+	 * Creates a bulk transfer request between two inventories.
+	 *
+	 * @param syncId              Sync ID of the container.
+	 * @param sequence            Sequence ID of the action; zero if no acknowledgement is expected.
+	 * @param fromInventoryNumber Inventory number of the source inventory.
+	 * @param toInventoryNumber   Inventory number of the target inventory.
+	 * @param filter              Item to be moved; null to move everything.
+	 * @return The packet buffer.
+	 */
+	public static PacketByteBuf createSlotTransferPacket(int syncId, int sequence, int fromInventoryNumber, int toInventoryNumber, Item filter) {
+		PacketByteBuf buffer = createBuffer(24);
+		buffer.writeInt(syncId);
+		buffer.writeVarInt(sequence);
+		buffer.writeVarInt(fromInventoryNumber);
+		buffer.writeVarInt(toInventoryNumber);
+		buffer.writeVarInt(filter == null ? 0 : Item.getRawId(filter) + 1);
+		return buffer;
+	}
+
+	/**
+	 * Creates a query over an inventory, sent by the client.
+	 *
+	 * @param syncId          Sync ID of the container.
+	 * @param inventoryNumber Inventory number of the inventory.
+	 * @param revision        Revision of the query.
+	 * @param search          Search string; empty to match everything.
+	 * @param sort            Sort key.
+	 * @return The packet buffer.
+	 */
+	public static PacketByteBuf createQueryPacket(int syncId, int inventoryNumber, int revision, String search, InventoryQuery.Sort sort) {
+		if (search.length() > MAXIMUM_QUERY_LENGTH) {
+			search = search.substring(0, MAXIMUM_QUERY_LENGTH);
+		}
+
+		PacketByteBuf buffer = createBuffer(24 + search.length() * 3);
+		buffer.writeInt(syncId);
+		buffer.writeVarInt(inventoryNumber);
+		buffer.writeVarInt(revision);
+		buffer.writeString(search);
+		buffer.writeEnumConstant(sort);
+		return buffer;
+	}
+
+	public static PacketByteBuf createQueryPageRequestPacket(int syncId, int inventoryNumber, int revision, int page) {
+		PacketByteBuf buffer = createBuffer(19);
+		buffer.writeInt(syncId);
+		buffer.writeVarInt(inventoryNumber);
+		buffer.writeVarInt(revision);
+		buffer.writeVarInt(page);
+		return buffer;
+	}
+
+	/**
+	 * Creates a page of results of a query, containing the slot
+	 * numbers of the page along with the total amount of results.
+	 *
+	 * @param syncId Sync ID of the container.
+	 * @param query  Query the page belongs to.
+	 * @param page   Number of the page.
+	 * @return The packet buffer.
+	 */
+	public static PacketByteBuf createQueryPagePacket(int syncId, InventoryQuery query, int page) {
+		int[] slotNumbers = query.getPage(page);
+
+		PacketByteBuf buffer = createBuffer(24 + slotNumbers.length * 3);
+		buffer.writeInt(syncId);
+		buffer.writeVarInt(query.getInventoryNumber());
+		buffer.writeVarInt(query.getRevision());
+		buffer.writeVarInt(query.getSize());
+		buffer.writeVarInt(page);
+		buffer.writeVarInt(slotNumbers.length);
+
+		for (int slotNumber : slotNumbers) {
+			buffer.writeVarInt(slotNumber);
+		}
+
+		return buffer;
+	}
+
+	/**
+	 * Encodes changed slots of an inventory into a batch, shared
+	 * by all viewers through {@link #createSlotBatchUpdatePacket(int, int, byte[])}.
+	 *
+	 * @param slots  Numbers of the changed slots.
+	 * @param stacks ItemStacks of the changed slots.
+	 * @param size   Amount of changed slots.
+	 * @return The encoded batch.
+	 */
+	public static byte[] encodeSlotBatch(int[] slots, ItemStack[] stacks, int size) {
+		PacketByteBuf scratch = acquireScratchBuffer();
+
+		scratch.writeVarInt(size);
+
+		for (int i = 0; i < size; ++i) {
+			scratch.writeVarInt(slots[i]);
+			scratch.writeCompoundTag(stacks[i].toTag(new CompoundTag()));
+		}
+
+		byte[] batch = new byte[scratch.readableBytes()];
+		scratch.readBytes(batch);
+
+		releaseScratchBuffer(scratch);
+
+		return batch;
+	}
+
+	public static PacketByteBuf createSlotBatchUpdatePacket(int syncId, int inventoryNumber, byte[] batch) {
+		PacketByteBuf buffer = createBuffer(9 + batch.length);
+		buffer.writeInt(syncId);
+		buffer.writeVarInt(inventoryNumber);
+		buffer.writeBytes(batch);
+		return buffer;
+	}
+
+	/**
+	 * Creates the acknowledgement of a sequenced slot action, containing
+	 * the authoritative ItemStacks of the WSlots it touched and of the cursor.
+	 *
+	 * @param syncId      Sync ID of the container.
+	 * @param sequence    Sequence ID of the action.
+	 * @param cursorStack Cursor ItemStack after the action.
+	 * @param slots       WSlots touched by the action.
+	 * @return The packet buffer.
+	 */
+	public static PacketByteBuf createSlotAcknowledgePacket(int syncId, int sequence, ItemStack cursorStack, SlotStackMap stacks) {
+		PacketByteBuf buffer = createBuffer(14 + estimateSize(cursorStack) + stacks.size() * (10 + ESTIMATED_STACK_SIZE));
+		buffer.writeInt(syncId);
+		buffer.writeVarInt(sequence);
+		buffer.writeCompoundTag(cursorStack.toTag(new CompoundTag()));
+		buffer.writeVarInt(stacks.size());
+
+		stacks.forEach((inventoryNumber, slotNumber, stack) -> {
+			buffer.writeVarInt(inventoryNumber);
+			buffer.writeVarInt(slotNumber);
+			buffer.writeCompoundTag(stack.toTag(new CompoundTag()));
+		});
+
+		return buffer;
+	}
+
 	public static PacketByteBuf createSlotUpdatePacket(int syncId, int slotNumber, int inventoryNumber, ItemStack stack) {
-		PacketByteBuf buffer = new PacketByteBuf(Unpooled.buffer());
+		PacketByteBuf buffer = createBuffer(12 + estimateSize(stack));
 		buffer.writeInt(syncId);
 		buffer.writeInt(slotNumber);
 		buffer.writeInt(inventoryNumber);
@@ -52,108 +309,240 @@ public class NetworkRegistry {
 		return buffer;
 	}
 
-	public static PacketByteBuf createMouseClickPacket(WNetworked widget, double mouseX, double mouseY, int button) {
-		PacketByteBuf buffer = new PacketByteBuf(Unpooled.buffer());
-		buffer.writeInt(widget.getSyncId());
-		buffer.writeEnumConstant(WNetworked.Event.MOUSE_CLICK);
-		CompoundTag payload = new CompoundTag();
-		payload.putDouble("mouseX", mouseX);
-		payload.putDouble("mouseY", mouseY);
-		payload.putInt("button", button);
-		widget.appendPayload(WNetworked.Event.MOUSE_CLICK, payload);
-		buffer.writeCompoundTag(payload);
+	/**
+	 * Builds an inventory snapshot packet, containing the given ItemStacks of all given inventories.
+	 * The packet consists of the container synchronization ID, the VarInt uncompressed and compressed
+	 * lengths, and the deflated body. The body starts with a dictionary of distinct stack tags, followed
+	 * by each inventory number, its amount of stacks, and for each stack its VarInt slot number, raw
+	 * item ID plus one (zero for empty stacks), count and dictionary index plus one (zero for no tag).
+	 *
+	 * @param syncId      Synchronization ID of the container.
+	 * @param inventories ItemStacks of each inventory, whose key is the inventory number, and value key is the slot number.
+	 * @return Buffer containing the packet; null if the compressed snapshot is too large for a single packet.
+	 */
+	public static PacketByteBuf createInventorySnapshotPacket(int syncId, Map<Integer, Map<Integer, ItemStack>> inventories) {
+		Map<CompoundTag, Integer> dictionary = new LinkedHashMap<>();
+
+		for (Map<Integer, ItemStack> stacks : inventories.values()) {
+			for (ItemStack stack : stacks.values()) {
+				if (!stack.isEmpty() && stack.hasTag()) {
+					dictionary.putIfAbsent(stack.getTag(), dictionary.size());
+				}
+			}
+		}
+
+		PacketByteBuf body = acquireScratchBuffer();
+
+		body.writeVarInt(dictionary.size());
+
+		for (CompoundTag tag : dictionary.keySet()) {
+			body.writeCompoundTag(tag);
+		}
+
+		body.writeVarInt(inventories.size());
+
+		for (Map.Entry<Integer, Map<Integer, ItemStack>> inventory : inventories.entrySet()) {
+			body.writeVarInt(inventory.getKey());
+			body.writeVarInt(inventory.getValue().size());
+
+			for (Map.Entry<Integer, ItemStack> entry : inventory.getValue().entrySet()) {
+				ItemStack stack = entry.getValue();
+
+				body.writeVarInt(entry.getKey());
+
+				if (stack.isEmpty()) {
+					body.writeVarInt(0);
+				} else {
+					body.writeVarInt(Item.getRawId(stack.getItem()) + 1);
+					body.writeVarInt(stack.getCount());
+					body.writeVarInt(stack.hasTag() ? dictionary.get(stack.getTag()) + 1 : 0);
+				}
+			}
+		}
+
+		byte[] input = new byte[body.readableBytes()];
+		body.readBytes(input);
+
+		releaseScratchBuffer(body);
+
+		Deflater deflater = new Deflater();
+		deflater.setInput(input);
+		deflater.finish();
+
+		byte[] chunk = new byte[8192];
+
+		PacketByteBuf compressed = acquireScratchBuffer();
+
+		while (!deflater.finished()) {
+			compressed.writeBytes(chunk, 0, deflater.deflate(chunk));
+		}
+
+		deflater.end();
+
+		PacketByteBuf buffer = null;
+
+		if (compressed.readableBytes() <= MAXIMUM_SNAPSHOT_SIZE) {
+			buffer = createBuffer(14 + compressed.readableBytes());
+			buffer.writeInt(syncId);
+			buffer.writeVarInt(input.length);
+			buffer.writeVarInt(compressed.readableBytes());
+			buffer.writeBytes(compressed);
+		}
+
+		releaseScratchBuffer(compressed);
+
 		return buffer;
 	}
 
-	public static PacketByteBuf createMouseReleasePacket(WNetworked widget, double mouseX, double mouseY, int button) {
-		PacketByteBuf buffer = new PacketByteBuf(Unpooled.buffer());
-		buffer.writeInt(widget.getSyncId());
-		buffer.writeEnumConstant(WNetworked.Event.MOUSE_RELEASE);
-		CompoundTag payload = new CompoundTag();
-		payload.putDouble("mouseX", mouseX);
-		payload.putDouble("mouseY", mouseY);
-		payload.putInt("button", button);
-		widget.appendPayload(WNetworked.Event.MOUSE_RELEASE, payload);
-		buffer.writeCompoundTag(payload);
+	/**
+	 * Reads the body of an inventory snapshot packet, as written by
+	 * {@link #createInventorySnapshotPacket(int, Map)}.
+	 *
+	 * @param buffer Buffer positioned after the container synchronization ID.
+	 * @return ItemStacks of each inventory, whose key is the inventory number, and value key is the slot number.
+	 * @throws DataFormatException If the body is malformed.
+	 */
+	public static Map<Integer, Map<Integer, ItemStack>> readInventorySnapshot(PacketByteBuf buffer) throws DataFormatException {
+		int length = buffer.readVarInt();
+		int compressedLength = buffer.readVarInt();
+
+		if (length < 0 || length > MAXIMUM_SNAPSHOT_UNCOMPRESSED_SIZE || compressedLength < 0 || compressedLength > buffer.readableBytes()) {
+			throw new DataFormatException("Invalid inventory snapshot length!");
+		}
+
+		byte[] compressed = new byte[compressedLength];
+		buffer.readBytes(compressed);
+
+		byte[] output = new byte[length];
+
+		Inflater inflater = new Inflater();
+		inflater.setInput(compressed);
+
+		try {
+			if (inflater.inflate(output) != length) {
+				throw new DataFormatException("Inventory snapshot length mismatch!");
+			}
+		} finally {
+			inflater.end();
+		}
+
+		PacketByteBuf body = new PacketByteBuf(Unpooled.wrappedBuffer(output));
+
+		CompoundTag[] dictionary = new CompoundTag[body.readVarInt()];
+
+		for (int i = 0; i < dictionary.length; ++i) {
+			dictionary[i] = body.readCompoundTag();
+		}
+
+		Map<Integer, Map<Integer, ItemStack>> inventories = new HashMap<>();
+
+		int inventoryCount = body.readVarInt();
+
+		for (int i = 0; i < inventoryCount; ++i) {
+			Map<Integer, ItemStack> stacks = inventories.computeIfAbsent(body.readVarInt(), key -> new HashMap<>());
+
+			int stackCount = body.readVarInt();
+
+			for (int j = 0; j < stackCount; ++j) {
+				int slotNumber = body.readVarInt();
+				int rawId = body.readVarInt();
+
+				if (rawId == 0) {
+					stacks.put(slotNumber, ItemStack.EMPTY);
+				} else {
+					ItemStack stack = new ItemStack(Item.byRawId(rawId - 1), body.readVarInt());
+
+					int tagIndex = body.readVarInt();
+
+					if (tagIndex > 0 && tagIndex <= dictionary.length) {
+						stack.setTag(dictionary[tagIndex - 1].copy());
+					}
+
+					stacks.put(slotNumber, stack);
+				}
+			}
+		}
+
+		return inventories;
+	}
+
+	/**
+	 * Builds a widget properties packet, containing the dirty properties of the given widgets.
+	 * Each widget is written as its VarInt synchronization ID and the VarInt length of its
+	 * block, such that clients may skip widgets they do not know; the block contains the
+	 * amount of dirty properties, followed by the VarInt index and value of each.
+	 *
+	 * @param syncId  Synchronization ID of the container.
+	 * @param widgets Widgets with at least one dirty property.
+	 * @return Buffer containing the packet.
+	 */
+	public static PacketByteBuf createWidgetPropertiesPacket(int syncId, Collection<WSynced> widgets) {
+		PacketByteBuf buffer = createBuffer(9 + 16 * widgets.size());
+		buffer.writeInt(syncId);
+		buffer.writeVarInt(widgets.size());
+
+		PacketByteBuf block = acquireScratchBuffer();
+
+		for (WSynced widget : widgets) {
+			List<SyncedProperty<?>> properties = widget.getSyncedProperties();
+
+			int dirty = 0;
+
+			for (SyncedProperty<?> property : properties) {
+				if (property.isDirty()) ++dirty;
+			}
+
+			block.clear();
+			block.writeVarInt(dirty);
+
+			for (int index = 0; index < properties.size(); ++index) {
+				if (properties.get(index).isDirty()) {
+					block.writeVarInt(index);
+					properties.get(index).write(block);
+				}
+			}
+
+			buffer.writeVarInt(widget.getSyncId());
+			buffer.writeVarInt(block.readableBytes());
+			buffer.writeBytes(block);
+		}
+
+		releaseScratchBuffer(block);
+
 		return buffer;
 	}
 
+	public static PacketByteBuf createMouseClickPacket(WNetworked widget, double mouseX, double mouseY, int button) {
+		return createInterfaceEventPacket(widget, EventPayload.ofMouse(WNetworked.Event.MOUSE_CLICK, (float) mouseX, (float) mouseY, button), new CompoundTag());
+	}
+
+	public static PacketByteBuf createMouseReleasePacket(WNetworked widget, double mouseX, double mouseY, int button) {
+		return createInterfaceEventPacket(widget, EventPayload.ofMouse(WNetworked.Event.MOUSE_RELEASE, (float) mouseX, (float) mouseY, button), new CompoundTag());
+	}
+
 	public static PacketByteBuf createMouseDragPacket(WNetworked widget, double mouseX, double mouseY, int button,
 													  double deltaX, double deltaY) {
-		PacketByteBuf buffer = new PacketByteBuf(Unpooled.buffer());
-		buffer.writeInt(widget.getSyncId());
-		buffer.writeEnumConstant(WNetworked.Event.MOUSE_DRAG);
-		CompoundTag payload = new CompoundTag();
-		payload.putDouble("mouseX", mouseX);
-		payload.putDouble("mouseY", mouseY);
-		payload.putInt("button", button);
-		payload.putDouble("deltaX", deltaX);
-		payload.putDouble("deltaY", deltaY);
-		widget.appendPayload(WNetworked.Event.MOUSE_DRAG, payload);
-		buffer.writeCompoundTag(payload);
-		return buffer;
+		return createInterfaceEventPacket(widget, EventPayload.ofMouseDrag((float) mouseX, (float) mouseY, button, (float) deltaX, (float) deltaY), new CompoundTag());
 	}
 
 	public static PacketByteBuf createMouseScrollPacket(WNetworked widget, double mouseX, double mouseY, double deltaY) {
-		PacketByteBuf buffer = new PacketByteBuf(Unpooled.buffer());
-		buffer.writeInt(widget.getSyncId());
-		buffer.writeEnumConstant(WNetworked.Event.MOUSE_SCROLL);
-		CompoundTag payload = new CompoundTag();
-		payload.putDouble("mouseX", mouseX);
-		payload.putDouble("mouseY", mouseY);
-		payload.putDouble("deltaY", deltaY);
-		widget.appendPayload(WNetworked.Event.MOUSE_SCROLL, payload);
-		buffer.writeCompoundTag(payload);
-		return buffer;
+		return createInterfaceEventPacket(widget, EventPayload.ofMouseScroll((float) mouseX, (float) mouseY, (float) deltaY), new CompoundTag());
 	}
 
 	public static PacketByteBuf createFocusPacket(WNetworked widget, boolean focused) {
-		PacketByteBuf buffer = new PacketByteBuf(Unpooled.buffer());
-		buffer.writeInt(widget.getSyncId());
-		buffer.writeEnumConstant(WNetworked.Event.FOCUS);
-		CompoundTag payload = new CompoundTag();
-		payload.putBoolean("focused", focused);
-		widget.appendPayload(WNetworked.Event.FOCUS, payload);
-		buffer.writeCompoundTag(payload);
-		return buffer;
+		return createInterfaceEventPacket(widget, EventPayload.ofFocus(focused), new CompoundTag());
 	}
 
 	public static PacketByteBuf createKeyPressPacket(WNetworked widget, int character, int keyCode, int keyModifier) {
-		PacketByteBuf buffer = new PacketByteBuf(Unpooled.buffer());
-		buffer.writeInt(widget.getSyncId());
-		buffer.writeEnumConstant(WNetworked.Event.KEY_PRESS);
-		CompoundTag payload = new CompoundTag();
-		payload.putInt("character", character);
-		payload.putInt("keyCode", keyCode);
-		payload.putInt("keyModifier", keyModifier);
-		widget.appendPayload(WNetworked.Event.KEY_PRESS, payload);
-		buffer.writeCompoundTag(payload);
-		return buffer;
+		return createInterfaceEventPacket(widget, EventPayload.ofKey(WNetworked.Event.KEY_PRESS, character, keyCode, keyModifier), new CompoundTag());
 	}
 
 	public static PacketByteBuf createKeyReleasePacket(WNetworked widget, int character, int keyCode, int keyModifier) {
-		PacketByteBuf buffer = new PacketByteBuf(Unpooled.buffer());
-		buffer.writeInt(widget.getSyncId());
-		buffer.writeEnumConstant(WNetworked.Event.KEY_RELEASE);
-		CompoundTag payload = new CompoundTag();
-		payload.putInt("character", character);
-		payload.putInt("keyCode", keyCode);
-		payload.putInt("keyModifier", keyModifier);
-		widget.appendPayload(WNetworked.Event.KEY_RELEASE, payload);
-		buffer.writeCompoundTag(payload);
-		return buffer;
+		return createInterfaceEventPacket(widget, EventPayload.ofKey(WNetworked.Event.KEY_RELEASE, character, keyCode, keyModifier), new CompoundTag());
 	}
 
 	public static PacketByteBuf createCharTypePacket(WNetworked widget, char character, int keyCode) {
-		PacketByteBuf buffer = new PacketByteBuf(Unpooled.buffer());
-		buffer.writeInt(widget.getSyncId());
-		buffer.writeEnumConstant(WNetworked.Event.CHAR_TYPE);
-		CompoundTag payload = new CompoundTag();
-		payload.putString("character", String.valueOf(character));
-		payload.putInt("keyCode", keyCode);
-		widget.appendPayload(WNetworked.Event.CHAR_TYPE, payload);
-		buffer.writeCompoundTag(payload);
-		return buffer;
+		return createInterfaceEventPacket(widget, EventPayload.ofCharType(character, keyCode), new CompoundTag());
 	}
 
 	public static void sendCustomInterfaceEvent(WNetworked widget, CompoundTag payload) {
@@ -162,18 +551,56 @@ public class NetworkRegistry {
 	}
 
 	public static PacketByteBuf createCustomInterfaceEventPacket(WNetworked widget, CompoundTag payload) {
-		PacketByteBuf buffer = new PacketByteBuf(Unpooled.buffer());
-		buffer.writeInt(widget.getSyncId());
-		buffer.writeEnumConstant(WNetworked.Event.CUSTOM);
-		widget.appendPayload(WNetworked.Event.CUSTOM, payload);
-		buffer.writeCompoundTag(payload);
+		return createInterfaceEventPacket(widget, EventPayload.ofCustom(), payload);
+	}
+
+	/**
+	 * Builds a synced widget packet: the VarInt synchronization ID of the widget,
+	 * followed by the fixed binary layout of the event. The extension tag is only
+	 * serialized if it is not empty after {@link WNetworked#appendPayload(WNetworked.Event, CompoundTag)}.
+	 *
+	 * @param widget    Widget the event happened on.
+	 * @param payload   Event payload to be written.
+	 * @param extension Extension tag, to which the widget may append custom data.
+	 * @return Buffer containing the packet.
+	 */
+	public static PacketByteBuf createInterfaceEventPacket(WNetworked widget, EventPayload payload, CompoundTag extension) {
+		widget.appendPayload(payload.getEvent(), extension);
+		PacketByteBuf buffer = createBuffer(extension.isEmpty() ? 32 : 32 + ESTIMATED_TAG_SIZE);
+		buffer.writeVarInt(widget.getSyncId());
+		payload.setExtension(extension).write(buffer);
 		return buffer;
 	}
 
+	/**
+	 * Consumes one packet from the budget of the sending player in
+	 * the given channel, disconnecting them if they exceed the kick
+	 * threshold of {@link #LIMITER}.
+	 *
+	 * @param packetContext Context of the received packet.
+	 * @param channel       Channel the packet was received in.
+	 * @return True if the packet should be processed; false if it should be dropped.
+	 */
+	public static boolean acquire(PacketContext packetContext, Identifier channel) {
+		PacketLimiter.Result result = LIMITER.acquire(packetContext.getPlayer(), channel);
+
+		if (result == PacketLimiter.Result.KICK) {
+			packetContext.getTaskQueue().execute(() -> {
+				if (packetContext.getPlayer() instanceof ServerPlayerEntity) {
+					((ServerPlayerEntity) packetContext.getPlayer()).networkHandler.disconnect(new TranslatableText("text.spinnery.network.flooding"));
+				}
+			});
+		}
+
+		return result.isAccepted();
+	}
+
 	public static void initialize() {
-		// TODO: Warn or mitigate packet flooding
 		ServerSidePacketRegistry.INSTANCE.register(SLOT_CLICK_PACKET, (packetContext, packetByteBuffer) -> {
+			if (!acquire(packetContext, SLOT_CLICK_PACKET)) return;
+
 			int syncId = packetByteBuffer.readInt();
+			int sequence = packetByteBuffer.readVarInt();
 			int slotNumber = packetByteBuffer.readInt();
 			int inventoryNumber = packetByteBuffer.readInt();
 			int button = packetByteBuffer.readInt();
@@ -181,31 +608,86 @@ public class NetworkRegistry {
 
 			packetContext.getTaskQueue().execute(() -> {
 				if (packetContext.getPlayer().container instanceof BaseContainer && packetContext.getPlayer().container.syncId == syncId) {
-					((BaseContainer) packetContext.getPlayer().container).onSlotAction(slotNumber, inventoryNumber, button, action, packetContext.getPlayer());
+					BaseContainer container = (BaseContainer) packetContext.getPlayer().container;
+					container.onSequencedSlotAction(sequence, () -> container.onSlotAction(slotNumber, inventoryNumber, button, action, packetContext.getPlayer()));
 				}
 			});
 		});
 
 		ServerSidePacketRegistry.INSTANCE.register(SLOT_DRAG_PACKET, ((packetContext, packetByteBuffer) -> {
+			if (!acquire(packetContext, SLOT_DRAG_PACKET)) return;
+
 			int syncId = packetByteBuffer.readInt();
+			int sequence = packetByteBuffer.readVarInt();
 			int[] slotNumbers = packetByteBuffer.readIntArray();
 			int[] inventoryNumbers = packetByteBuffer.readIntArray();
 			Action action = packetByteBuffer.readEnumConstant(Action.class);
 
 			packetContext.getTaskQueue().execute(() -> {
 				if (packetContext.getPlayer().container instanceof BaseContainer && packetContext.getPlayer().container.syncId == syncId) {
-					((BaseContainer) packetContext.getPlayer().container).onSlotDrag(slotNumbers, inventoryNumbers, action);
+					BaseContainer container = (BaseContainer) packetContext.getPlayer().container;
+					container.onSequencedSlotAction(sequence, () -> container.onSlotDrag(slotNumbers, inventoryNumbers, action));
 				}
 			});
 		}));
 
+		ServerSidePacketRegistry.INSTANCE.register(SLOT_TRANSFER_PACKET, (packetContext, packetByteBuffer) -> {
+			if (!acquire(packetContext, SLOT_TRANSFER_PACKET)) return;
+
+			int syncId = packetByteBuffer.readInt();
+			int sequence = packetByteBuffer.readVarInt();
+			int fromInventoryNumber = packetByteBuffer.readVarInt();
+			int toInventoryNumber = packetByteBuffer.readVarInt();
+			int filterId = packetByteBuffer.readVarInt();
+			Item filter = filterId == 0 ? null : Item.byRawId(filterId - 1);
+
+			packetContext.getTaskQueue().execute(() -> {
+				if (packetContext.getPlayer().container instanceof BaseContainer && packetContext.getPlayer().container.syncId == syncId) {
+					BaseContainer container = (BaseContainer) packetContext.getPlayer().container;
+					container.onSequencedSlotAction(sequence, () -> container.onSlotTransfer(fromInventoryNumber, toInventoryNumber, filter));
+				}
+			});
+		});
+
+		ServerSidePacketRegistry.INSTANCE.register(QUERY_PACKET, (packetContext, packetByteBuffer) -> {
+			if (!acquire(packetContext, QUERY_PACKET)) return;
+
+			int syncId = packetByteBuffer.readInt();
+			int inventoryNumber = packetByteBuffer.readVarInt();
+			int revision = packetByteBuffer.readVarInt();
+			String search = packetByteBuffer.readString(MAXIMUM_QUERY_LENGTH);
+			InventoryQuery.Sort sort = packetByteBuffer.readEnumConstant(InventoryQuery.Sort.class);
+
+			packetContext.getTaskQueue().execute(() -> {
+				if (packetContext.getPlayer().container instanceof BaseContainer && packetContext.getPlayer().container.syncId == syncId) {
+					((BaseContainer) packetContext.getPlayer().container).onQuery(inventoryNumber, revision, search, sort);
+				}
+			});
+		});
+
+		ServerSidePacketRegistry.INSTANCE.register(QUERY_PAGE_REQUEST_PACKET, (packetContext, packetByteBuffer) -> {
+			if (!acquire(packetContext, QUERY_PAGE_REQUEST_PACKET)) return;
+
+			int syncId = packetByteBuffer.readInt();
+			int inventoryNumber = packetByteBuffer.readVarInt();
+			int revision = packetByteBuffer.readVarInt();
+			int page = packetByteBuffer.readVarInt();
+
+			packetContext.getTaskQueue().execute(() -> {
+				if (packetContext.getPlayer().container instanceof BaseContainer && packetContext.getPlayer().container.syncId == syncId) {
+					((BaseContainer) packetContext.getPlayer().container).onQueryPageRequest(inventoryNumber, revision, page);
+				}
+			});
+		});
+
 		ServerSidePacketRegistry.INSTANCE.register(SYNCED_WIDGET_PACKET, (packetContext, packetByteBuf) -> {
-			int widgetSyncId = packetByteBuf.readInt();
-			WNetworked.Event event = packetByteBuf.readEnumConstant(WNetworked.Event.class);
-			CompoundTag payload = packetByteBuf.readCompoundTag();
+			if (!acquire(packetContext, SYNCED_WIDGET_PACKET)) return;
+
+			int widgetSyncId = packetByteBuf.readVarInt();
+			EventPayload payload = EventPayload.read(packetByteBuf);
 			packetContext.getTaskQueue().execute(() -> {
 				if (packetContext.getPlayer().container instanceof BaseContainer) {
-					((BaseContainer) packetContext.getPlayer().container).onInterfaceEvent(widgetSyncId, event, payload);
+					((BaseContainer) packetContext.getPlayer().container).onInterfaceEvent(widgetSyncId, payload);
 				}
 			});
 		});
@@ -222,18 +704,163 @@ public class NetworkRegistry {
 
 					packetContext.getTaskQueue().execute(() -> {
 						if (packetContext.getPlayer().container instanceof BaseContainer && packetContext.getPlayer().container.syncId == syncId) {
-							BaseContainer container = (BaseContainer) packetContext.getPlayer().container;
+							((BaseContainer) packetContext.getPlayer().container).onSlotUpdate(inventoryNumber, new int[]{slotNumber}, new ItemStack[]{stack});
+						}
+					});
+				}
+		);
+
+		ClientSidePacketRegistry.INSTANCE.register(SLOT_BATCH_UPDATE_PACKET, (packetContext, packetByteBuffer) -> {
+			int syncId = packetByteBuffer.readInt();
+			int inventoryNumber = packetByteBuffer.readVarInt();
+			int size = packetByteBuffer.readVarInt();
+
+			int[] slotNumbers = new int[size];
+			ItemStack[] stacks = new ItemStack[size];
+
+			for (int i = 0; i < size; ++i) {
+				slotNumbers[i] = packetByteBuffer.readVarInt();
+				stacks[i] = ItemStack.fromTag(packetByteBuffer.readCompoundTag());
+			}
+
+			packetContext.getTaskQueue().execute(() -> {
+				if (packetContext.getPlayer().container instanceof BaseContainer && packetContext.getPlayer().container.syncId == syncId) {
+					((BaseContainer) packetContext.getPlayer().container).onSlotUpdate(inventoryNumber, slotNumbers, stacks);
+				}
+			});
+		});
+
+		ClientSidePacketRegistry.INSTANCE.register(SLOT_ACKNOWLEDGE_PACKET, (packetContext, packetByteBuffer) -> {
+			int syncId = packetByteBuffer.readInt();
+			int sequence = packetByteBuffer.readVarInt();
+			ItemStack cursorStack = ItemStack.fromTag(packetByteBuffer.readCompoundTag());
+			int size = packetByteBuffer.readVarInt();
+
+			int[] inventoryNumbers = new int[size];
+			int[] slotNumbers = new int[size];
+			ItemStack[] stacks = new ItemStack[size];
+
+			for (int i = 0; i < size; ++i) {
+				inventoryNumbers[i] = packetByteBuffer.readVarInt();
+				slotNumbers[i] = packetByteBuffer.readVarInt();
+				stacks[i] = ItemStack.fromTag(packetByteBuffer.readCompoundTag());
+			}
+
+			packetContext.getTaskQueue().execute(() -> {
+				if (packetContext.getPlayer().container instanceof BaseContainer && packetContext.getPlayer().container.syncId == syncId) {
+					((BaseContainer) packetContext.getPlayer().container).onSlotAcknowledge(sequence, inventoryNumbers, slotNumbers, stacks, cursorStack);
+				}
+			});
+		});
+
+		ClientSidePacketRegistry.INSTANCE.register(QUERY_PAGE_PACKET, (packetContext, packetByteBuffer) -> {
+			int syncId = packetByteBuffer.readInt();
+			int inventoryNumber = packetByteBuffer.readVarInt();
+			int revision = packetByteBuffer.readVarInt();
+			int size = packetByteBuffer.readVarInt();
+			int page = packetByteBuffer.readVarInt();
+			int[] slotNumbers = new int[Math.min(packetByteBuffer.readVarInt(), InventoryQuery.PAGE_SIZE)];
+
+			for (int i = 0; i < slotNumbers.length; ++i) {
+				slotNumbers[i] = packetByteBuffer.readVarInt();
+			}
+
+			packetContext.getTaskQueue().execute(() -> {
+				if (packetContext.getPlayer().container instanceof BaseContainer && packetContext.getPlayer().container.syncId == syncId) {
+					((BaseContainer) packetContext.getPlayer().container).onQueryPage(inventoryNumber, revision, size, page, slotNumbers);
+				}
+			});
+		});
+
+		ClientSidePacketRegistry.INSTANCE.register(INVENTORY_SNAPSHOT_PACKET, (packetContext, packetByteBuffer) -> {
+			int syncId = packetByteBuffer.readInt();
+
+			Map<Integer, Map<Integer, ItemStack>> snapshot;
+
+			try {
+				snapshot = readInventorySnapshot(packetByteBuffer);
+			} catch (DataFormatException exception) {
+				Spinnery.LOGGER.log(Level.ERROR, "Failed to read inventory snapshot!", exception);
+				return;
+			}
+
+			packetContext.getTaskQueue().execute(() -> {
+				if (packetContext.getPlayer().container instanceof BaseContainer && packetContext.getPlayer().container.syncId == syncId) {
+					BaseContainer container = (BaseContainer) packetContext.getPlayer().container;
+
+					for (Map.Entry<Integer, Map<Integer, ItemStack>> inventory : snapshot.entrySet()) {
+						Inventory linkedInventory = container.getInventory(inventory.getKey());
 
-							container.getInventory(inventoryNumber).setInvStack(slotNumber, stack);
+						if (linkedInventory == null) continue;
 
-							WSlot slot = container.getInterface().getSlot(inventoryNumber, slotNumber);
+						Map<Integer, WSlot> slots = container.getInterface().getSlots(inventory.getKey());
+
+						for (Map.Entry<Integer, ItemStack> entry : inventory.getValue().entrySet()) {
+							if (entry.getKey() < 0 || entry.getKey() >= linkedInventory.getInvSize()) continue;
+
+							linkedInventory.setInvStack(entry.getKey(), entry.getValue());
+
+							WSlot slot = slots.get(entry.getKey());
 
 							if (slot != null) {
-								slot.setStack(container.getInventory(inventoryNumber).getInvStack(slotNumber));
+								slot.setStack(entry.getValue());
 							}
 						}
-					});
+
+						container.getSlotIndex().markStale(inventory.getKey(), TrackedInventory.ALL);
+					}
 				}
-		);
+			});
+		});
+
+		ClientSidePacketRegistry.INSTANCE.register(WIDGET_PROPERTIES_PACKET, (packetContext, packetByteBuffer) -> {
+			PacketByteBuf buffer = new PacketByteBuf(packetByteBuffer.copy());
+
+			packetContext.getTaskQueue().execute(() -> {
+				try {
+					int syncId = buffer.readInt();
+
+					if (!(packetContext.getPlayer().container instanceof BaseContainer) || packetContext.getPlayer().container.syncId != syncId) {
+						return;
+					}
+
+					Map<Integer, WSynced> widgets = new HashMap<>();
+
+					for (WAbstractWidget widget : ((BaseContainer) packetContext.getPlayer().container).getInterface().getAllWidgets()) {
+						if (widget instanceof WSynced) {
+							widgets.put(((WSynced) widget).getSyncId(), (WSynced) widget);
+						}
+					}
+
+					int count = buffer.readVarInt();
+
+					for (int i = 0; i < count; ++i) {
+						int widgetSyncId = buffer.readVarInt();
+						int length = buffer.readVarInt();
+						int end = buffer.readerIndex() + length;
+
+						WSynced widget = widgets.get(widgetSyncId);
+
+						if (widget != null) {
+							List<SyncedProperty<?>> properties = widget.getSyncedProperties();
+
+							int dirty = buffer.readVarInt();
+
+							for (int j = 0; j < dirty; ++j) {
+								int index = buffer.readVarInt();
+
+								if (index < 0 || index >= properties.size()) break;
+
+								properties.get(index).read(buffer);
+							}
+						}
+
+						buffer.readerIndex(end);
+					}
+				} finally {
+					buffer.release();
+				}
+			});
+		});
 	}
 }
@@ -1,14 +1,105 @@
 package spinnery.common.utility;
 
 import net.minecraft.inventory.Inventory;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.Tag;
 import org.apache.logging.log4j.Level;
 import spinnery.Spinnery;
 import spinnery.common.inventory.BaseInventory;
+import spinnery.common.inventory.TrackedInventory;
+
+import java.util.Objects;
 
 public class InventoryUtilities {
+	/**
+	 * Retrieves the Item held in a slot, without materializing an ItemStack
+	 * if the inventory is a TrackedInventory.
+	 *
+	 * @param inventory Inventory to be queried.
+	 * @param slot      Slot to be queried.
+	 * @return The Item held in the slot; air if empty.
+	 */
+	public static Item getItem(Inventory inventory, int slot) {
+		if (inventory instanceof TrackedInventory) {
+			return ((TrackedInventory) inventory).getItem(slot);
+		}
+
+		return inventory.getInvStack(slot).getItem();
+	}
+
+	/**
+	 * Retrieves the amount of Items held in a slot, without materializing
+	 * an ItemStack if the inventory is a TrackedInventory.
+	 *
+	 * @param inventory Inventory to be queried.
+	 * @param slot      Slot to be queried.
+	 * @return The amount of Items held in the slot.
+	 */
+	public static long getCount(Inventory inventory, int slot) {
+		if (inventory instanceof TrackedInventory) {
+			return ((TrackedInventory) inventory).getCount(slot);
+		}
+
+		ItemStack stack = inventory.getInvStack(slot);
+		return stack.isEmpty() ? 0 : stack.getCount();
+	}
+
+	/**
+	 * Retrieves the Tag held in a slot, without materializing an ItemStack
+	 * if the inventory is a TrackedInventory. The Tag must not be modified.
+	 *
+	 * @param inventory Inventory to be queried.
+	 * @param slot      Slot to be queried.
+	 * @return The Tag; null if there is none.
+	 */
+	public static CompoundTag getTag(Inventory inventory, int slot) {
+		if (inventory instanceof TrackedInventory) {
+			return ((TrackedInventory) inventory).getTag(slot);
+		}
+
+		return inventory.getInvStack(slot).getTag();
+	}
+
+	/**
+	 * Retrieves a copy of the ItemStack held in a slot, which the inventory
+	 * does not keep a reference to.
+	 *
+	 * @param inventory Inventory to be queried.
+	 * @param slot      Slot to be queried.
+	 * @return The copy.
+	 */
+	public static ItemStack copyStack(Inventory inventory, int slot) {
+		if (inventory instanceof TrackedInventory) {
+			return ((TrackedInventory) inventory).copyInvStack(slot);
+		}
+
+		return inventory.getInvStack(slot).copy();
+	}
+
+	/**
+	 * Asserts whether a slot holds an ItemStack equal, in Item, count
+	 * and Tag, to another, without materializing one if the inventory
+	 * is a TrackedInventory.
+	 *
+	 * @param inventory Inventory to be queried.
+	 * @param slot      Slot to be queried.
+	 * @param stack     ItemStack to be compared against.
+	 * @return True if equal; false if not.
+	 */
+	public static boolean isEqual(Inventory inventory, int slot, ItemStack stack) {
+		long count = getCount(inventory, slot);
+
+		if (count <= 0 || stack.isEmpty()) {
+			return count <= 0 && stack.isEmpty();
+		}
+
+		return getItem(inventory, slot) == stack.getItem()
+				&& Math.min(count, Integer.MAX_VALUE) == stack.getCount()
+				&& Objects.equals(getTag(inventory, slot), stack.getTag());
+	}
+
 	/**
 	 * Write inventory contents to a CompoundTag with support for ItemStacks greater than 64 in size.
 	 *
@@ -0,0 +1,211 @@
+package spinnery.common.utility;
+
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.util.Identifier;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A PacketLimiter is a per-player, per-channel
+ * token bucket rate limiter, used to drop
+ * flooded packets on the network thread before
+ * they are queued on the server thread.
+ * <p>
+ * Each channel has a budget, consisting of a
+ * burst capacity and a refill rate in packets
+ * per second. Channels without a budget are
+ * not limited.
+ */
+public class PacketLimiter {
+	protected final Map<Identifier, Budget> budgets = new ConcurrentHashMap<>();
+	protected final Map<Identifier, AtomicLong> rejected = new ConcurrentHashMap<>();
+	protected final Map<Object, PlayerState> states = Collections.synchronizedMap(new WeakHashMap<>());
+	protected int kickThreshold = 0;
+
+	/**
+	 * Sets the budget of a channel.
+	 *
+	 * @param channel         Channel to be limited.
+	 * @param capacity        Maximum amount of packets which may be received in a burst.
+	 * @param refillPerSecond Amount of packets restored to the budget per second.
+	 */
+	public PacketLimiter setBudget(Identifier channel, int capacity, double refillPerSecond) {
+		budgets.put(channel, new Budget(capacity, refillPerSecond));
+		return this;
+	}
+
+	/**
+	 * Removes the budget of a channel, which will no longer be limited.
+	 *
+	 * @param channel Channel to no longer be limited.
+	 */
+	public PacketLimiter removeBudget(Identifier channel) {
+		budgets.remove(channel);
+		return this;
+	}
+
+	/**
+	 * Retrieves the amount of rejected packets a player
+	 * may send within one second before being kicked.
+	 *
+	 * @return The kick threshold; zero if kicking is disabled.
+	 */
+	public int getKickThreshold() {
+		return kickThreshold;
+	}
+
+	/**
+	 * Sets the amount of rejected packets a player
+	 * may send within one second before being kicked.
+	 *
+	 * @param kickThreshold The kick threshold; zero to disable kicking.
+	 */
+	public PacketLimiter setKickThreshold(int kickThreshold) {
+		this.kickThreshold = kickThreshold;
+		return this;
+	}
+
+	/**
+	 * Retrieves the amount of packets rejected on a channel since startup.
+	 *
+	 * @param channel Channel to be queried.
+	 * @return The amount of packets rejected on the channel.
+	 */
+	public long getRejected(Identifier channel) {
+		AtomicLong counter = rejected.get(channel);
+		return counter == null ? 0 : counter.get();
+	}
+
+	/**
+	 * Retrieves the amount of packets rejected on every channel since startup.
+	 *
+	 * @return Map of rejected packet amounts, whose key is the channel.
+	 */
+	public Map<Identifier, Long> getRejected() {
+		Map<Identifier, Long> snapshot = new HashMap<>();
+		rejected.forEach((channel, counter) -> snapshot.put(channel, counter.get()));
+		return snapshot;
+	}
+
+	/**
+	 * Attempts to consume one packet from the budget of a player in a channel.
+	 * Safe to be called from the network thread. A player is only ever
+	 * kicked once; after that, their packets on limited channels are
+	 * rejected until they disconnect.
+	 *
+	 * @param player  Player who sent the packet.
+	 * @param channel Channel the packet was received in.
+	 * @return The Result of the attempt.
+	 */
+	public Result acquire(PlayerEntity player, Identifier channel) {
+		return acquire(player, channel, System.nanoTime());
+	}
+
+	/**
+	 * Attempts to consume one packet from the budget of a connection in a channel.
+	 *
+	 * @param connection Key of the connection, kept weakly.
+	 * @param channel    Channel the packet was received in.
+	 * @param now        Current time, in nanoseconds.
+	 * @return The Result of the attempt.
+	 */
+	protected Result acquire(Object connection, Identifier channel, long now) {
+		Budget budget = budgets.get(channel);
+
+		if (budget == null) {
+			return Result.ACCEPT;
+		}
+
+		PlayerState state;
+
+		synchronized (states) {
+			state = states.computeIfAbsent(connection, key -> new PlayerState(now));
+		}
+
+		synchronized (state) {
+			if (state.isKicking) {
+				return Result.REJECT;
+			}
+
+			Bucket bucket = state.buckets.computeIfAbsent(channel, key -> new Bucket(budget.capacity, now));
+
+			if (bucket.tryConsume(budget, now)) {
+				return Result.ACCEPT;
+			}
+
+			rejected.computeIfAbsent(channel, key -> new AtomicLong()).incrementAndGet();
+
+			if (now - state.windowStart > 1_000_000_000L) {
+				state.windowStart = now;
+				state.violations = 0;
+			}
+
+			++state.violations;
+
+			if (kickThreshold > 0 && state.violations > kickThreshold) {
+				state.isKicking = true;
+				return Result.KICK;
+			}
+
+			return Result.REJECT;
+		}
+	}
+
+	public enum Result {
+		ACCEPT,
+		REJECT,
+		KICK;
+
+		public boolean isAccepted() {
+			return this == ACCEPT;
+		}
+	}
+
+	protected static class Budget {
+		protected final int capacity;
+		protected final double refillPerNano;
+
+		protected Budget(int capacity, double refillPerSecond) {
+			this.capacity = capacity;
+			this.refillPerNano = refillPerSecond / 1_000_000_000D;
+		}
+	}
+
+	protected static class Bucket {
+		protected double tokens;
+		protected long lastRefill;
+
+		protected Bucket(double tokens, long lastRefill) {
+			this.tokens = tokens;
+			this.lastRefill = lastRefill;
+		}
+
+		protected boolean tryConsume(Budget budget, long now) {
+			tokens = Math.min(budget.capacity, tokens + (now - lastRefill) * budget.refillPerNano);
+			lastRefill = now;
+
+			if (tokens >= 1) {
+				--tokens;
+				return true;
+			}
+
+			return false;
+		}
+	}
+
+	protected static class PlayerState {
+		protected final Map<Identifier, Bucket> buckets = new HashMap<>();
+		protected long windowStart;
+		protected int violations = 0;
+		protected boolean isKicking = false;
+
+		protected PlayerState(long windowStart) {
+			this.windowStart = windowStart;
+		}
+	}
+}
@@ -5,6 +5,7 @@ import net.fabricmc.api.Environment;
 import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
 import net.minecraft.resource.ResourceManager;
 import net.minecraft.util.Identifier;
+import spinnery.client.render.TextRenderer;
 import spinnery.common.configuration.registry.ConfigurationRegistry;
 import spinnery.common.registry.ThemeResourceRegistry;
 
@@ -23,6 +24,8 @@ public class ResourceListener implements SimpleSynchronousResourceReloadListener
 		ThemeResourceRegistry.load(resourceManager);
 
 		ConfigurationRegistry.load(resourceManager);
+
+		TextRenderer.invalidateAdvances();
 	}
 
 	@Override
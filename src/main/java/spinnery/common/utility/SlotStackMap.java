@@ -0,0 +1,235 @@
+package spinnery.common.utility;
+
+import net.minecraft.item.ItemStack;
+
+import java.util.Arrays;
+
+/**
+ * A SlotStackMap maps slots, identified by
+ * their inventory number and slot number, to
+ * ItemStacks. Keys are packed into a single
+ * long and stored in an open-addressing table,
+ * such that lookups neither box nor allocate.
+ */
+public class SlotStackMap {
+	protected static final int MINIMUM_CAPACITY = 16;
+
+	protected long[] keys;
+	protected ItemStack[] values;
+	protected int size = 0;
+	protected int mask;
+
+	public SlotStackMap() {
+		this(MINIMUM_CAPACITY);
+	}
+
+	public SlotStackMap(int capacity) {
+		int tableSize = Math.max(MINIMUM_CAPACITY, Integer.highestOneBit(Math.max(1, capacity * 2 - 1)) << 1);
+		this.keys = new long[tableSize];
+		this.values = new ItemStack[tableSize];
+		this.mask = tableSize - 1;
+	}
+
+	/**
+	 * Packs an inventory number and a slot number into a single key.
+	 *
+	 * @param inventoryNumber Inventory number of the slot.
+	 * @param slotNumber      Number of the slot.
+	 * @return The packed key.
+	 */
+	public static long pack(int inventoryNumber, int slotNumber) {
+		return ((long) inventoryNumber << 32) | (slotNumber & 0xFFFFFFFFL);
+	}
+
+	protected int indexOf(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	/**
+	 * Retrieves the ItemStack of a slot.
+	 *
+	 * @param inventoryNumber Inventory number of the slot.
+	 * @param slotNumber      Number of the slot.
+	 * @return The ItemStack of the slot; null if there is none.
+	 */
+	public ItemStack get(int inventoryNumber, int slotNumber) {
+		long key = pack(inventoryNumber, slotNumber);
+
+		for (int index = indexOf(key); values[index] != null; index = (index + 1) & mask) {
+			if (keys[index] == key) {
+				return values[index];
+			}
+		}
+
+		return null;
+	}
+
+	public boolean containsKey(int inventoryNumber, int slotNumber) {
+		return get(inventoryNumber, slotNumber) != null;
+	}
+
+	public ItemStack getOrDefault(int inventoryNumber, int slotNumber, ItemStack fallback) {
+		ItemStack stack = get(inventoryNumber, slotNumber);
+		return stack == null ? fallback : stack;
+	}
+
+	/**
+	 * Sets the ItemStack of a slot.
+	 *
+	 * @param inventoryNumber Inventory number of the slot.
+	 * @param slotNumber      Number of the slot.
+	 * @param stack           ItemStack of the slot; null to remove it.
+	 * @return The previous ItemStack of the slot; null if there was none.
+	 */
+	public ItemStack put(int inventoryNumber, int slotNumber, ItemStack stack) {
+		if (stack == null) {
+			return remove(inventoryNumber, slotNumber);
+		}
+
+		long key = pack(inventoryNumber, slotNumber);
+
+		int index = indexOf(key);
+
+		for (; values[index] != null; index = (index + 1) & mask) {
+			if (keys[index] == key) {
+				ItemStack previous = values[index];
+				values[index] = stack;
+				return previous;
+			}
+		}
+
+		keys[index] = key;
+		values[index] = stack;
+
+		if (++size * 2 > values.length) {
+			resize(values.length * 2);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Removes the ItemStack of a slot.
+	 *
+	 * @param inventoryNumber Inventory number of the slot.
+	 * @param slotNumber      Number of the slot.
+	 * @return The removed ItemStack; null if there was none.
+	 */
+	public ItemStack remove(int inventoryNumber, int slotNumber) {
+		long key = pack(inventoryNumber, slotNumber);
+
+		for (int index = indexOf(key); values[index] != null; index = (index + 1) & mask) {
+			if (keys[index] == key) {
+				ItemStack previous = values[index];
+				shiftBack(index);
+				--size;
+				return previous;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Closes the gap left by a removed entry, moving back the entries
+	 * after it which would otherwise become unreachable.
+	 *
+	 * @param gap Index of the removed entry.
+	 */
+	protected void shiftBack(int gap) {
+		int index = gap;
+
+		while (true) {
+			index = (index + 1) & mask;
+
+			if (values[index] == null) {
+				break;
+			}
+
+			int home = indexOf(keys[index]);
+
+			if (((index - home) & mask) >= ((index - gap) & mask)) {
+				keys[gap] = keys[index];
+				values[gap] = values[index];
+				gap = index;
+			}
+		}
+
+		values[gap] = null;
+	}
+
+	protected void resize(int tableSize) {
+		long[] previousKeys = keys;
+		ItemStack[] previousValues = values;
+
+		keys = new long[tableSize];
+		values = new ItemStack[tableSize];
+		mask = tableSize - 1;
+
+		for (int i = 0; i < previousValues.length; ++i) {
+			if (previousValues[i] != null) {
+				int index = indexOf(previousKeys[i]);
+
+				while (values[index] != null) {
+					index = (index + 1) & mask;
+				}
+
+				keys[index] = previousKeys[i];
+				values[index] = previousValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Visits every slot of this map, in no particular order.
+	 * The map must not be changed while visiting it.
+	 *
+	 * @param visitor Visitor of the slots.
+	 */
+	public void forEach(Visitor visitor) {
+		for (int index = 0; index < values.length; ++index) {
+			if (values[index] != null) {
+				visitor.visit((int) (keys[index] >>> 32), (int) keys[index], values[index]);
+			}
+		}
+	}
+
+	/**
+	 * Replaces the ItemStack of every slot of this map, in no particular order.
+	 *
+	 * @param mapper Function returning the new ItemStack of a slot; never null.
+	 */
+	public void replaceAll(Mapper mapper) {
+		for (int index = 0; index < values.length; ++index) {
+			if (values[index] != null) {
+				values[index] = mapper.map((int) (keys[index] >>> 32), (int) keys[index], values[index]);
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		if (size > 0) {
+			Arrays.fill(values, null);
+			size = 0;
+		}
+	}
+
+	@FunctionalInterface
+	public interface Visitor {
+		void visit(int inventoryNumber, int slotNumber, ItemStack stack);
+	}
+
+	@FunctionalInterface
+	public interface Mapper {
+		ItemStack map(int inventoryNumber, int slotNumber, ItemStack stack);
+	}
+}
@@ -91,4 +91,16 @@ public class StackUtilities {
 	public static boolean equalItemAndTag(ItemStack stackA, ItemStack stackB) {
 		return ItemStack.areItemsEqual(stackA, stackB) && stackA.getTag() == stackB.getTag();
 	}
+
+	/**
+	 * Asserts whether two ItemStacks are equal in Item, Tag and count.
+	 *
+	 * @param stackA Stack one.
+	 * @param stackB Stack two.
+	 * @return True if one and two match in Item, Tag and count; False if not.
+	 */
+	public static boolean equalItemTagAndCount(ItemStack stackA, ItemStack stackB) {
+		if (stackA.isEmpty() && stackB.isEmpty()) return true;
+		return stackA.getItem() == stackB.getItem() && stackA.getCount() == stackB.getCount() && ItemStack.areTagsEqual(stackA, stackB);
+	}
 }
@@ -2,15 +2,70 @@ package spinnery.widget;
 
 import net.minecraft.util.Identifier;
 import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.commons.lang3.mutable.MutableObject;
+import spinnery.widget.api.SyncedProperty;
+import spinnery.widget.api.WSynced;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * A WAbstractBar provides the basics necessary for a
  * general progress-bar-like widget, like an {@link WVerticalBar}
  * and {@link WHorizontalBar}.
+ * <p>
+ * Once given a synchronization ID, its limit and
+ * progress are synchronized from the server to
+ * the client.
  */
-public abstract class WAbstractBar extends WAbstractWidget {
+public abstract class WAbstractBar extends WAbstractWidget implements WSynced {
 	protected Mutable<Number> limit;
 	protected Mutable<Number> progress;
+	protected int syncId;
+	protected List<SyncedProperty<?>> syncedProperties = Collections.emptyList();
+
+	/**
+	 * Retrieves the synchronization ID of this bar.
+	 *
+	 * @return The synchronization ID of this bar.
+	 */
+	@Override
+	public int getSyncId() {
+		return syncId;
+	}
+
+	/**
+	 * Sets the synchronization ID of this bar, enabling
+	 * the synchronization of its limit and progress.
+	 *
+	 * @param syncId The synchronization ID to be used by this bar.
+	 */
+	public <W extends WAbstractBar> W setSyncId(int syncId) {
+		this.syncId = syncId;
+		this.syncedProperties = Arrays.asList(
+				SyncedProperty.of(SyncedProperty.Codec.DOUBLE, () -> limit == null ? 0D : limit.getValue().doubleValue(), value -> {
+					if (limit == null) limit = new MutableObject<>();
+					limit.setValue(value);
+				}),
+				SyncedProperty.of(SyncedProperty.Codec.DOUBLE, () -> progress == null ? 0D : progress.getValue().doubleValue(), value -> {
+					if (progress == null) progress = new MutableObject<>();
+					progress.setValue(value);
+				})
+		);
+		return (W) this;
+	}
+
+	/**
+	 * Retrieves the synchronized properties of this bar;
+	 * empty if no synchronization ID has been set.
+	 *
+	 * @return The synchronized properties of this bar.
+	 */
+	@Override
+	public List<SyncedProperty<?>> getSyncedProperties() {
+		return syncedProperties;
+	}
 
 	/**
 	 * Retrieves the limit of this bar as a Mutable of a Number.
@@ -4,18 +4,25 @@ import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.nbt.CompoundTag;
 import spinnery.common.registry.NetworkRegistry;
+import spinnery.widget.api.SyncedProperty;
 import spinnery.widget.api.WNetworked;
+import spinnery.widget.api.WSynced;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.BiConsumer;
 
 /**
  * A WAbstractNetworkedWidget is a default implementation of the
  * {@link WNetworked} interface, providing utility methods for
- * its usage.
+ * its usage. It also implements {@link WSynced},
+ * allowing server-driven properties to be added
+ * through {@link #addSyncedProperty(SyncedProperty)}.
  */
 @SuppressWarnings("unchecked")
-public abstract class WAbstractNetworkedWidget extends WAbstractWidget implements WNetworked {
+public abstract class WAbstractNetworkedWidget extends WAbstractWidget implements WNetworked, WSynced {
 	protected BiConsumer<Event, CompoundTag> consumerOnInterfaceEvent;
+	protected List<SyncedProperty<?>> syncedProperties = new ArrayList<>();
 	protected int syncId;
 
 	/**
@@ -79,4 +86,25 @@ public abstract class WAbstractNetworkedWidget extends WAbstractWidget implement
 	public void sendCustomEvent(CompoundTag payload) {
 		NetworkRegistry.createCustomInterfaceEventPacket(this, payload);
 	}
+
+	/**
+	 * Retrieves the properties of this widget synchronized from the server to the client.
+	 *
+	 * @return The synchronized properties of this widget.
+	 */
+	@Override
+	public List<SyncedProperty<?>> getSyncedProperties() {
+		return syncedProperties;
+	}
+
+	/**
+	 * Adds a property to be synchronized from the server to the client. Properties must
+	 * be added in the same order on both sides.
+	 *
+	 * @param property The property to be synchronized.
+	 */
+	public <W extends WAbstractNetworkedWidget> W addSyncedProperty(SyncedProperty<?> property) {
+		this.syncedProperties.add(property);
+		return (W) this;
+	}
 }
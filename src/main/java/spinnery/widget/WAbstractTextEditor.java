@@ -11,6 +11,7 @@ import org.lwjgl.glfw.GLFW;
 import spinnery.client.render.BaseRenderer;
 import spinnery.client.utility.ScissorArea;
 import spinnery.client.render.TextRenderer;
+import spinnery.client.utility.TextDocument;
 import spinnery.widget.api.*;
 
 import java.util.*;
@@ -31,11 +32,22 @@ import java.util.*;
 @SuppressWarnings("unchecked")
 @Environment(EnvType.CLIENT)
 public abstract class WAbstractTextEditor extends WAbstractWidget implements WPadded, WContextLock {
-	protected final List<String> lines = new ArrayList<>();
+	protected final TextDocument document = new TextDocument();
+	protected final List<String> lines = new AbstractList<String>() {
+		@Override
+		public String get(int index) {
+			return getLine(index);
+		}
+
+		@Override
+		public int size() {
+			return getLineCount();
+		}
+	};
+	protected final TextRenderer.LineCache lineCache = new TextRenderer.LineCache(this::getLine);
 	protected final Cursor cursor = new Cursor(0, 0);
 	protected final Pair<Cursor, Cursor> selection = new Pair<>(new Cursor(-1, -1), new Cursor(-1, -1));
 	protected final Cursor mouseClick = new Cursor(0, 0);
-	protected String text = "";
 	protected double scale = 1.0;
 	protected boolean editable = true;
 	protected boolean active = false;
@@ -87,8 +99,8 @@ public abstract class WAbstractTextEditor extends WAbstractWidget implements WPa
 		float offsetMouseX = -xOffset + mouseX;
 		for (int i = 0; i < getVisibleLines(); i++) {
 			if (mouseY >= innerPos.getY() + (cH + 2) * i && mouseY <= innerPos.getY() + (cH + 2) * i + cH) {
-				if (lineOffset + i > lines.size() - 1) {
-					y = lines.size() - 1;
+				if (lineOffset + i > getLineCount() - 1) {
+					y = getLineCount() - 1;
 					if (offsetMouseX >= innerPos.getX() + getLineWidth(y)) {
 						x = getLineLength(y);
 					}
@@ -101,48 +113,48 @@ public abstract class WAbstractTextEditor extends WAbstractWidget implements WPa
 				}
 			}
 		}
-		for (int j = 0; j < getLineLength(y); j++) {
-			if (offsetMouseX + 2 >= innerPos.getX() + getXOffset(y, j) && offsetMouseX + 2 <= innerPos.getX() + getXOffset(y, j + 1)) {
-				x = j;
-				break;
+		if (y >= 0) {
+			int index = lineCache.getIndex(y, (float) ((offsetMouseX + 2 - innerPos.getX()) / scale));
+			if (index >= 0) {
+				x = index;
 			}
 		}
 		return new Cursor(x, y);
 	}
 
 	protected int getLineWidth(int lineIndex) {
-		if (lineIndex > lines.size() - 1) {
+		if (lineIndex > getLineCount() - 1) {
 			return 0;
 		}
-		return (int) (TextRenderer.width(lines.get(lineIndex)) * scale);
+		return (int) (lineCache.getWidth(lineIndex) * scale);
 	}
 
 	protected String getTextSegment(Cursor start, Cursor end) {
 		int startIndex = getStringIndex(start);
 		int endIndex = getStringIndex(end);
-		if (startIndex < 0 || startIndex > text.length() || endIndex < 0 || endIndex > text.length())
+		if (startIndex < 0 || startIndex > document.length() || endIndex < 0 || endIndex > document.length())
 			return "";
-		return text.substring(startIndex, endIndex);
+		return document.substring(startIndex, endIndex);
 	}
 
 	protected int getStringIndex(Cursor cursor) {
-		int i = 0;
-		for (int y = 0; y < cursor.y; y++) {
-			i += getNewlinedLineLength(y);
-		}
-		i += cursor.x;
-		return i;
+		return document.getLineStart(cursor.y) + cursor.x;
 	}
 
+	/**
+	 * Retrieves the text of this editor, which is built
+	 * from its document, and cached until it next changes.
+	 *
+	 * @return The text of this editor.
+	 */
 	public String getText() {
-		return text;
+		return document.toString();
 	}
 
 	@SuppressWarnings("unchecked")
 	public <W extends WAbstractTextEditor> W setText(String text) {
-		lines.clear();
-		this.text = text;
-		lines.addAll(Arrays.asList(text.split("\n", -1)));
+		document.setText(text);
+		onTextChanged();
 		return (W) this;
 	}
 
@@ -150,29 +162,67 @@ public abstract class WAbstractTextEditor extends WAbstractWidget implements WPa
 		return setText(text.asFormattedString());
 	}
 
+	/**
+	 * Retrieves the lines of this editor, as a read-only view
+	 * which retrieves each line when it is accessed. Modifying
+	 * it throws an UnsupportedOperationException; lines are
+	 * changed through {@link #setText(String)} instead.
+	 *
+	 * @return The lines of this editor.
+	 */
 	public List<String> getLines() {
 		return lines;
 	}
 
+	public int getLineCount() {
+		return document.getLineCount();
+	}
+
 	public String getLine(int index) {
-		if (index < 0 || index > lines.size() - 1) return "";
-		return lines.get(index);
+		if (index < 0 || index > getLineCount() - 1) return "";
+		return document.getLine(index);
 	}
 
 	protected void insertText(String insert) {
-		int cursorIndex = getStringIndex(cursor);
-		setText(text.substring(0, cursorIndex) + insert + text.substring(cursorIndex));
+		int index = getStringIndex(cursor);
+		int line = document.getLineAt(index);
+		int lineCount = document.getLineCount();
+		document.insert(index, insert);
+		onLinesChanged(line, 1, 1 + document.getLineCount() - lineCount);
 	}
 
 	protected String deleteText(Cursor start, Cursor end) {
 		int startIndex = getStringIndex(start);
 		int endIndex = getStringIndex(end);
-		if (endIndex == 0 || startIndex > text.length() || endIndex > text.length()) return "";
-		String deleted = text.substring(startIndex, endIndex);
-		setText(text.substring(0, startIndex) + text.substring(endIndex));
+		if (endIndex == 0 || startIndex > document.length() || endIndex > document.length()) return "";
+		int line = document.getLineAt(startIndex);
+		int lineCount = document.getLineCount();
+		String deleted = document.delete(startIndex, endIndex);
+		onLinesChanged(line, 1 + lineCount - document.getLineCount(), 1);
 		return deleted;
 	}
 
+	/**
+	 * Method called after the text of this editor changed,
+	 * invalidating the cached widths of its lines.
+	 */
+	protected void onTextChanged() {
+		lineCache.invalidate();
+	}
+
+	/**
+	 * Method called after an edit replaced a range of lines
+	 * of this editor, which by default is handled as a change
+	 * of the whole text.
+	 *
+	 * @param line    Index of the first line replaced.
+	 * @param removed Amount of lines the edit replaced.
+	 * @param added   Amount of lines which replaced them.
+	 */
+	protected void onLinesChanged(int line, int removed, int added) {
+		onTextChanged();
+	}
+
 	@Override
 	public void tick() {
 		if (cursorTick > 0) {
@@ -196,7 +246,7 @@ public abstract class WAbstractTextEditor extends WAbstractWidget implements WPa
 
 	@Override
 	public void onCharTyped(char character, int keyCode) {
-		if (filter == null || filter.accepts(String.valueOf(character), text)) {
+		if (filter == null || filter.accepts(String.valueOf(character), this::getText)) {
 			if (active) {
 				if (hasSelection()) {
 					cursor.assign(selection.getLeft());
@@ -279,7 +329,7 @@ public abstract class WAbstractTextEditor extends WAbstractWidget implements WPa
 	@Override
 	public void onMouseScrolled(float mouseX, float mouseY, double deltaY) {
 		int cH = getTextHeight();
-		int textHeight = (lines.size() - 1) * cH;
+		int textHeight = (getLineCount() - 1) * cH;
 		if (textHeight <= getInnerSize().getHeight()) return;
 		yOffset += deltaY * cH;
 		if (yOffset > 0) yOffset = 0;
@@ -355,7 +405,7 @@ public abstract class WAbstractTextEditor extends WAbstractWidget implements WPa
 			case GLFW.GLFW_KEY_A:
 				if (Screen.hasControlDown()) {
 					selection.getLeft().assign(new Cursor(0, 0));
-					selection.getRight().assign(new Cursor(getLineLength(lines.size() - 1), lines.size() - 1));
+					selection.getRight().assign(new Cursor(getLineLength(getLineCount() - 1), getLineCount() - 1));
 					cursor.assign(selection.getRight());
 					onCursorMove();
 				}
@@ -529,7 +579,7 @@ public abstract class WAbstractTextEditor extends WAbstractWidget implements WPa
 						}
 					}
 				}
-				if (Screen.hasControlDown()) cursor.y = lines.size() - 1;
+				if (Screen.hasControlDown()) cursor.y = getLineCount() - 1;
 				cursor.x = getLineLength(cursor.y);
 				if (Screen.hasShiftDown()) {
 					selection.getRight().assign(cursor);
@@ -549,7 +599,7 @@ public abstract class WAbstractTextEditor extends WAbstractWidget implements WPa
 						}
 					}
 				}
-				for (int i = 0; i < Math.min(lines.size() - 1, getVisibleLines()); i++) {
+				for (int i = 0; i < Math.min(getLineCount() - 1, getVisibleLines()); i++) {
 					cursor.up();
 				}
 				if (Screen.hasShiftDown()) {
@@ -570,7 +620,7 @@ public abstract class WAbstractTextEditor extends WAbstractWidget implements WPa
 						}
 					}
 				}
-				for (int i = 0; i < Math.min(lines.size() - 1, getVisibleLines()); i++) {
+				for (int i = 0; i < Math.min(getLineCount() - 1, getVisibleLines()); i++) {
 					cursor.down();
 				}
 				if (Screen.hasShiftDown()) {
@@ -649,9 +699,9 @@ public abstract class WAbstractTextEditor extends WAbstractWidget implements WPa
 		RenderSystem.pushMatrix();
 		RenderSystem.translatef(xOffset, yRenderOffset, 0f);
 		for (int i = (int) lineOffset; i < lineOffset + getVisibleLines(); i++) {
-			if (i < 0 || !isLineVisible(i) || i > lines.size() - 1) continue;
+			if (i < 0 || !isLineVisible(i) || i > getLineCount() - 1) continue;
 			float adjustedI = i - lineOffset;
-			String line = lines.get(i);
+			String line = getLine(i);
 			TextRenderer.pass().text(line).at(innerX, innerY + (cH + 2) * adjustedI, z).scale(scale)
 					.shadow(getStyle().asBoolean("text.shadow")).shadowColor(getStyle().asColor("text.shadow_color"))
 					.color(getStyle().asColor("text.color"))
@@ -674,7 +724,7 @@ public abstract class WAbstractTextEditor extends WAbstractWidget implements WPa
 	}
 
 	public boolean isEmpty() {
-		return text.isEmpty();
+		return document.isEmpty();
 	}
 
 	protected float getLineOffset() {
@@ -682,10 +732,8 @@ public abstract class WAbstractTextEditor extends WAbstractWidget implements WPa
 	}
 
 	protected float getXOffset(int lineIndex, int charIndex) {
-		if (charIndex < 0 || lines.isEmpty() || lineIndex > lines.size() - 1) return 0;
-		String line = lines.get(lineIndex);
-		int endIndex = Math.min(charIndex, line.length());
-		return (float) (TextRenderer.width(line.substring(0, endIndex)) * scale);
+		if (charIndex < 0 || lineIndex < 0 || lineIndex > getLineCount() - 1) return 0;
+		return (float) (lineCache.getOffset(lineIndex, charIndex) * scale);
 	}
 
 	protected int getVisibleLines() {
@@ -706,9 +754,8 @@ public abstract class WAbstractTextEditor extends WAbstractWidget implements WPa
 	}
 
 	protected int getLineLength(int index) {
-		if (lines.isEmpty()) return 0;
-		if (index < 0 || index > lines.size() - 1) return 0;
-		return lines.get(index).length();
+		if (index < 0 || index > getLineCount() - 1) return 0;
+		return document.getLineLength(index);
 	}
 
 	public double getScale() {
@@ -717,6 +764,7 @@ public abstract class WAbstractTextEditor extends WAbstractWidget implements WPa
 
 	public <W extends WAbstractTextEditor> W setScale(double scale) {
 		this.scale = scale;
+		onTextChanged();
 		return (W) this;
 	}
 
@@ -785,7 +833,7 @@ public abstract class WAbstractTextEditor extends WAbstractWidget implements WPa
 		}
 
 		public Cursor down() {
-			y = Math.min(y + 1, lines.size() - 1);
+			y = Math.min(y + 1, getLineCount() - 1);
 			if (x > getLineLength(y)) {
 				x = getLineLength(y);
 			}
@@ -1,11 +1,55 @@
 package spinnery.widget;
 
+import spinnery.widget.api.SyncedProperty;
+import spinnery.widget.api.WSynced;
+
+import java.util.Collections;
+import java.util.List;
+
 /**
  * A WAbstractBar provides the basics necessary for a
  * general toggle-like widget, like a {@link WToggle}.
+ * <p>
+ * Once given a synchronization ID, its toggle state
+ * is synchronized from the server to the client.
  */
-public abstract class WAbstractToggle extends WAbstractWidget {
+public abstract class WAbstractToggle extends WAbstractWidget implements WSynced {
 	protected boolean toggleState = false;
+	protected int syncId;
+	protected List<SyncedProperty<?>> syncedProperties = Collections.emptyList();
+
+	/**
+	 * Retrieves the synchronization ID of this toggle.
+	 *
+	 * @return The synchronization ID of this toggle.
+	 */
+	@Override
+	public int getSyncId() {
+		return syncId;
+	}
+
+	/**
+	 * Sets the synchronization ID of this toggle, enabling
+	 * the synchronization of its toggle state.
+	 *
+	 * @param syncId The synchronization ID to be used by this toggle.
+	 */
+	public <W extends WAbstractToggle> W setSyncId(int syncId) {
+		this.syncId = syncId;
+		this.syncedProperties = Collections.singletonList(SyncedProperty.of(SyncedProperty.Codec.BOOLEAN, this::getToggleState, this::setToggleState));
+		return (W) this;
+	}
+
+	/**
+	 * Retrieves the synchronized properties of this toggle;
+	 * empty if no synchronization ID has been set.
+	 *
+	 * @return The synchronized properties of this toggle.
+	 */
+	@Override
+	public List<SyncedProperty<?>> getSyncedProperties() {
+		return syncedProperties;
+	}
 
 	@Override
 	public void onMouseClicked(float mouseX, float mouseY, int mouseButton) {
@@ -7,6 +7,7 @@ import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.Tickable;
 import spinnery.client.integration.SpinneryConfigurationScreen;
+import spinnery.client.utility.ScissorArea;
 import spinnery.common.registry.ThemeRegistry;
 import spinnery.common.registry.WidgetRegistry;
 import spinnery.common.utility.EventUtilities;
@@ -41,6 +42,9 @@ public abstract class WAbstractWidget implements Tickable, WLayoutElement, WThem
 
 	protected long heldSince = 0;
 
+	protected float[] drawBounds = new float[4];
+	protected int drawBoundsFrame = -1;
+
 	protected WCharTypeListener runnableOnCharTyped;
 	protected WMouseClickListener runnableOnMouseClicked;
 	protected WKeyPressListener runnableOnKeyPressed;
@@ -740,6 +744,29 @@ public abstract class WAbstractWidget implements Tickable, WLayoutElement, WThem
 				&& positionY - tolerance < getHighY();
 	}
 
+	/**
+	 * Retrieves the absolute left, top, right and bottom of this widget, as used
+	 * to cull it when drawing. While a WInterface is being drawn, they are
+	 * computed at most once per frame, such that culling costs a few comparisons
+	 * rather than walking the anchors; otherwise, they are computed on every call.
+	 *
+	 * @return Array of the left, top, right and bottom of this widget.
+	 */
+	@Environment(EnvType.CLIENT)
+	public float[] getDrawBounds() {
+		int frame = ScissorArea.getFrame();
+
+		if (frame < 0 || drawBoundsFrame != frame) {
+			drawBoundsFrame = frame;
+			drawBounds[0] = getX();
+			drawBounds[1] = getY();
+			drawBounds[2] = drawBounds[0] + getWidth();
+			drawBounds[3] = drawBounds[1] + getHeight();
+		}
+
+		return drawBounds;
+	}
+
 	@Environment(EnvType.CLIENT)
 	public float getX() {
 		return position.getX();
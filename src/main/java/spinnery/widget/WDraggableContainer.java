@@ -2,6 +2,8 @@ package spinnery.widget;
 
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
+import spinnery.client.utility.AnimationScheduler;
+import spinnery.client.utility.ContentBounds;
 import spinnery.client.utility.ScissorArea;
 import spinnery.common.utility.MutablePair;
 import spinnery.widget.api.*;
@@ -21,27 +23,23 @@ public class WDraggableContainer extends WAbstractWidget implements WDrawableCol
 	protected int yOffset;
 	protected MutablePair<Float, Float> clickPosition = MutablePair.of(0f, 0f);
 
+	protected ContentBounds contentBounds = new ContentBounds(this::getWidgets, (widget, extent) -> {
+		extent[0] = widget.getX() - widget.getPosition().getOffsetX() - getX();
+		extent[1] = widget.getY() - widget.getPosition().getOffsetY() - getY();
+		extent[2] = extent[0] + widget.getWidth();
+		extent[3] = extent[1] + widget.getHeight();
+	});
+	protected boolean isChangingChildren = false;
+
+	protected AnimationScheduler.Animation kineticAnimation = this::stepKinetic;
+
 	@Override
 	public Size getUnderlyingSize() {
-		// Leftmost widget (lower X)
-		float leftmostX = getStartAnchorX();
-		float rightmostX = leftmostX;
-		float topmostY = getStartAnchorY();
-		float bottommostY = topmostY;
-		for (WAbstractWidget widget : getWidgets()) {
-			if (widget.getX() < leftmostX) {
-				leftmostX = widget.getX();
-			}
-			if (widget.getX() + widget.getWidth() > rightmostX) {
-				rightmostX = widget.getX() + widget.getWidth();
-			}
-			if (widget.getY() < topmostY) {
-				topmostY = widget.getY();
-			}
-			if (widget.getY() + widget.getHeight() > bottommostY) {
-				bottommostY = widget.getY() + widget.getHeight();
-			}
-		}
+		// Measured relative to this container, as if it were not scrolled.
+		float leftmostX = Math.min(0, contentBounds.getLeft());
+		float rightmostX = Math.max(0, contentBounds.getRight());
+		float topmostY = Math.min(0, contentBounds.getTop());
+		float bottommostY = Math.max(0, contentBounds.getBottom());
 		return Size.of(rightmostX - leftmostX, bottommostY - topmostY);
 	}
 
@@ -63,7 +61,10 @@ public class WDraggableContainer extends WAbstractWidget implements WDrawableCol
 	@Override
 	public void add(WAbstractWidget... widgets) {
 		this.widgets.addAll(Arrays.asList(widgets));
+		contentBounds.add(widgets);
+		isChangingChildren = true;
 		onLayoutChange();
+		isChangingChildren = false;
 	}
 
 	@Override
@@ -74,6 +75,10 @@ public class WDraggableContainer extends WAbstractWidget implements WDrawableCol
 
 	@Override
 	public void onLayoutChange() {
+		if (!isChangingChildren) {
+			contentBounds.invalidate();
+		}
+
 		super.onLayoutChange();
 		recalculateCache();
 	}
@@ -109,18 +114,34 @@ public class WDraggableContainer extends WAbstractWidget implements WDrawableCol
 	@Override
 	public void remove(WAbstractWidget... widgets) {
 		this.widgets.removeAll(Arrays.asList(widgets));
+		contentBounds.remove(widgets);
+		isChangingChildren = true;
 		onLayoutChange();
+		isChangingChildren = false;
 	}
 
-	@Override
-	public void tick() {
+	/**
+	 * Advances the kinetic scrolling of this container by the time
+	 * elapsed, decaying its deltas as they would have decayed per tick.
+	 *
+	 * @param ticks Fractional amount of ticks elapsed.
+	 * @return True if still scrolling; false if at rest.
+	 */
+	protected boolean stepKinetic(float ticks) {
 		if (scrollKineticDeltaX > 0.05 || scrollKineticDeltaX < -0.05 || scrollKineticDeltaY > 0.05 || scrollKineticDeltaY < -0.05) {
-			scrollKineticDeltaX = (float) (scrollKineticDeltaX / 1.50);
-			scrollKineticDeltaY = (float) (scrollKineticDeltaY / 1.50);
-			scroll(scrollKineticDeltaX, scrollKineticDeltaY);
+			float factor = 1 / 1.50f;
+			float distance = factor * AnimationScheduler.getDecayDistance(factor, ticks);
+			float decay = (float) Math.pow(factor, ticks);
+			float deltaX = scrollKineticDeltaX * distance;
+			float deltaY = scrollKineticDeltaY * distance;
+			scrollKineticDeltaX *= decay;
+			scrollKineticDeltaY *= decay;
+			scroll(deltaX, deltaY);
+			return true;
 		} else {
 			scrollKineticDeltaX = 0;
 			scrollKineticDeltaY = 0;
+			return false;
 		}
 	}
 
@@ -130,9 +151,7 @@ public class WDraggableContainer extends WAbstractWidget implements WDrawableCol
 
 		ScissorArea area = new ScissorArea(this);
 
-		for (WLayoutElement widget : getOrderedWidgets()) {
-			widget.draw();
-		}
+		drawWidgets();
 
 		area.destroy();
 	}
@@ -141,6 +160,7 @@ public class WDraggableContainer extends WAbstractWidget implements WDrawableCol
 	public void onMouseClicked(float mouseX, float mouseY, int mouseButton) {
 		scrollKineticDeltaX = 0;
 		scrollKineticDeltaY = 0;
+		AnimationScheduler.cancel(kineticAnimation);
 		dragging = mouseButton == 0 && isWithinBounds(mouseX, mouseY);
 		if (dragging) {
 			clickPosition.setFirst(mouseX);
@@ -154,6 +174,7 @@ public class WDraggableContainer extends WAbstractWidget implements WDrawableCol
 		if (mouseButton == 0 && dragging) {
 			scrollKineticDeltaX += deltaX;
 			scrollKineticDeltaY += deltaY;
+			AnimationScheduler.schedule(kineticAnimation);
 			scroll(mouseX - clickPosition.getFirst(), mouseY - clickPosition.getSecond());
 			clickPosition.setFirst(mouseX);
 			clickPosition.setSecond(mouseY);
@@ -87,9 +87,7 @@ public class WDropdown extends WAbstractWidget implements WDrawableCollection, W
 		}
 
 		if (getState()) {
-			for (WLayoutElement widgetC : getOrderedWidgets()) {
-				widgetC.draw();
-			}
+			drawWidgets();
 		}
 	}
 
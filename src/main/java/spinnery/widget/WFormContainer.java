@@ -233,9 +233,7 @@ public class WFormContainer extends WAbstractWidget implements WDrawableCollecti
 
 		ScissorArea area = new ScissorArea(this);
 
-		for (WAbstractWidget widget : widgets) {
-			widget.draw();
-		}
+		drawWidgets();
 
 		area.destroy();
 
@@ -176,9 +176,7 @@ public class WHorizontalBoxContainer extends WAbstractWidget implements WDrawabl
 
 		ScissorArea area = new ScissorArea(this);
 
-		for (WAbstractWidget widget : widgets) {
-			widget.draw();
-		}
+		drawWidgets();
 
 		area.destroy();
 
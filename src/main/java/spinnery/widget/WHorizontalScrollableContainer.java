@@ -1,6 +1,8 @@
 package spinnery.widget;
 
 import com.google.common.collect.ImmutableSet;
+import spinnery.client.utility.AnimationScheduler;
+import spinnery.client.utility.ContentBounds;
 import spinnery.client.utility.ScissorArea;
 import spinnery.widget.api.*;
 
@@ -22,6 +24,14 @@ public class WHorizontalScrollableContainer extends WAbstractWidget implements W
 	protected float lastScrollX = 0;
 	protected float lastScrollY = 0;
 
+	protected ContentBounds contentBounds = new ContentBounds(this::getWidgets, (widget, extent) -> {
+		extent[0] = widget.getPosition().getRelativeX();
+		extent[2] = widget.getPosition().getRelativeX() + widget.getWidth();
+	});
+	protected boolean isChangingChildren = false;
+
+	protected AnimationScheduler.Animation kineticAnimation = this::stepKinetic;
+
 	public WHorizontalScrollableContainer() {
 		scrollbar = WWidgetFactory.buildDetached(WHorizontalScrollbar.class).scrollable(this).setParent(this);
 	}
@@ -35,6 +45,22 @@ public class WHorizontalScrollableContainer extends WAbstractWidget implements W
 		return (W) this;
 	}
 
+	public float getScrollKineticDelta() {
+		return scrollKineticDelta;
+	}
+
+	/**
+	 * Adds to the kinetic scroll delta of this container, and
+	 * schedules its kinetic scrolling if it was at rest.
+	 *
+	 * @param delta Delta to be added.
+	 */
+	public <W extends WHorizontalScrollableContainer> W addScrollKineticDelta(float delta) {
+		scrollKineticDelta += delta;
+		AnimationScheduler.schedule(kineticAnimation);
+		return (W) this;
+	}
+
 	@Override
 	public void scroll(double deltaX, double deltaY) {
 		if (getWidgets().size() == 0) {
@@ -81,27 +107,14 @@ public class WHorizontalScrollableContainer extends WAbstractWidget implements W
 	}
 
 	protected float getMaxX() {
-		float max = (float) widgets.stream().mapToDouble(w -> w.getPosition().getRelativeX() + w.getWidth()).max().orElse(0);
+		float max = contentBounds.isEmpty() ? 0 : contentBounds.getRight();
 		if (max == 0) return getStartAnchorX();
 		return getStartAnchorX() + max - getVisibleWidth() + rightSpace;
 	}
 
 	@Override
 	public Size getUnderlyingSize() {
-		Set<WAbstractWidget> widgets = getWidgets();
-
-		float leftmostX = getStartAnchorX();
-		float rightmostX = leftmostX;
-		for (WAbstractWidget widget : widgets) {
-			if (widget.getX() < leftmostX) {
-				leftmostX = widget.getX();
-			}
-			if (widget.getX() + widget.getWidth() > rightmostX) {
-				rightmostX = widget.getX() + widget.getWidth();
-			}
-		}
-
-		return Size.of(rightmostX - leftmostX, getVisibleHeight());
+		return Size.of(Math.max(0, contentBounds.getRight()) - Math.min(0, contentBounds.getLeft()), getVisibleHeight());
 	}
 
 	@Override
@@ -142,11 +155,18 @@ public class WHorizontalScrollableContainer extends WAbstractWidget implements W
 	@Override
 	public void add(WAbstractWidget... widgetArray) {
 		widgets.addAll(Arrays.asList(widgetArray));
+		contentBounds.add(widgetArray);
+		isChangingChildren = true;
 		onLayoutChange();
+		isChangingChildren = false;
 	}
 
 	@Override
 	public void onLayoutChange() {
+		if (!isChangingChildren) {
+			contentBounds.invalidate();
+		}
+
 		super.onLayoutChange();
 		scrollToStart();
 		updateScrollbar();
@@ -205,20 +225,32 @@ public class WHorizontalScrollableContainer extends WAbstractWidget implements W
 	@Override
 	public void remove(WAbstractWidget... widgetArray) {
 		widgets.removeAll(Arrays.asList(widgetArray));
+		contentBounds.remove(widgetArray);
+		isChangingChildren = true;
 		onLayoutChange();
-		onLayoutChange();
+		isChangingChildren = false;
 	}
 
-	@Override
-	public void tick() {
+	/**
+	 * Advances the kinetic scrolling of this container by the time
+	 * elapsed, decaying its delta as it would have decayed per tick.
+	 *
+	 * @param ticks Fractional amount of ticks elapsed.
+	 * @return True if still scrolling; false if at rest.
+	 */
+	protected boolean stepKinetic(float ticks) {
 		if (scrollKineticDelta > 0.05 || scrollKineticDelta < -0.05) {
-			scrollKineticDelta = (float) (scrollKineticDelta / 1.10);
-			scroll(scrollKineticDelta, 0);
+			float factor = 1 / 1.10f;
+			float distance = scrollKineticDelta * factor * AnimationScheduler.getDecayDistance(factor, ticks);
+			scrollKineticDelta *= (float) Math.pow(factor, ticks);
+			scroll(distance, 0);
 			updateChildrenFocus();
+			return true;
 		} else {
 			scrollKineticDelta = 0;
 			lastScrollX = 0;
 			lastScrollY = 0;
+			return false;
 		}
 	}
 
@@ -230,9 +262,7 @@ public class WHorizontalScrollableContainer extends WAbstractWidget implements W
 
 		ScissorArea area = new ScissorArea(this);
 
-		for (WLayoutElement widget : getOrderedWidgets()) {
-			widget.draw();
-		}
+		drawWidgets();
 
 		area.destroy();
 
@@ -248,7 +278,7 @@ public class WHorizontalScrollableContainer extends WAbstractWidget implements W
 	@Override
 	public void onMouseScrolled(float mouseX, float mouseY, double deltaY) {
 		if (isWithinBounds(mouseX, mouseY)) {
-			scrollKineticDelta += deltaY;
+			addScrollKineticDelta((float) deltaY);
 			scroll(deltaY * 5, 0);
 		}
 		lastScrollX = mouseX;
@@ -68,7 +68,7 @@ public class WHorizontalScrollbar extends WAbstractWidget {
 		if (mouseButton == 0) {
 			if (dragging) {
 				double scrollerOffsetX = getScrollerX() + clickMouseX - mouseX;
-				((WHorizontalScrollableContainer) scrollable).scrollKineticDelta += -deltaX;
+				((WHorizontalScrollableContainer) scrollable).addScrollKineticDelta((float) -deltaX);
 				scrollable.scroll(scrollerOffsetX, 0);
 			}
 		}
@@ -7,6 +7,7 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.util.Window;
 import net.minecraft.util.Identifier;
 import spinnery.client.render.BaseRenderer;
+import spinnery.client.utility.ScissorArea;
 import spinnery.common.container.BaseContainer;
 import spinnery.common.registry.NetworkRegistry;
 import spinnery.common.utility.EventUtilities;
@@ -19,6 +20,8 @@ public class WInterface implements WDrawableCollection, WModifiableCollection, W
 	protected Set<WAbstractWidget> widgets = new LinkedHashSet<>();
 	protected List<WLayoutElement> orderedWidgets = new ArrayList<>();
 	protected Map<Class<? extends WAbstractWidget>, WAbstractWidget> cachedWidgets = new HashMap<>();
+	protected Map<Integer, Map<Integer, WSlot>> cachedSlots = null;
+	protected List<WSlotGrid> cachedGrids = null;
 	protected boolean isClientside;
 	protected Identifier theme;
 	protected boolean isBlurred = false;
@@ -224,9 +227,11 @@ public class WInterface implements WDrawableCollection, WModifiableCollection, W
 			BaseRenderer.drawRectangle(0, 0, 0, window.getWidth(), window.getHeight(), Color.of(0x90000000));
 		}
 
-		for (WLayoutElement widget : getOrderedWidgets()) {
-			widget.draw();
-		}
+		ScissorArea.beginFrame();
+
+		drawWidgets();
+
+		ScissorArea.endFrame();
 	}
 
 	public boolean isBlurred() {
@@ -238,19 +243,119 @@ public class WInterface implements WDrawableCollection, WModifiableCollection, W
 		return (W) this;
 	}
 
+	/**
+	 * Retrieves the WSlot of this interface linked to a slot of an inventory.
+	 * Slots displayed by a WSlotGrid, but not visible, are resolved through it,
+	 * into a new WSlot which is not kept.
+	 *
+	 * @param inventoryNumber Inventory number of the WSlot.
+	 * @param slotNumber      Slot number of the WSlot.
+	 * @return The WSlot; null if there is none.
+	 */
 	public <W extends WSlot> W getSlot(int inventoryNumber, int slotNumber) {
-		Optional<WAbstractWidget> slot = getAllWidgets().stream().filter(widget -> widget instanceof WSlot && ((WSlot) widget).inventoryNumber == inventoryNumber && ((WSlot) widget).slotNumber == slotNumber).findFirst();
+		WSlot slot = getSlots(inventoryNumber).get(slotNumber);
+
+		if (slot == null) {
+			for (WSlotGrid grid : cachedGrids) {
+				if (grid.contains(inventoryNumber, slotNumber)) {
+					return (W) grid.getCell(slotNumber);
+				}
+			}
+		}
+
+		return (W) slot;
+	}
+
+	/**
+	 * Retrieves the WSlots of this interface linked to an inventory,
+	 * from a cache rebuilt whenever the layout or a WSlot changes.
+	 *
+	 * @param inventoryNumber Inventory number of the WSlots.
+	 * @return Map of WSlots, whose key is the slot number.
+	 */
+	public Map<Integer, WSlot> getSlots(int inventoryNumber) {
+		if (cachedSlots == null) {
+			cachedSlots = new HashMap<>();
+			cachedGrids = new ArrayList<>();
+
+			for (WAbstractWidget widget : getAllWidgets()) {
+				if (widget instanceof WSlot) {
+					WSlot slot = (WSlot) widget;
+					cachedSlots.computeIfAbsent(slot.getInventoryNumber(), key -> new HashMap<>()).putIfAbsent(slot.getSlotNumber(), slot);
+				} else if (widget instanceof WSlotGrid) {
+					cachedGrids.add((WSlotGrid) widget);
+				}
+			}
+		}
+
+		return cachedSlots.getOrDefault(inventoryNumber, Collections.emptyMap());
+	}
+
+	/**
+	 * Retrieves the WSlotGrids of this interface displaying an inventory.
+	 *
+	 * @param inventoryNumber Inventory number of the WSlotGrids.
+	 * @return List of WSlotGrids.
+	 */
+	public List<WSlotGrid> getSlotGrids(int inventoryNumber) {
+		getSlots(inventoryNumber);
+
+		List<WSlotGrid> grids = new ArrayList<>();
+
+		for (WSlotGrid grid : cachedGrids) {
+			if (grid.getInventoryNumber() == inventoryNumber) {
+				grids.add(grid);
+			}
+		}
+
+		return grids;
+	}
+
+	/**
+	 * Invalidates the WSlot cache of this interface, and notifies
+	 * the linked container that its WSlots have changed.
+	 */
+	public void onSlotsChanged() {
+		cachedSlots = null;
+		cachedGrids = null;
+
+		if (linkedContainer != null) {
+			linkedContainer.onSlotsChanged();
+		}
+	}
+
+	/**
+	 * Method called by a WSlotGrid when the WSlots of its visible rows change,
+	 * replacing its WSlots in the WSlot cache of this interface. As its range
+	 * of slots is unchanged, the linked container is only notified of the
+	 * WSlots shown, rather than of all WSlots having changed.
+	 *
+	 * @param grid       WSlotGrid whose visible WSlots changed.
+	 * @param shownCells WSlots which were not visible before.
+	 */
+	public void onCellsChanged(WSlotGrid grid, Collection<WSlot> shownCells) {
+		if (cachedSlots != null) {
+			for (Map<Integer, WSlot> slots : cachedSlots.values()) {
+				slots.values().removeIf(slot -> slot.getParent() == grid);
+			}
+
+			Map<Integer, WSlot> slots = cachedSlots.computeIfAbsent(grid.getInventoryNumber(), key -> new HashMap<>());
+
+			for (WAbstractWidget widget : grid.getWidgets()) {
+				WSlot slot = (WSlot) widget;
+				slots.putIfAbsent(slot.getSlotNumber(), slot);
+			}
+		}
 
-		if (slot.isPresent()) {
-			return (W) slot.get();
-		} else {
-			return null;
+		if (linkedContainer != null) {
+			linkedContainer.onSlotsShown(shownCells);
 		}
 	}
 
 	@Override
 	public void onLayoutChange() {
 		recalculateCache();
+		onSlotsChanged();
 	}
 
 	@Override
@@ -32,9 +32,7 @@ public class WPanel extends WAbstractWidget implements WModifiableCollection, WD
 					.color(getStyle().asColor("label.color")).shadowColor(getStyle().asColor("label.shadow_color")).render();
 		}
 
-		for (WLayoutElement widget : getOrderedWidgets()) {
-			widget.draw();
-		}
+		drawWidgets();
 	}
 
 	@Override
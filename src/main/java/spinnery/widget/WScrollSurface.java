@@ -0,0 +1,503 @@
+package spinnery.widget;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import spinnery.client.utility.AnimationScheduler;
+import spinnery.client.utility.ContentBounds;
+import spinnery.client.utility.ScissorArea;
+import spinnery.client.utility.TileIndex;
+import spinnery.widget.api.*;
+
+import java.util.*;
+
+/**
+ * A WScrollSurface is a container which may be
+ * panned along both axes and zoomed, meant for
+ * large canvases such as tech trees or quest maps.
+ * <p>
+ * Children are anchored to the content of the surface,
+ * rather than to the surface itself, such that panning
+ * moves the content anchor instead of every child. They
+ * are kept in a tiled spatial index, and only those in
+ * the tiles intersecting the viewport are drawn and
+ * receive mouse events, which are given in content
+ * space, i.e. with the zoom undone.
+ */
+@Environment(EnvType.CLIENT)
+@SuppressWarnings("unchecked")
+public class WScrollSurface extends WAbstractWidget implements WDrawableCollection, WModifiableCollection, WVerticalScrollable, WHorizontalScrollable, WDelegatedEventListener {
+	public static final float DEFAULT_TILE_SIZE = 64;
+
+	protected Set<WAbstractWidget> widgets = new LinkedHashSet<>();
+
+	protected float scrollX = 0;
+	protected float scrollY = 0;
+
+	protected float zoom = 1;
+	protected float minimumZoom = 1;
+	protected float maximumZoom = 1;
+
+	protected boolean dragging = false;
+	protected float lastDragX = 0;
+	protected float lastDragY = 0;
+	protected float scrollKineticDeltaX = 0;
+	protected float scrollKineticDeltaY = 0;
+
+	protected boolean isPointerWithin = false;
+	protected boolean isChangingChildren = false;
+
+	protected final WPositioned content = new WPositioned() {
+		@Override
+		public float getX() {
+			return WScrollSurface.this.getX() - scrollX;
+		}
+
+		@Override
+		public float getY() {
+			return WScrollSurface.this.getY() - scrollY;
+		}
+
+		@Override
+		public float getZ() {
+			return WScrollSurface.this.getZ();
+		}
+	};
+
+	protected final ContentBounds.Measure measure = (widget, extent) -> {
+		extent[0] = widget.getX() - content.getX();
+		extent[1] = widget.getY() - content.getY();
+		extent[2] = extent[0] + widget.getWidth();
+		extent[3] = extent[1] + widget.getHeight();
+	};
+
+	protected ContentBounds contentBounds = new ContentBounds(this::getWidgets, measure);
+	protected TileIndex tileIndex = new TileIndex(DEFAULT_TILE_SIZE, this::getWidgets, measure);
+
+	protected List<WLayoutElement> visibleWidgets = new ArrayList<>();
+	protected int[] visibleTiles = new int[4];
+	protected int visibleRevision = -1;
+
+	protected AnimationScheduler.Animation kineticAnimation = this::stepKinetic;
+
+	/**
+	 * Retrieves the content anchor of this surface, which children should be
+	 * positioned relative to. Children added with a position relative to
+	 * the surface itself are re-anchored to it.
+	 *
+	 * @return The content anchor.
+	 */
+	public WPositioned getContent() {
+		return content;
+	}
+
+	public float getScrollX() {
+		return scrollX;
+	}
+
+	public float getScrollY() {
+		return scrollY;
+	}
+
+	/**
+	 * Pans this surface such that a point of its content is at its top left corner.
+	 *
+	 * @param scrollX Content X at the left edge.
+	 * @param scrollY Content Y at the top edge.
+	 */
+	public <W extends WScrollSurface> W setScroll(float scrollX, float scrollY) {
+		this.scrollX = scrollX;
+		this.scrollY = scrollY;
+		clampScroll();
+		return (W) this;
+	}
+
+	public float getZoom() {
+		return zoom;
+	}
+
+	/**
+	 * Zooms this surface, keeping the center of the viewport in place.
+	 *
+	 * @param zoom Zoom, clamped to the zoom range.
+	 */
+	public <W extends WScrollSurface> W setZoom(float zoom) {
+		zoomAround(getX() + getWidth() / 2, getY() + getHeight() / 2, zoom);
+		return (W) this;
+	}
+
+	public float getMinimumZoom() {
+		return minimumZoom;
+	}
+
+	public float getMaximumZoom() {
+		return maximumZoom;
+	}
+
+	/**
+	 * Sets the range the mouse wheel zooms this surface within.
+	 * While both are equal, the mouse wheel pans vertically instead.
+	 *
+	 * @param minimumZoom Minimum zoom.
+	 * @param maximumZoom Maximum zoom.
+	 */
+	public <W extends WScrollSurface> W setZoomRange(float minimumZoom, float maximumZoom) {
+		this.minimumZoom = minimumZoom;
+		this.maximumZoom = Math.max(minimumZoom, maximumZoom);
+		setZoom(zoom);
+		return (W) this;
+	}
+
+	/**
+	 * Zooms this surface, keeping a point of the screen over the same content.
+	 *
+	 * @param positionX Screen X to be kept in place.
+	 * @param positionY Screen Y to be kept in place.
+	 * @param zoom      Zoom, clamped to the zoom range.
+	 */
+	public void zoomAround(float positionX, float positionY, float zoom) {
+		zoom = Math.max(minimumZoom, Math.min(maximumZoom, zoom));
+
+		float contentX = toContentX(positionX) - content.getX();
+		float contentY = toContentY(positionY) - content.getY();
+
+		this.zoom = zoom;
+
+		scrollX = contentX - (positionX - getX()) / zoom;
+		scrollY = contentY - (positionY - getY()) / zoom;
+
+		clampScroll();
+	}
+
+	/**
+	 * Converts a screen X into the space children are positioned in.
+	 *
+	 * @param positionX Screen X.
+	 * @return Content space X.
+	 */
+	public float toContentX(float positionX) {
+		return getX() + (positionX - getX()) / zoom;
+	}
+
+	/**
+	 * Converts a screen Y into the space children are positioned in.
+	 *
+	 * @param positionY Screen Y.
+	 * @return Content space Y.
+	 */
+	public float toContentY(float positionY) {
+		return getY() + (positionY - getY()) / zoom;
+	}
+
+	protected float getMinimumScrollX() {
+		return contentBounds.isEmpty() ? 0 : Math.min(0, contentBounds.getLeft());
+	}
+
+	protected float getMinimumScrollY() {
+		return contentBounds.isEmpty() ? 0 : Math.min(0, contentBounds.getTop());
+	}
+
+	protected float getMaximumScrollX() {
+		return Math.max(getMinimumScrollX(), Math.max(0, contentBounds.getRight()) - getVisibleWidth());
+	}
+
+	protected float getMaximumScrollY() {
+		return Math.max(getMinimumScrollY(), Math.max(0, contentBounds.getBottom()) - getVisibleHeight());
+	}
+
+	protected void clampScroll() {
+		scrollX = Math.max(getMinimumScrollX(), Math.min(getMaximumScrollX(), scrollX));
+		scrollY = Math.max(getMinimumScrollY(), Math.min(getMaximumScrollY(), scrollY));
+	}
+
+	@Override
+	public void scroll(double deltaX, double deltaY) {
+		scrollX -= deltaX;
+		scrollY -= deltaY;
+		clampScroll();
+	}
+
+	/**
+	 * Collects the children in the tiles intersecting the viewport, ordered
+	 * by Z, unless neither the visible tiles nor the index changed.
+	 */
+	protected void updateVisibleWidgets() {
+		int minimumTileX = tileIndex.getTile(scrollX);
+		int minimumTileY = tileIndex.getTile(scrollY);
+		int maximumTileX = tileIndex.getTile(scrollX + getVisibleWidth());
+		int maximumTileY = tileIndex.getTile(scrollY + getVisibleHeight());
+
+		int revision = tileIndex.getRevision();
+
+		if (revision == visibleRevision
+				&& visibleTiles[0] == minimumTileX && visibleTiles[1] == minimumTileY
+				&& visibleTiles[2] == maximumTileX && visibleTiles[3] == maximumTileY) {
+			return;
+		}
+
+		visibleRevision = revision;
+		visibleTiles[0] = minimumTileX;
+		visibleTiles[1] = minimumTileY;
+		visibleTiles[2] = maximumTileX;
+		visibleTiles[3] = maximumTileY;
+
+		List<WAbstractWidget> found = new ArrayList<>();
+		tileIndex.query(minimumTileX, minimumTileY, maximumTileX, maximumTileY, found);
+
+		visibleWidgets = new ArrayList<>(found);
+		Collections.sort(visibleWidgets);
+		Collections.reverse(visibleWidgets);
+	}
+
+	@Override
+	public Size getUnderlyingSize() {
+		if (contentBounds.isEmpty()) return Size.of(0, 0);
+		return Size.of(Math.max(0, contentBounds.getRight()) - getMinimumScrollX(), Math.max(0, contentBounds.getBottom()) - getMinimumScrollY());
+	}
+
+	@Override
+	public Size getVisibleSize() {
+		return Size.of(getWidth() / zoom, getHeight() / zoom);
+	}
+
+	@Override
+	public float getStartAnchorX() {
+		return getX();
+	}
+
+	@Override
+	public float getEndAnchorX() {
+		if (getVisibleWidth() > getUnderlyingWidth()) return getStartAnchorX();
+		return getStartAnchorX() - (getUnderlyingWidth() - getVisibleWidth());
+	}
+
+	@Override
+	public float getStartOffsetX() {
+		return scrollX - getMinimumScrollX();
+	}
+
+	@Override
+	public float getStartAnchorY() {
+		return getY();
+	}
+
+	@Override
+	public float getEndAnchorY() {
+		if (getVisibleHeight() > getUnderlyingHeight()) return getStartAnchorY();
+		return getStartAnchorY() - (getUnderlyingHeight() - getVisibleHeight());
+	}
+
+	@Override
+	public float getStartOffsetY() {
+		return scrollY - getMinimumScrollY();
+	}
+
+	@Override
+	public void add(WAbstractWidget... widgets) {
+		for (WAbstractWidget widget : widgets) {
+			if (widget.getPosition().getAnchor() == this) {
+				widget.getPosition().setAnchor(content);
+			}
+		}
+
+		this.widgets.addAll(Arrays.asList(widgets));
+		contentBounds.add(widgets);
+		tileIndex.add(widgets);
+		isChangingChildren = true;
+		onLayoutChange();
+		isChangingChildren = false;
+	}
+
+	@Override
+	public void remove(WAbstractWidget... widgets) {
+		this.widgets.removeAll(Arrays.asList(widgets));
+		contentBounds.remove(widgets);
+		tileIndex.remove(widgets);
+		isChangingChildren = true;
+		onLayoutChange();
+		isChangingChildren = false;
+	}
+
+	@Override
+	public void onLayoutChange() {
+		if (!isChangingChildren) {
+			contentBounds.invalidate();
+			tileIndex.invalidate();
+		}
+
+		super.onLayoutChange();
+		clampScroll();
+		recalculateCache();
+	}
+
+	@Override
+	public void recalculateCache() {
+		visibleRevision = -1;
+	}
+
+	@Override
+	public List<WLayoutElement> getOrderedWidgets() {
+		updateVisibleWidgets();
+		return visibleWidgets;
+	}
+
+	@Override
+	public Set<WAbstractWidget> getWidgets() {
+		return widgets;
+	}
+
+	@Override
+	public boolean contains(WAbstractWidget... widgets) {
+		return this.widgets.containsAll(Arrays.asList(widgets));
+	}
+
+	@Override
+	public Collection<? extends WEventListener> getEventDelegates() {
+		if (!isPointerWithin) return Collections.emptyList();
+		return (Collection<? extends WEventListener>) (Collection<?>) getOrderedWidgets();
+	}
+
+	@Override
+	public boolean updateFocus(float positionX, float positionY) {
+		setFocus(isWithinBounds(positionX, positionY) && getOrderedWidgets().stream().noneMatch(widget -> ((WAbstractWidget) widget).isFocused()));
+		return isFocused();
+	}
+
+	/**
+	 * Advances the kinetic panning of this surface by the time
+	 * elapsed, decaying its deltas as they would have decayed per tick.
+	 *
+	 * @param ticks Fractional amount of ticks elapsed.
+	 * @return True if still panning; false if at rest.
+	 */
+	protected boolean stepKinetic(float ticks) {
+		if (scrollKineticDeltaX > 0.05 || scrollKineticDeltaX < -0.05 || scrollKineticDeltaY > 0.05 || scrollKineticDeltaY < -0.05) {
+			float factor = 1 / 1.50f;
+			float distance = factor * AnimationScheduler.getDecayDistance(factor, ticks);
+			float decay = (float) Math.pow(factor, ticks);
+			float deltaX = scrollKineticDeltaX * distance;
+			float deltaY = scrollKineticDeltaY * distance;
+			scrollKineticDeltaX *= decay;
+			scrollKineticDeltaY *= decay;
+			scroll(deltaX, deltaY);
+			return true;
+		} else {
+			scrollKineticDeltaX = 0;
+			scrollKineticDeltaY = 0;
+			return false;
+		}
+	}
+
+	@Override
+	public void onMouseClicked(float mouseX, float mouseY, int mouseButton) {
+		isPointerWithin = isWithinBounds(mouseX, mouseY);
+
+		scrollKineticDeltaX = 0;
+		scrollKineticDeltaY = 0;
+		AnimationScheduler.cancel(kineticAnimation);
+
+		dragging = mouseButton == 0 && isPointerWithin;
+
+		if (dragging) {
+			lastDragX = mouseX;
+			lastDragY = mouseY;
+		}
+
+		super.onMouseClicked(toContentX(mouseX), toContentY(mouseY), mouseButton);
+
+		isHeld = isPointerWithin;
+	}
+
+	@Override
+	public void onMouseReleased(float mouseX, float mouseY, int mouseButton) {
+		isPointerWithin = true;
+
+		if (mouseButton == 0) {
+			dragging = false;
+		}
+
+		super.onMouseReleased(toContentX(mouseX), toContentY(mouseY), mouseButton);
+	}
+
+	@Override
+	public void onMouseDragged(float mouseX, float mouseY, int mouseButton, double deltaX, double deltaY) {
+		isPointerWithin = isWithinBounds(mouseX, mouseY);
+
+		if (mouseButton == 0 && dragging) {
+			scrollKineticDeltaX += deltaX / zoom;
+			scrollKineticDeltaY += deltaY / zoom;
+			AnimationScheduler.schedule(kineticAnimation);
+			scroll((mouseX - lastDragX) / zoom, (mouseY - lastDragY) / zoom);
+			lastDragX = mouseX;
+			lastDragY = mouseY;
+		}
+
+		super.onMouseDragged(toContentX(mouseX), toContentY(mouseY), mouseButton, deltaX / zoom, deltaY / zoom);
+	}
+
+	@Override
+	public void onMouseMoved(float mouseX, float mouseY) {
+		isPointerWithin = isWithinBounds(mouseX, mouseY);
+
+		if (!isPointerWithin) {
+			for (WLayoutElement element : getOrderedWidgets()) {
+				WAbstractWidget widget = (WAbstractWidget) element;
+
+				if (widget.isFocused()) {
+					widget.setFocus(false);
+					widget.onFocusReleased();
+				}
+			}
+		}
+
+		super.onMouseMoved(toContentX(mouseX), toContentY(mouseY));
+	}
+
+	@Override
+	public void onMouseScrolled(float mouseX, float mouseY, double deltaY) {
+		isPointerWithin = isWithinBounds(mouseX, mouseY);
+
+		if (isPointerWithin) {
+			if (minimumZoom < maximumZoom) {
+				zoomAround(mouseX, mouseY, zoom * (float) Math.pow(1.1, deltaY));
+			} else {
+				scroll(0, deltaY * 10 / zoom);
+			}
+		}
+
+		super.onMouseScrolled(toContentX(mouseX), toContentY(mouseY), deltaY);
+	}
+
+	@Override
+	public void onDrawTooltip(float mouseX, float mouseY) {
+		isPointerWithin = isWithinBounds(mouseX, mouseY);
+
+		super.onDrawTooltip(toContentX(mouseX), toContentY(mouseY));
+	}
+
+	@Override
+	public void draw() {
+		if (isHidden()) return;
+
+		ScissorArea area = new ScissorArea(this);
+
+		RenderSystem.pushMatrix();
+		RenderSystem.translatef(getX(), getY(), 0);
+		RenderSystem.scalef(zoom, zoom, 1);
+		RenderSystem.translatef(-getX(), -getY(), 0);
+
+		boolean isTransformed = zoom != 1;
+
+		if (isTransformed) ScissorArea.suspendCulling();
+
+		for (WLayoutElement widget : getOrderedWidgets()) {
+			widget.draw();
+		}
+
+		if (isTransformed) ScissorArea.resumeCulling();
+
+		RenderSystem.popMatrix();
+
+		area.destroy();
+	}
+}
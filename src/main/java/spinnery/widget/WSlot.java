@@ -9,12 +9,15 @@ import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.inventory.Inventory;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
+import net.minecraft.tag.ItemTags;
 import net.minecraft.tag.Tag;
+import net.minecraft.tag.TagContainer;
 import net.minecraft.util.Identifier;
 import org.apache.logging.log4j.Level;
 import spinnery.Spinnery;
 import spinnery.client.render.BaseRenderer;
 import spinnery.common.container.BaseContainer;
+import spinnery.common.utility.StackUtilities;
 import spinnery.widget.api.Action;
 import spinnery.widget.api.Position;
 import spinnery.widget.api.Size;
@@ -44,6 +47,8 @@ public class WSlot extends WAbstractWidget {
 	protected List<Item> denyItems = new ArrayList<>();
 	protected List<Tag<Item>> acceptTags = new ArrayList<>();
 	protected List<Tag<Item>> denyTags = new ArrayList<>();
+	protected BitSet compiledFilter = null;
+	protected TagContainer<Item> compiledTags = null;
 
 	protected List<BiConsumer<Action, Action.Subtype>> consumers = new ArrayList<>();
 
@@ -107,44 +112,93 @@ public class WSlot extends WAbstractWidget {
 
 	public <W extends WSlot> W setWhitelist() {
 		this.isWhitelist = true;
+		onFiltersChanged();
 		return (W) this;
 	}
 
 	public <W extends WSlot> W setBlacklist() {
 		this.isWhitelist = false;
+		onFiltersChanged();
 		return (W) this;
 	}
 
 	public <W extends WSlot> W accept(Tag<Item>... tags) {
 		this.acceptTags.addAll(Arrays.asList(tags));
+		onFiltersChanged();
 		return (W) this;
 	}
 
 	public <W extends WSlot> W accept(Item... stacks) {
 		this.acceptItems.addAll(Arrays.asList(stacks));
+		onFiltersChanged();
 		return (W) this;
 	}
 
 	public <W extends WSlot> W refuse(Tag<Item>... tags) {
 		this.denyTags.addAll(Arrays.asList(tags));
+		onFiltersChanged();
 		return (W) this;
 	}
 
 	public <W extends WSlot> W refuse(Item... items) {
 		this.denyItems.addAll(Arrays.asList(items));
+		onFiltersChanged();
 		return (W) this;
 	}
 
 	public boolean accepts(ItemStack... stacks) {
-		if (!(Arrays.stream(stacks).allMatch(stack -> getLinkedInventory().isValidInvStack(slotNumber, stack)))) {
-			return false;
+		for (ItemStack stack : stacks) {
+			if (!getLinkedInventory().isValidInvStack(slotNumber, stack) || !accepts(stack.getItem())) {
+				return false;
+			}
 		}
-		if (isWhitelist) {
-			return Arrays.stream(stacks).allMatch(stack ->
-					(acceptItems.contains(stack.getItem()) || acceptTags.stream().anyMatch(tag -> tag.contains(stack.getItem()))));
-		} else {
-			return Arrays.stream(stacks).noneMatch(stack ->
-					(denyItems.contains(stack.getItem()) || denyTags.stream().anyMatch(tag -> tag.contains(stack.getItem()))));
+		return true;
+	}
+
+	/**
+	 * Asserts whether the filters of this WSlot accept an Item,
+	 * regardless of whether its inventory does.
+	 *
+	 * @param item Item to be checked.
+	 * @return True if accepted; false if not.
+	 */
+	public boolean accepts(Item item) {
+		return getCompiledFilter().get(Item.getRawId(item)) == isWhitelist;
+	}
+
+	/**
+	 * Retrieves the compiled filter of this WSlot: the raw IDs of all Items
+	 * in its accepted (if a whitelist) or refused (if a blacklist) Items and
+	 * Tags. Recompiled when its filters change, or when Tags are reloaded.
+	 *
+	 * @return The compiled filter of this WSlot.
+	 */
+	public BitSet getCompiledFilter() {
+		if (compiledFilter == null || compiledTags != ItemTags.getContainer()) {
+			BitSet filter = new BitSet();
+
+			for (Item item : isWhitelist ? acceptItems : denyItems) {
+				filter.set(Item.getRawId(item));
+			}
+
+			for (Tag<Item> tag : isWhitelist ? acceptTags : denyTags) {
+				for (Item item : tag.values()) {
+					filter.set(Item.getRawId(item));
+				}
+			}
+
+			compiledFilter = filter;
+			compiledTags = ItemTags.getContainer();
+		}
+
+		return compiledFilter;
+	}
+
+	protected void onFiltersChanged() {
+		compiledFilter = null;
+
+		if (getInterface() != null && getInterface().getContainer() != null) {
+			getInterface().getContainer().onSlotFiltersChanged();
 		}
 	}
 
@@ -176,7 +230,8 @@ public class WSlot extends WAbstractWidget {
 			BaseRenderer.drawImage(x + 1, y + 1, z, sX - 2, sY - 2, getPreviewTexture());
 		}
 
-		ItemStack stackA = getPreviewStack().isEmpty() ? getStack() : getPreviewStack();
+		ItemStack previewStack = getPreviewStack();
+		ItemStack stackA = previewStack.isEmpty() ? getStack() : previewStack;
 
 		RenderSystem.translatef(0, 0, +250);
 		RenderSystem.translatef(0, 0, -150);
@@ -201,21 +256,20 @@ public class WSlot extends WAbstractWidget {
 		PlayerEntity player = getInterface().getContainer().getPlayerInventory().player;
 		BaseContainer container = getInterface().getContainer();
 
-		int[] slotNumbers = container.getDragSlots(button).stream().mapToInt(WSlot::getSlotNumber).toArray();
-		int[] inventoryNumbers = container.getDragSlots(button).stream().mapToInt(WSlot::getInventoryNumber).toArray();
-
 		boolean isDragging = container.isDragging() && nanoInterval() > nanoDelay();
 		boolean isCursorEmpty = player.inventory.getCursorStack().isEmpty();
 
 		if (!skipRelease && !Screen.hasShiftDown()) {
 			if (isDragging) {
-				container.onSlotDrag(slotNumbers, inventoryNumbers, Action.of(button, true));
-				INSTANCE.sendToServer(SLOT_DRAG_PACKET, createSlotDragPacket(container.syncId, slotNumbers, inventoryNumbers, Action.of(button, true)));
+				int[] slotNumbers = container.getDragSlots(button).getSlotNumbers();
+				int[] inventoryNumbers = container.getDragSlots(button).getInventoryNumbers();
+				int sequence = container.predict(() -> container.onSlotDrag(slotNumbers, inventoryNumbers, Action.of(button, true)));
+				INSTANCE.sendToServer(SLOT_DRAG_PACKET, createSlotDragPacket(container.syncId, sequence, slotNumbers, inventoryNumbers, Action.of(button, true)));
 			} else if (!isFocused()) {
 				return;
 			} else if ((button == LEFT || button == RIGHT) && !isCursorEmpty) {
-				container.onSlotAction(slotNumber, inventoryNumber, button, PICKUP, player);
-				INSTANCE.sendToServer(SLOT_CLICK_PACKET, createSlotClickPacket(container.syncId, slotNumber, inventoryNumber, button, PICKUP));
+				int sequence = container.predict(() -> container.onSlotAction(slotNumber, inventoryNumber, button, PICKUP, player));
+				INSTANCE.sendToServer(SLOT_CLICK_PACKET, createSlotClickPacket(container.syncId, sequence, slotNumber, inventoryNumber, button, PICKUP));
 			}
 		}
 
@@ -238,25 +292,25 @@ public class WSlot extends WAbstractWidget {
 
 		if (nanoInterval() < nanoDelay() * 1.25f && button == LEFT) {
 			skipRelease = true;
-			container.onSlotAction(slotNumber, inventoryNumber, button, PICKUP_ALL, player);
-			INSTANCE.sendToServer(SLOT_CLICK_PACKET, createSlotClickPacket(container.syncId, slotNumber, inventoryNumber, button, PICKUP_ALL));
+			int sequence = container.predict(() -> container.onSlotAction(slotNumber, inventoryNumber, button, PICKUP_ALL, player));
+			INSTANCE.sendToServer(SLOT_CLICK_PACKET, createSlotClickPacket(container.syncId, sequence, slotNumber, inventoryNumber, button, PICKUP_ALL));
 		} else {
 			nanoUpdate();
 
 			if (Screen.hasShiftDown()) {
 				if (button == LEFT) {
 					getInterface().getCachedWidgets().put(getClass(), this);
-					container.onSlotAction(slotNumber, inventoryNumber, button, QUICK_MOVE, player);
-					INSTANCE.sendToServer(SLOT_CLICK_PACKET, createSlotClickPacket(container.syncId, slotNumber, inventoryNumber, button, QUICK_MOVE));
+					int sequence = container.predict(() -> container.onSlotAction(slotNumber, inventoryNumber, button, QUICK_MOVE, player));
+					INSTANCE.sendToServer(SLOT_CLICK_PACKET, createSlotClickPacket(container.syncId, sequence, slotNumber, inventoryNumber, button, QUICK_MOVE));
 				}
 			} else {
 				if ((button == LEFT || button == RIGHT) && isCursorEmpty) {
 					skipRelease = true;
-					container.onSlotAction(slotNumber, inventoryNumber, button, PICKUP, player);
-					INSTANCE.sendToServer(SLOT_CLICK_PACKET, createSlotClickPacket(container.syncId, slotNumber, inventoryNumber, button, PICKUP));
+					int sequence = container.predict(() -> container.onSlotAction(slotNumber, inventoryNumber, button, PICKUP, player));
+					INSTANCE.sendToServer(SLOT_CLICK_PACKET, createSlotClickPacket(container.syncId, sequence, slotNumber, inventoryNumber, button, PICKUP));
 				} else if (button == MIDDLE) {
-					container.onSlotAction(slotNumber, inventoryNumber, button, CLONE, player);
-					INSTANCE.sendToServer(SLOT_CLICK_PACKET, createSlotClickPacket(container.syncId, slotNumber, inventoryNumber, button, CLONE));
+					int sequence = container.predict(() -> container.onSlotAction(slotNumber, inventoryNumber, button, CLONE, player));
+					INSTANCE.sendToServer(SLOT_CLICK_PACKET, createSlotClickPacket(container.syncId, sequence, slotNumber, inventoryNumber, button, CLONE));
 				}
 			}
 		}
@@ -274,26 +328,22 @@ public class WSlot extends WAbstractWidget {
 
 		boolean isCached = getInterface().getCachedWidgets().get(getClass()) == this;
 
-		int[] slotNumbers = container.getDragSlots(button).stream().mapToInt(WSlot::getSlotNumber).toArray();
-		int[] inventoryNumbers = container.getDragSlots(button).stream().mapToInt(WSlot::getInventoryNumber).toArray();
-
 		if (Screen.hasShiftDown()) {
 			if (button == LEFT && !isCached) {
 				getInterface().getCachedWidgets().put(getClass(), this);
-				container.onSlotAction(slotNumber, inventoryNumber, button, QUICK_MOVE, player);
-				INSTANCE.sendToServer(SLOT_CLICK_PACKET, createSlotClickPacket(container.syncId, slotNumber, inventoryNumber, button, QUICK_MOVE));
+				int sequence = container.predict(() -> container.onSlotAction(slotNumber, inventoryNumber, button, QUICK_MOVE, player));
+				INSTANCE.sendToServer(SLOT_CLICK_PACKET, createSlotClickPacket(container.syncId, sequence, slotNumber, inventoryNumber, button, QUICK_MOVE));
 			}
 		} else {
 			if ((button == LEFT || button == RIGHT) && nanoInterval() > nanoDelay()) {
-				if (!container.getDragSlots(button).isEmpty()) {
-					ItemStack stackA = container.getDragSlots(button).iterator().next().getStack();
-					ItemStack stackB = getStack();
+				ItemStack stackA = player.inventory.getCursorStack();
+				ItemStack stackB = getStack();
 
-					if ((stackA.getItem() != stackB.getItem() || stackA.getTag() != stackB.getTag())) return;
-				}
+				if (stackA.isEmpty() || refuses(stackA) || (!stackB.isEmpty() && !StackUtilities.equalItemAndTag(stackA, stackB))) return;
 
-				container.getDragSlots(button).add(this);
-				container.onSlotDrag(slotNumbers, inventoryNumbers, Action.of(button, false));
+				if (container.getDragSlots(button).add(this)) {
+					container.onSlotDrag(container.getDragSlots(button), Action.of(button, false));
+				}
 			}
 		}
 
@@ -319,11 +369,13 @@ public class WSlot extends WAbstractWidget {
 
 	public <W extends WSlot> W setInventoryNumber(int inventoryNumber) {
 		this.inventoryNumber = inventoryNumber;
+		if (getInterface() != null) getInterface().onSlotsChanged();
 		return (W) this;
 	}
 
 	public <W extends WSlot> W setSlotNumber(int slotNumber) {
 		this.slotNumber = slotNumber;
+		if (getInterface() != null) getInterface().onSlotsChanged();
 		return (W) this;
 	}
 
@@ -344,11 +396,14 @@ public class WSlot extends WAbstractWidget {
 	}
 
 	public ItemStack getPreviewStack() {
-		getInterface().getContainer().getPreviewStacks().putIfAbsent(getInventoryNumber(), new HashMap<>());
-		return getInterface().getContainer().getPreviewStacks().get(getInventoryNumber()).getOrDefault(getSlotNumber(), ItemStack.EMPTY);
+		return getInterface().getContainer().getPreviewStacks().getOrDefault(getInventoryNumber(), getSlotNumber(), ItemStack.EMPTY);
 	}
 
 	public ItemStack getStack() {
+		if (getInterface() != null && getInterface().getContainer() != null) {
+			getInterface().getContainer().onSlotAccessed(this);
+		}
+
 		try {
 			ItemStack stackA = getLinkedInventory().getInvStack(getSlotNumber());
 			;
@@ -374,8 +429,12 @@ public class WSlot extends WAbstractWidget {
 	}
 
 	public <W extends WSlot> W setStack(ItemStack stack) {
+		BaseContainer container = getInterface().getContainer();
+
 		try {
+			container.onSlotAccessed(this);
 			getLinkedInventory().setInvStack(slotNumber, stack);
+			container.onSlotTouched(this);
 			if (!isOverrideMaximumCount()) {
 				setMaximumCount(stack.getMaxCount());
 			}
@@ -400,8 +459,7 @@ public class WSlot extends WAbstractWidget {
 	}
 
 	public <W extends WSlot> W setPreviewStack(ItemStack previewStack) {
-		getInterface().getContainer().getPreviewStacks().putIfAbsent(getInventoryNumber(), new HashMap<>());
-		getInterface().getContainer().getPreviewStacks().get(getInventoryNumber()).put(getSlotNumber(), previewStack);
+		getInterface().getContainer().getPreviewStacks().put(getInventoryNumber(), getSlotNumber(), previewStack);
 		return (W) this;
 	}
 
@@ -0,0 +1,390 @@
+package spinnery.widget;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.nbt.CompoundTag;
+import spinnery.common.container.BaseContainer;
+import spinnery.common.container.InventoryQuery;
+import spinnery.common.registry.NetworkRegistry;
+import spinnery.widget.api.*;
+
+import java.util.*;
+
+/**
+ * A WSlotGrid is a scrollable grid of WSlots
+ * over a range of slots of an inventory, which
+ * only materializes the WSlots of its visible rows.
+ * <p>
+ * Only visible WSlots are children of the grid,
+ * and only those are kept; quick moves, transfers
+ * and indexes of the linked container cover its
+ * whole range of slots, through WSlots of hidden
+ * rows created on demand when looked up through
+ * {@link WInterface#getSlot(int, int)}, which are
+ * discarded after use.
+ * <p>
+ * The row offset is sent to the server whenever
+ * it changes, such that both sides agree on
+ * which WSlots are visible.
+ * <p>
+ * While the linked container has an InventoryQuery
+ * over the inventory, the grid displays its results
+ * within its range of slots, in their order, requesting
+ * pages of results from the server as they are scrolled
+ * to; a query only reorders the slots of the range.
+ */
+@SuppressWarnings("unchecked")
+public class WSlotGrid extends WAbstractNetworkedWidget implements WCollection, WDelegatedEventListener {
+	protected int inventoryNumber;
+	protected int slotOffset = 0;
+	protected int slotCount = 0;
+	protected int columns = 9;
+	protected int visibleRows = 6;
+	protected int rowOffset = 0;
+	protected int cellSize = 18;
+	protected Map<Integer, WSlot> cells = new HashMap<>();
+	protected Set<WAbstractWidget> visibleCells = new LinkedHashSet<>();
+
+	public int getInventoryNumber() {
+		return inventoryNumber;
+	}
+
+	public <W extends WSlotGrid> W setInventoryNumber(int inventoryNumber) {
+		this.inventoryNumber = inventoryNumber;
+		cells.clear();
+		updateCells();
+		return (W) this;
+	}
+
+	public int getSlotOffset() {
+		return slotOffset;
+	}
+
+	/**
+	 * Sets the range of slots of the linked inventory displayed by this grid.
+	 *
+	 * @param slotOffset Number of the first slot.
+	 * @param slotCount  Amount of slots.
+	 */
+	public <W extends WSlotGrid> W setSlots(int slotOffset, int slotCount) {
+		this.slotOffset = slotOffset;
+		this.slotCount = Math.max(0, slotCount);
+		cells.clear();
+		updateCells();
+		return (W) this;
+	}
+
+	public int getSlotCount() {
+		return slotCount;
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
+	public <W extends WSlotGrid> W setColumns(int columns) {
+		this.columns = Math.max(1, columns);
+		updateCells();
+		return (W) this;
+	}
+
+	public int getVisibleRows() {
+		return visibleRows;
+	}
+
+	public <W extends WSlotGrid> W setVisibleRows(int visibleRows) {
+		this.visibleRows = Math.max(1, visibleRows);
+		updateCells();
+		return (W) this;
+	}
+
+	public int getCellSize() {
+		return cellSize;
+	}
+
+	public <W extends WSlotGrid> W setCellSize(int cellSize) {
+		this.cellSize = cellSize;
+		updateCells();
+		return (W) this;
+	}
+
+	/**
+	 * Retrieves the active query over the inventory of this grid.
+	 *
+	 * @return The active InventoryQuery; null if there is none.
+	 */
+	public InventoryQuery getQuery() {
+		BaseContainer container = getInterface() == null ? null : getInterface().getContainer();
+
+		return container == null ? null : container.getQuery(inventoryNumber);
+	}
+
+	/**
+	 * Requests a query over the inventory of this grid from the server.
+	 *
+	 * @param search Search string, matched against Item identifiers; empty to match everything.
+	 * @param sort   Sort key.
+	 */
+	@Environment(EnvType.CLIENT)
+	public void setQuery(String search, InventoryQuery.Sort sort) {
+		if (getInterface() != null && getInterface().getContainer() != null) {
+			getInterface().getContainer().requestQuery(inventoryNumber, search, sort);
+		}
+	}
+
+	/**
+	 * Retrieves the amount of entries of this grid: the results of
+	 * the active query if there is one, its slots otherwise.
+	 *
+	 * @return The amount of entries.
+	 */
+	public int getEntryCount() {
+		InventoryQuery query = getQuery();
+
+		return query == null ? slotCount : query.getSize();
+	}
+
+	/**
+	 * Retrieves the total amount of rows of this grid, visible or not.
+	 *
+	 * @return The amount of rows.
+	 */
+	public int getRowCount() {
+		return (getEntryCount() + columns - 1) / columns;
+	}
+
+	public int getMaximumRowOffset() {
+		return Math.max(0, getRowCount() - visibleRows);
+	}
+
+	public int getRowOffset() {
+		return rowOffset;
+	}
+
+	/**
+	 * Sets the first visible row of this grid, clamped to its rows. On the client,
+	 * the new offset is sent to the server. As the range of slots of this grid does
+	 * not depend on it, only the WSlots shown are compared by the linked container.
+	 *
+	 * @param rowOffset Number of the first visible row.
+	 */
+	public <W extends WSlotGrid> W setRowOffset(int rowOffset) {
+		rowOffset = Math.max(0, Math.min(rowOffset, getMaximumRowOffset()));
+
+		if (this.rowOffset != rowOffset) {
+			this.rowOffset = rowOffset;
+			updateCells();
+
+			if (getInterface() != null && getInterface().isClient()) {
+				CompoundTag payload = new CompoundTag();
+				payload.putInt("rowOffset", rowOffset);
+				NetworkRegistry.sendCustomInterfaceEvent(this, payload);
+			}
+		}
+
+		return (W) this;
+	}
+
+	/**
+	 * Asserts whether a slot of an inventory is displayed by this grid, visible or not.
+	 *
+	 * @param inventoryNumber Inventory number of the slot.
+	 * @param slotNumber      Number of the slot.
+	 * @return True if displayed; false if not.
+	 */
+	public boolean contains(int inventoryNumber, int slotNumber) {
+		return this.inventoryNumber == inventoryNumber && slotNumber >= slotOffset && slotNumber < slotOffset + slotCount;
+	}
+
+	/**
+	 * Retrieves the number of the first slot displayed by this grid, visible or not.
+	 *
+	 * @return The number of the first slot.
+	 */
+	public int getRangeOffset() {
+		return slotOffset;
+	}
+
+	/**
+	 * Retrieves the amount of slots displayed by this grid, visible or not.
+	 *
+	 * @return The amount of slots.
+	 */
+	public int getRangeSize() {
+		return slotCount;
+	}
+
+	/**
+	 * Retrieves the WSlot of a slot displayed by this grid. WSlots of
+	 * visible rows are kept for as long as they are visible; those of
+	 * hidden rows are created anew on every call, and not kept.
+	 *
+	 * @param slotNumber Number of the slot.
+	 * @return The WSlot of the slot; null if not displayed by this grid.
+	 */
+	public WSlot getCell(int slotNumber) {
+		if (!contains(inventoryNumber, slotNumber)) {
+			return null;
+		}
+
+		WSlot cell = cells.get(slotNumber);
+
+		return cell == null ? createCell(slotNumber) : cell;
+	}
+
+	protected WSlot createCell(int slotNumber) {
+		WSlot cell = new WSlot();
+		cell.setInterface(getInterface());
+		cell.setParent(this);
+		cell.inventoryNumber = inventoryNumber;
+		cell.slotNumber = slotNumber;
+		cell.size = Size.of(cellSize, cellSize);
+		return cell;
+	}
+
+	/**
+	 * Materializes the WSlots of the visible rows, positioning them
+	 * within this grid, and discards those of hidden rows, notifying
+	 * the interface when they change. On the client, results of the
+	 * active query which were not received yet are requested, along
+	 * with the page after them.
+	 */
+	protected void updateCells() {
+		InventoryQuery query = getQuery();
+
+		rowOffset = Math.min(rowOffset, getMaximumRowOffset());
+
+		int first = rowOffset * columns;
+		int last = Math.min(getEntryCount(), first + visibleRows * columns);
+
+		Set<Integer> visibleSlots = new HashSet<>();
+		List<WSlot> shownCells = new ArrayList<>();
+
+		visibleCells.clear();
+
+		for (int index = first; index < last; ++index) {
+			int slotNumber = query == null ? slotOffset + index : query.getSlot(index);
+
+			if (slotNumber < 0) {
+				requestPage(index / InventoryQuery.PAGE_SIZE);
+				continue;
+			}
+
+			if (!contains(inventoryNumber, slotNumber) || !visibleSlots.add(slotNumber)) continue;
+
+			int position = index - first;
+
+			WSlot cell = cells.get(slotNumber);
+
+			if (cell == null) {
+				cell = createCell(slotNumber);
+				cells.put(slotNumber, cell);
+				shownCells.add(cell);
+			}
+
+			cell.size = Size.of(cellSize, cellSize);
+			cell.position = Position.of(this, (position % columns) * cellSize, (position / columns) * cellSize, 0);
+
+			visibleCells.add(cell);
+		}
+
+		boolean isHidden = cells.keySet().retainAll(visibleSlots);
+
+		if ((isHidden || !shownCells.isEmpty()) && getInterface() != null) {
+			getInterface().onCellsChanged(this, shownCells);
+		}
+
+		if (query != null && last < query.getSize()) {
+			requestPage(last / InventoryQuery.PAGE_SIZE);
+		}
+	}
+
+	protected void requestPage(int page) {
+		if (getInterface() != null && getInterface().isClient() && getInterface().getContainer() != null) {
+			getInterface().getContainer().requestQueryPage(inventoryNumber, page);
+		}
+	}
+
+	/**
+	 * Method called when the active query over the inventory of this
+	 * grid, or its results, change.
+	 *
+	 * @param isReset Whether the query was replaced, such that this grid scrolls back to its top.
+	 */
+	public void onQueryChanged(boolean isReset) {
+		if (isReset) {
+			rowOffset = 0;
+		}
+
+		updateCells();
+	}
+
+	@Override
+	public <W extends WAbstractWidget> W setInterface(WInterface linkedInterface) {
+		super.setInterface(linkedInterface);
+
+		for (WSlot cell : cells.values()) {
+			cell.setInterface(linkedInterface);
+		}
+
+		return (W) this;
+	}
+
+	@Override
+	public Set<WAbstractWidget> getWidgets() {
+		return visibleCells;
+	}
+
+	@Override
+	public boolean contains(WAbstractWidget... widgets) {
+		return visibleCells.containsAll(Arrays.asList(widgets));
+	}
+
+	@Override
+	public Collection<? extends WEventListener> getEventDelegates() {
+		return visibleCells;
+	}
+
+	@Override
+	public void onInterfaceEvent(Event event, CompoundTag payload) {
+		if (event == Event.CUSTOM && payload.contains("rowOffset")) {
+			setRowOffset(payload.getInt("rowOffset"));
+		}
+
+		super.onInterfaceEvent(event, payload);
+	}
+
+	@Environment(EnvType.CLIENT)
+	@Override
+	public void onMouseScrolled(float mouseX, float mouseY, double deltaY) {
+		if (isWithinBounds(mouseX, mouseY) && deltaY != 0) {
+			setRowOffset(rowOffset - (int) Math.signum(deltaY));
+		}
+
+		super.onMouseScrolled(mouseX, mouseY, deltaY);
+	}
+
+	@Environment(EnvType.CLIENT)
+	@Override
+	public float getWidth() {
+		return columns * cellSize;
+	}
+
+	@Environment(EnvType.CLIENT)
+	@Override
+	public float getHeight() {
+		return visibleRows * cellSize;
+	}
+
+	@Environment(EnvType.CLIENT)
+	@Override
+	public void draw() {
+		if (isHidden()) {
+			return;
+		}
+
+		for (WAbstractWidget cell : visibleCells) {
+			cell.draw();
+		}
+	}
+}
@@ -7,6 +7,7 @@ import net.minecraft.item.ItemConvertible;
 import net.minecraft.text.Text;
 
 import spinnery.client.render.TextRenderer;
+import spinnery.client.utility.ScissorArea;
 import spinnery.widget.api.*;
 
 import java.util.*;
@@ -125,11 +126,15 @@ public class WTabHolder extends WAbstractWidget implements WCollection, WDelegat
 		}
 
 		for (WTab tab : tabs) {
-			tab.getToggle().draw();
+			if (ScissorArea.isVisible(tab.getToggle())) {
+				tab.getToggle().draw();
+			}
 		}
 
 		for (WTab tab : tabs) {
-			tab.draw();
+			if (ScissorArea.isVisible(tab.body)) {
+				tab.draw();
+			}
 		}
 	}
 
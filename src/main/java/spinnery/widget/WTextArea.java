@@ -4,15 +4,12 @@ import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import org.lwjgl.glfw.GLFW;
 import spinnery.client.render.BaseRenderer;
-import spinnery.client.render.TextRenderer;
-
-import java.util.ArrayList;
-import java.util.List;
+import spinnery.client.utility.WrapLayout;
 
 @Environment(EnvType.CLIENT)
 public class WTextArea extends WAbstractTextEditor {
-	// Keep track of which lines are "wrapped" and which are hard newlines
-	protected final List<Boolean> newLine = new ArrayList<>();
+	// Keep track of how lines wrap, and which visual lines end with hard newlines
+	protected final WrapLayout layout = new WrapLayout(document);
 	protected boolean lineWrap;
 
 	public boolean getLineWrap() {
@@ -22,6 +19,7 @@ public class WTextArea extends WAbstractTextEditor {
 	@SuppressWarnings("unchecked")
 	public <W extends WTextArea> W setLineWrap(boolean lineWrap) {
 		this.lineWrap = lineWrap;
+		onTextChanged();
 		return (W) this;
 	}
 
@@ -40,13 +38,16 @@ public class WTextArea extends WAbstractTextEditor {
 
 		BaseRenderer.drawBeveledPanel(x, y, z, sX, sY, getStyle().asColor("top_left"), getStyle().asColor("background"), getStyle().asColor("bottom_right"));
 
-		if (lineWrap && xOffset != 0) xOffset = 0;
+		if (lineWrap) {
+			if (xOffset != 0) xOffset = 0;
+			updateLayoutWidth();
+		}
 		renderField();
 	}    // Essentially this function checks if a given line is a true "new" line, or if it's wrapped.
 
 	// This is useful e.g. for line numbering
 	protected boolean hasNewline(int index) {
-		return lineWrap ? newLine.get(index) : true;
+		return !lineWrap || layout.isLogicalLineEnd(index);
 	}
 
 	@Override
@@ -54,45 +55,65 @@ public class WTextArea extends WAbstractTextEditor {
 		return getLineLength(index) + (hasNewline(index) ? 1 : 0);
 	}
 
+	@Override
+	public int getLineCount() {
+		return lineWrap ? layout.getVisualLineCount() : super.getLineCount();
+	}
+
+	@Override
+	public String getLine(int index) {
+		if (!lineWrap) return super.getLine(index);
+		if (index < 0 || index > getLineCount() - 1) return "";
+		return layout.getVisualLine(index);
+	}
+
+	@Override
+	protected int getLineLength(int index) {
+		if (!lineWrap) return super.getLineLength(index);
+		if (index < 0 || index > getLineCount() - 1) return 0;
+		return layout.getVisualLineLength(index);
+	}
+
 	@Override
 	protected int getStringIndex(Cursor cursor) {
-		int i = 0;
-		for (int y = 0; y < cursor.y; y++) {
-			i += getNewlinedLineLength(y);
-		}
-		i += cursor.x;
-		return i;
+		if (!lineWrap) return super.getStringIndex(cursor);
+		if (cursor.y < 0) return cursor.x;
+		if (cursor.y > getLineCount() - 1) return document.length() + cursor.x;
+		return layout.getVisualLineStart(cursor.y) + cursor.x;
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public WTextArea setText(String text) {
+		return super.setText(text);
+	}
+
+	@Override
+	protected void onTextChanged() {
 		if (lineWrap) {
-			lines.clear();
-			newLine.clear();
-			this.text = text;
-			StringBuilder currentLine = new StringBuilder();
-			int lineWidth = 0;
-			for (char c : text.toCharArray()) {
-				lineWidth += Math.round(TextRenderer.width(c) * scale);
-				if (lineWidth > getInnerSize().getWidth() || c == '\n') {
-					lines.add(currentLine.toString());
-					newLine.add(c == '\n');
-					lineWidth = (int) Math.round(TextRenderer.width(c) * scale);
-					currentLine = new StringBuilder();
-				}
-				if (c != '\n') currentLine.append(c);
-			}
-			String finalLine = currentLine.toString();
-			if (!finalLine.isEmpty() || text.endsWith("\n")) {
-				newLine.add(text.endsWith("\n"));
-				lines.add(finalLine);
-				newLine.add(true);
-			}
-		} else {
-			super.setText(text);
+			updateLayoutWidth();
+			layout.invalidate();
 		}
-		return this;
+		super.onTextChanged();
+	}
+
+	@Override
+	protected void onLinesChanged(int line, int removed, int added) {
+		if (!lineWrap) {
+			super.onLinesChanged(line, removed, added);
+			return;
+		}
+		updateLayoutWidth();
+		layout.onLinesChanged(line, removed, added);
+		lineCache.invalidate();
+	}
+
+	/**
+	 * Updates the width the layout wraps lines at, which
+	 * re-wraps all lines if the inner width or scale changed.
+	 */
+	protected void updateLayoutWidth() {
+		layout.setWidth(getInnerSize().getWidth(), scale);
 	}
 
 	@Override
@@ -28,6 +28,15 @@ public class WTextField extends WAbstractTextEditor {
 		return (W) super.setText(finalText);
 	}
 
+	@Override
+	protected void insertText(String insert) {
+		String finalInsert = insert.replaceAll("\n", "");
+		if (fixedLength != null && fixedLength >= 0) {
+			finalInsert = finalInsert.substring(0, Math.max(0, Math.min(finalInsert.length(), fixedLength - document.length())));
+		}
+		super.insertText(finalInsert);
+	}
+
 	@Override
 	public void draw() {
 		if (isHidden()) {
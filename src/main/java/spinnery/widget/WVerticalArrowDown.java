@@ -28,7 +28,7 @@ public class WVerticalArrowDown extends WButton {
 	public void onMouseClicked(float mouseX, float mouseY, int mouseButton) {
 		if (isWithinBounds(mouseX, mouseY)) {
 			if (scrollable.hasSmoothing()) {
-				scrollable.kineticScrollDelta -= 2.5;
+				scrollable.addKineticScrollDelta(-2.5f);
 			} else {
 				scrollable.scroll(0, -25);
 			}
@@ -41,7 +41,7 @@ public class WVerticalArrowDown extends WButton {
 	public void tick() {
 		if (isHeld() && System.currentTimeMillis() - isHeldSince() > 500) {
 			if (scrollable.hasSmoothing()) {
-				scrollable.kineticScrollDelta -= 0.4;
+				scrollable.addKineticScrollDelta(-0.4f);
 			} else {
 				scrollable.scroll(0, -0.25);
 			}
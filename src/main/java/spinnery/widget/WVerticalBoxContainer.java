@@ -176,9 +176,7 @@ public class WVerticalBoxContainer extends WAbstractWidget implements WDrawableC
 
 		ScissorArea area = new ScissorArea(this);
 
-		for (WAbstractWidget widget : widgets) {
-			widget.draw();
-		}
+		drawWidgets();
 
 		if (hasBorder()) {
 			BaseRenderer.drawRectangle(getX(), getY(), getZ(), getWidth(), outerBorderWidth, getStyle().asColor("border"));
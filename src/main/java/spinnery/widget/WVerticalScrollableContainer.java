@@ -4,6 +4,8 @@ import com.google.common.collect.ImmutableSet;
 import org.lwjgl.glfw.GLFW;
 import spinnery.client.integration.SpinneryConfigurationScreen;
 import spinnery.client.render.BaseRenderer;
+import spinnery.client.utility.AnimationScheduler;
+import spinnery.client.utility.ContentBounds;
 import spinnery.client.utility.ScissorArea;
 import spinnery.common.utility.MouseUtilities;
 import spinnery.widget.api.*;
@@ -12,6 +14,12 @@ import java.util.*;
 
 @SuppressWarnings({"UnusedReturnValue", "unchecked"})
 public class WVerticalScrollableContainer extends WAbstractWidget implements WDrawableCollection, WModifiableCollection, WVerticalScrollable, WDelegatedEventListener {
+	/**
+	 * Frames per tick at the frame rate the kinetic
+	 * and drag scrolling coefficients were tuned for.
+	 */
+	public static final float FRAMES_PER_TICK = 3;
+
 	protected Set<WAbstractWidget> widgets = new HashSet<>();
 	protected List<WLayoutElement> orderedWidgets = new ArrayList<>();
 
@@ -50,6 +58,21 @@ public class WVerticalScrollableContainer extends WAbstractWidget implements WDr
 
 	protected boolean hasArrows = SpinneryConfigurationScreen.arrows.getValue();
 
+	protected WRowSource<WAbstractWidget> rowSource;
+	protected float rowHeight = 18;
+	protected int overscan = 2;
+	protected Map<Integer, WAbstractWidget> boundRows = new HashMap<>();
+	protected Deque<WAbstractWidget> recycledRows = new ArrayDeque<>();
+	protected boolean isUpdatingRows = false;
+
+	protected ContentBounds contentBounds = new ContentBounds(this::getWidgets, (widget, extent) -> {
+		extent[1] = widget.getOffsetY();
+		extent[3] = widget.getOffsetY() + widget.getHeight() + getDivisionSpace();
+	});
+	protected boolean isChangingChildren = false;
+
+	protected AnimationScheduler.Animation kineticAnimation = this::stepKinetic;
+
 	public WVerticalScrollableContainer() {
 		scrollbar = new WVerticalScrollbar().setScrollable(this).setParent(this);
 	}
@@ -104,6 +127,7 @@ public class WVerticalScrollableContainer extends WAbstractWidget implements WDr
 
 	public <W extends WVerticalScrollableContainer> W setDivisionSpace(float divisionSpace) {
 		this.divisionSpace = divisionSpace;
+		contentBounds.invalidate();
 		return (W) this;
 	}
 
@@ -176,9 +200,20 @@ public class WVerticalScrollableContainer extends WAbstractWidget implements WDr
 
 	public <W extends WVerticalScrollableContainer> W setKineticScrollDelta(float kineticScrollDelta) {
 		this.kineticScrollDelta = kineticScrollDelta;
+		AnimationScheduler.schedule(kineticAnimation);
 		return (W) this;
 	}
 
+	/**
+	 * Adds to the kinetic scroll delta of this container, and
+	 * schedules its kinetic scrolling if it was at rest.
+	 *
+	 * @param delta Delta to be added.
+	 */
+	public <W extends WVerticalScrollableContainer> W addKineticScrollDelta(float delta) {
+		return setKineticScrollDelta(kineticScrollDelta + delta);
+	}
+
 	public float getKineticReductionCoefficient() {
 		return kineticReductionCoefficient;
 	}
@@ -212,6 +247,7 @@ public class WVerticalScrollableContainer extends WAbstractWidget implements WDr
 
 	public <W extends WVerticalScrollableContainer> W setDragScrolling(boolean dragScrolling) {
 		isDragScrolling = dragScrolling;
+		if (dragScrolling) AnimationScheduler.schedule(kineticAnimation);
 		return (W) this;
 	}
 
@@ -242,17 +278,159 @@ public class WVerticalScrollableContainer extends WAbstractWidget implements WDr
 		return (W) this;
 	}
 
+	/**
+	 * Retrieves the data source of this container, if it is virtualized.
+	 *
+	 * @return The row source; null if not virtualized.
+	 */
+	public WRowSource<WAbstractWidget> getRowSource() {
+		return rowSource;
+	}
+
+	/**
+	 * Virtualizes this container: instead of holding its children, it
+	 * materializes the rows of a data source which intersect its viewport,
+	 * plus an overscan, recycling them as they scroll out of view. While
+	 * virtualized, children must not be added or removed manually.
+	 *
+	 * @param rowSource Data source of the rows; null to stop virtualizing.
+	 * @param rowHeight Height of every row.
+	 */
+	public <W extends WVerticalScrollableContainer> W setRowSource(WRowSource<? extends WAbstractWidget> rowSource, float rowHeight) {
+		widgets.removeAll(boundRows.values());
+		boundRows.clear();
+		recycledRows.clear();
+
+		this.rowSource = (WRowSource<WAbstractWidget>) rowSource;
+		this.rowHeight = rowHeight;
+
+		offsetY = 0;
+		updateChildren();
+		return (W) this;
+	}
+
+	public boolean isVirtualized() {
+		return rowSource != null;
+	}
+
+	public float getRowHeight() {
+		return rowHeight;
+	}
+
+	public int getOverscan() {
+		return overscan;
+	}
+
+	public <W extends WVerticalScrollableContainer> W setOverscan(int overscan) {
+		this.overscan = Math.max(0, overscan);
+		return (W) this;
+	}
+
+	/**
+	 * Rebinds all materialized rows, and clamps the scroll offset to the
+	 * new amount of rows. Must be called whenever the data of the row
+	 * source changes.
+	 */
+	public void onRowsChanged() {
+		if (!isVirtualized()) {
+			return;
+		}
+
+		for (WAbstractWidget row : boundRows.values()) {
+			widgets.remove(row);
+			recycledRows.push(row);
+		}
+
+		boundRows.clear();
+
+		offsetY = Math.max(0, Math.min(offsetY, getBottomWidgetOffsetY() - getHeight() + 1));
+
+		updateChildren();
+	}
+
+	/**
+	 * Materializes the rows intersecting the viewport, plus the overscan,
+	 * recycling those which fell out of it, and positions them.
+	 */
+	protected void updateRows() {
+		if (isUpdatingRows) {
+			return;
+		}
+
+		isUpdatingRows = true;
+
+		float rowSpace = rowHeight + getDivisionSpace();
+		int rowCount = rowSource.getRowCount();
+
+		int first = Math.max(0, (int) Math.floor((offsetY - getDivisionSpace()) / rowSpace) - overscan);
+		int last = Math.min(rowCount - 1, (int) Math.ceil((offsetY + getHeight()) / rowSpace) + overscan);
+
+		boolean isChanged = false;
+
+		for (Iterator<Map.Entry<Integer, WAbstractWidget>> iterator = boundRows.entrySet().iterator(); iterator.hasNext(); ) {
+			Map.Entry<Integer, WAbstractWidget> entry = iterator.next();
+
+			if (entry.getKey() < first || entry.getKey() > last) {
+				widgets.remove(entry.getValue());
+				recycledRows.push(entry.getValue());
+				iterator.remove();
+				isChanged = true;
+			}
+		}
+
+		for (int index = first; index <= last; ++index) {
+			WAbstractWidget row = boundRows.get(index);
+
+			if (row == null) {
+				row = recycledRows.isEmpty() ? createRow() : recycledRows.pop();
+				rowSource.bindRow(row, index);
+				boundRows.put(index, row);
+				widgets.add(row);
+				isChanged = true;
+			}
+
+			float rowOffsetY = getDivisionSpace() + index * rowSpace;
+
+			row.getPosition().setOffsetX(getDivisionSpace());
+			row.getPosition().setOffsetY(rowOffsetY);
+			row.getPosition().setY(-offsetY + rowOffsetY + getY());
+			row.setHidden(!(isWithinBounds(row.getX(), row.getY(), 1) || isWithinBounds(row.getX() + row.getWidth(), row.getY() + row.getHeight(), 1)));
+		}
+
+		if (isChanged) {
+			recalculateCache();
+		}
+
+		isUpdatingRows = false;
+	}
+
+	protected WAbstractWidget createRow() {
+		WAbstractWidget row = rowSource.createRow();
+		row.setInterface(getInterface());
+		row.setPosition(Position.of(this));
+		row.setParent(this);
+		return row;
+	}
+
 	protected float getBottomWidgetY() {
-		return (float) getWidgets().stream().mapToDouble(widget -> widget.getY() + widget.getHeight()).max().orElse(0);
+		if (isVirtualized()) {
+			return getY() - offsetY + rowSource.getRowCount() * (rowHeight + getDivisionSpace());
+		}
+
+		return contentBounds.isEmpty() ? 0 : getY() - offsetY + contentBounds.getBottom() - getDivisionSpace();
 	}
 
 	protected float getBottomWidgetOffsetY() {
-		return (float) getWidgets().stream().mapToDouble(widget -> widget.getOffsetY() + widget.getHeight() + getDivisionSpace()).max().orElse(0);
+		if (isVirtualized()) {
+			return getDivisionSpace() + rowSource.getRowCount() * (rowHeight + getDivisionSpace());
+		}
+
+		return contentBounds.isEmpty() ? 0 : contentBounds.getBottom();
 	}
 
 	@Override
 	public void scroll(double deltaX, double deltaY) {
-		if (getWidgets().isEmpty()) {
+		if (isVirtualized() ? rowSource.getRowCount() == 0 : getWidgets().isEmpty()) {
 			return;
 		}
 
@@ -276,6 +454,11 @@ public class WVerticalScrollableContainer extends WAbstractWidget implements WDr
 	}
 
 	public void updateChildren() {
+		if (isVirtualized()) {
+			updateRows();
+			return;
+		}
+
 		for (WAbstractWidget widget : getWidgets()) {
 			widget.getPosition().setY(-offsetY + widget.getOffsetY() + getY());
 			boolean startContained = isWithinBounds(widget.getX(), widget.getY(), 1) || isWithinBounds(widget.getX() + widget.getWidth(), widget.getY() + widget.getHeight(), 1);
@@ -362,19 +545,27 @@ public class WVerticalScrollableContainer extends WAbstractWidget implements WDr
 	public void add(WAbstractWidget... widgetArray) {
 		widgets.addAll(Arrays.asList(widgetArray));
 
+		onChildrenChanged(widgetArray);
+	}
+
+	/**
+	 * Method called when children were added, measuring them into
+	 * the content bounds instead of re-measuring all children.
+	 *
+	 * @param widgetArray Children which were added.
+	 */
+	protected void onChildrenChanged(WAbstractWidget... widgetArray) {
+		contentBounds.add(widgetArray);
+
+		isChangingChildren = true;
 		onLayoutChange();
+		isChangingChildren = false;
 	}
 
 	public void addRow(WAbstractWidget... widgetArray) {
-		float maxY = 0;
+		float maxY = contentBounds.isEmpty() ? 0 : contentBounds.getBottom() - getDivisionSpace();
 		float maxX = 0;
 
-		for (WAbstractWidget widget : getWidgets()) {
-			if (widget.getOffsetY() > maxY) {
-				maxY = widget.getOffsetY() + widget.getHeight();
-			}
-		}
-
 		for (WAbstractWidget widget : widgetArray) {
 			widget.setPosition(Position.of(this));
 
@@ -386,33 +577,45 @@ public class WVerticalScrollableContainer extends WAbstractWidget implements WDr
 
 		widgets.addAll(Arrays.asList(widgetArray));
 
-		onLayoutChange();
+		onChildrenChanged(widgetArray);
 	}
 
+	/**
+	 * Removes children, shifting the rows below each removed row up. The
+	 * content bounds are updated for the removed and shifted children only,
+	 * and the scroll offset and children are updated once, after all
+	 * children were removed.
+	 *
+	 * @param widgetArray Children to be removed.
+	 */
 	@Override
 	public void remove(WAbstractWidget... widgetArray) {
 		widgets.removeAll(Arrays.asList(widgetArray));
+		contentBounds.remove(widgetArray);
 
 		for (WAbstractWidget widgetA : widgetArray) {
 			if (widgets.stream().noneMatch(widgetB -> widgetA != widgetB && widgetA.getY() == widgetB.getY())) {
 				for (WAbstractWidget widgetC : widgets) {
 					if (widgetC.getOffsetY() > widgetA.getOffsetY()) {
 						widgetC.getPosition().setOffsetY(widgetC.getOffsetY() - widgetC.getHeight() - getDivisionSpace());
+						contentBounds.update(widgetC);
 					}
 				}
 			}
+		}
 
-			float bottomY = getBottomWidgetOffsetY();
-
-			if (offsetY + getHeight() > bottomY) {
-				offsetY = bottomY - getHeight();
-			}
+		float bottomY = getBottomWidgetOffsetY();
 
-			updateChildren();
-			updateChildrenFocus();
+		if (offsetY + getHeight() > bottomY) {
+			offsetY = bottomY - getHeight();
 		}
 
+		updateChildren();
+		updateChildrenFocus();
+
+		isChangingChildren = true;
 		onLayoutChange();
+		isChangingChildren = false;
 	}
 
 	@Override
@@ -438,9 +641,18 @@ public class WVerticalScrollableContainer extends WAbstractWidget implements WDr
 
 	@Override
 	public void onLayoutChange() {
+		if (!isChangingChildren) {
+			contentBounds.invalidate();
+		}
+
 		super.onLayoutChange();
 
 		updateScrollbar();
+
+		if (isVirtualized()) {
+			updateRows();
+		}
+
 		recalculateCache();
 	}
 
@@ -464,13 +676,13 @@ public class WVerticalScrollableContainer extends WAbstractWidget implements WDr
 		if (isWithinBounds(MouseUtilities.mouseX, MouseUtilities.mouseY)) {
 			if (keyCode == GLFW.GLFW_KEY_UP) {
 				if (hasSmoothing()) {
-					kineticScrollDelta += 0.75;
+					addKineticScrollDelta(0.75f);
 				} else {
 					scroll(0, 2.5);
 				}
 			} else if (keyCode == GLFW.GLFW_KEY_DOWN) {
 				if (hasSmoothing()) {
-					kineticScrollDelta -= 0.75;
+					addKineticScrollDelta(-0.75f);
 				} else {
 					scroll(0, -2.5);
 				}
@@ -484,11 +696,11 @@ public class WVerticalScrollableContainer extends WAbstractWidget implements WDr
 	public void onMouseClicked(float mouseX, float mouseY, int mouseButton) {
 		if (isWithinBounds(mouseX, mouseY)) {
 			if (mouseButton == 2) {
-				isDragScrolling = true;
-
 				lastDragScrollY = mouseY;
 				lastDragScrollMilliseconds = System.currentTimeMillis();
 
+				setDragScrolling(true);
+
 				MouseUtilities.enableDragCursor();
 			}
 		}
@@ -513,16 +725,15 @@ public class WVerticalScrollableContainer extends WAbstractWidget implements WDr
 	@Override
 	public void onMouseScrolled(float mouseX, float mouseY, double deltaY) {
 		if (isWithinBounds(mouseX, mouseY)) {
+			lastScrollX = mouseX;
+			lastScrollY = mouseY;
+
 			if (hasSmoothing()) {
-				kineticScrollDelta += deltaY;
+				addKineticScrollDelta((float) deltaY);
 				scroll(0, deltaY);
 			} else {
 				scroll(0, deltaY * 5);
 			}
-
-
-			lastScrollX = mouseX;
-			lastScrollY = mouseY;
 		}
 
 		super.onMouseScrolled(mouseX, mouseY, deltaY);
@@ -534,27 +745,12 @@ public class WVerticalScrollableContainer extends WAbstractWidget implements WDr
 			return;
 		}
 
-		if (isDragScrolling()) {
-			scroll(0, Math.pow(5, Math.abs(((MouseUtilities.mouseY - lastDragScrollY) / 100))) * ((System.currentTimeMillis() - lastDragScrollMilliseconds) * dragScrollAccelerationCoefficient) * (lastDragScrollY - MouseUtilities.mouseY > 0 ? 1 : -1));
-		}
-
-		if (kineticScrollDelta > 0.05 || kineticScrollDelta < -0.05) {
-			kineticScrollDelta = kineticScrollDelta / getKineticReductionCoefficient();
-
-			scroll(0, kineticScrollDelta * kineticReductionCoefficient * getKineticAccelerationCoefficient());
-
-			updateChildrenFocus();
-		} else {
-			kineticScrollDelta = 0;
-
-			lastScrollX = 0;
-			lastScrollY = 0;
-		}
-
 		ScissorArea area = new ScissorArea(this);
 
 		for (WAbstractWidget widget : getWidgets()) {
-			widget.draw();
+			if (ScissorArea.isVisible(widget)) {
+				widget.draw();
+			}
 		}
 
 		area.destroy();
@@ -584,6 +780,43 @@ public class WVerticalScrollableContainer extends WAbstractWidget implements WDr
 		}
 	}
 
+	/**
+	 * Advances the kinetic and drag scrolling of this container by the
+	 * time elapsed, applying their per-frame coefficients as many times
+	 * as frames would have been drawn at {@link #FRAMES_PER_TICK}.
+	 *
+	 * @param ticks Fractional amount of ticks elapsed.
+	 * @return True if still scrolling; false if at rest.
+	 */
+	protected boolean stepKinetic(float ticks) {
+		float frames = ticks * FRAMES_PER_TICK;
+
+		if (isDragScrolling()) {
+			scroll(0, frames * Math.pow(5, Math.abs(((MouseUtilities.mouseY - lastDragScrollY) / 100))) * ((System.currentTimeMillis() - lastDragScrollMilliseconds) * dragScrollAccelerationCoefficient) * (lastDragScrollY - MouseUtilities.mouseY > 0 ? 1 : -1));
+		}
+
+		if (kineticScrollDelta > 0.05 || kineticScrollDelta < -0.05) {
+			float factor = 1 / getKineticReductionCoefficient();
+
+			float distance = kineticScrollDelta * getKineticAccelerationCoefficient() * AnimationScheduler.getDecayDistance(factor, frames);
+
+			kineticScrollDelta *= (float) Math.pow(factor, frames);
+
+			scroll(0, distance);
+
+			updateChildrenFocus();
+
+			return true;
+		} else {
+			kineticScrollDelta = 0;
+
+			lastScrollX = 0;
+			lastScrollY = 0;
+
+			return isDragScrolling();
+		}
+	}
+
 	@Override
 	public void tick() {
 		if (hasArrows) {
@@ -60,13 +60,13 @@ public class WVerticalScrollbar extends WAbstractWidget {
 
 					if (mouseY > getScrollerY()) {
 						if (((WVerticalScrollableContainer) scrollable).hasSmoothing()) {
-							((WVerticalScrollableContainer) scrollable).kineticScrollDelta -= 3.5;
+							((WVerticalScrollableContainer) scrollable).addKineticScrollDelta(-3.5f);
 						} else {
 							scrollable.scroll(0, -50);
 						}
 					} else {
 						if (((WVerticalScrollableContainer) scrollable).hasSmoothing()) {
-							((WVerticalScrollableContainer) scrollable).kineticScrollDelta += 3.5;
+							((WVerticalScrollableContainer) scrollable).addKineticScrollDelta(3.5f);
 						} else {
 							scrollable.scroll(0, +50);
 						}
@@ -12,7 +12,9 @@ public enum Action {
 	DRAG_SPLIT,
 	DRAG_SINGLE,
 	DRAG_SPLIT_PREVIEW,
-	DRAG_SINGLE_PREVIEW;
+	DRAG_SINGLE_PREVIEW,
+
+	TRANSFER_ALL;
 
 	public enum Subtype {
 		FROM_CURSOR_TO_SLOT_CUSTOM_FULL_STACK,
@@ -0,0 +1,295 @@
+package spinnery.widget.api;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.util.PacketByteBuf;
+
+/**
+ * A decoded {@link WNetworked.Event}, sent with a fixed binary layout
+ * instead of a {@link CompoundTag} with string keys. The layout of
+ * each event is:
+ * <ul>
+ *     <li>MOUSE_CLICK, MOUSE_RELEASE: float mouseX, float mouseY, byte button.</li>
+ *     <li>MOUSE_DRAG: float mouseX, float mouseY, byte button, float deltaX, float deltaY.</li>
+ *     <li>MOUSE_SCROLL: float mouseX, float mouseY, float deltaY.</li>
+ *     <li>FOCUS: boolean focused.</li>
+ *     <li>KEY_PRESS, KEY_RELEASE: VarInt character, VarInt keyCode, byte keyModifier.</li>
+ *     <li>CHAR_TYPE: char character, VarInt keyCode.</li>
+ *     <li>CUSTOM: nothing.</li>
+ * </ul>
+ * Every layout is followed by a boolean flag and, if set, the
+ * extension CompoundTag built by {@link WNetworked#appendPayload(WNetworked.Event, CompoundTag)};
+ * widgets that append nothing cost a single byte.
+ */
+public class EventPayload {
+	protected final WNetworked.Event event;
+	protected float mouseX;
+	protected float mouseY;
+	protected float deltaX;
+	protected float deltaY;
+	protected int button;
+	protected int character;
+	protected int keyCode;
+	protected int keyModifier;
+	protected boolean focused;
+	protected CompoundTag extension;
+
+	protected EventPayload(WNetworked.Event event) {
+		this.event = event;
+	}
+
+	public static EventPayload ofMouse(WNetworked.Event event, float mouseX, float mouseY, int button) {
+		EventPayload payload = new EventPayload(event);
+		payload.mouseX = mouseX;
+		payload.mouseY = mouseY;
+		payload.button = button;
+		return payload;
+	}
+
+	public static EventPayload ofMouseDrag(float mouseX, float mouseY, int button, float deltaX, float deltaY) {
+		EventPayload payload = ofMouse(WNetworked.Event.MOUSE_DRAG, mouseX, mouseY, button);
+		payload.deltaX = deltaX;
+		payload.deltaY = deltaY;
+		return payload;
+	}
+
+	public static EventPayload ofMouseScroll(float mouseX, float mouseY, float deltaY) {
+		EventPayload payload = ofMouse(WNetworked.Event.MOUSE_SCROLL, mouseX, mouseY, 0);
+		payload.deltaY = deltaY;
+		return payload;
+	}
+
+	public static EventPayload ofFocus(boolean focused) {
+		EventPayload payload = new EventPayload(WNetworked.Event.FOCUS);
+		payload.focused = focused;
+		return payload;
+	}
+
+	public static EventPayload ofKey(WNetworked.Event event, int character, int keyCode, int keyModifier) {
+		EventPayload payload = new EventPayload(event);
+		payload.character = character;
+		payload.keyCode = keyCode;
+		payload.keyModifier = keyModifier;
+		return payload;
+	}
+
+	public static EventPayload ofCharType(char character, int keyCode) {
+		EventPayload payload = new EventPayload(WNetworked.Event.CHAR_TYPE);
+		payload.character = character;
+		payload.keyCode = keyCode;
+		return payload;
+	}
+
+	public static EventPayload ofCustom() {
+		return new EventPayload(WNetworked.Event.CUSTOM);
+	}
+
+	/**
+	 * Reads an EventPayload from a buffer, in the layout written by {@link #write(PacketByteBuf)}.
+	 *
+	 * @param buffer Buffer to read from.
+	 * @return The EventPayload read.
+	 */
+	public static EventPayload read(PacketByteBuf buffer) {
+		EventPayload payload = new EventPayload(buffer.readEnumConstant(WNetworked.Event.class));
+
+		switch (payload.event) {
+			case MOUSE_CLICK:
+			case MOUSE_RELEASE:
+				payload.mouseX = buffer.readFloat();
+				payload.mouseY = buffer.readFloat();
+				payload.button = buffer.readUnsignedByte();
+				break;
+			case MOUSE_DRAG:
+				payload.mouseX = buffer.readFloat();
+				payload.mouseY = buffer.readFloat();
+				payload.button = buffer.readUnsignedByte();
+				payload.deltaX = buffer.readFloat();
+				payload.deltaY = buffer.readFloat();
+				break;
+			case MOUSE_SCROLL:
+				payload.mouseX = buffer.readFloat();
+				payload.mouseY = buffer.readFloat();
+				payload.deltaY = buffer.readFloat();
+				break;
+			case FOCUS:
+				payload.focused = buffer.readBoolean();
+				break;
+			case KEY_PRESS:
+			case KEY_RELEASE:
+				payload.character = buffer.readVarInt();
+				payload.keyCode = buffer.readVarInt();
+				payload.keyModifier = buffer.readUnsignedByte();
+				break;
+			case CHAR_TYPE:
+				payload.character = buffer.readChar();
+				payload.keyCode = buffer.readVarInt();
+				break;
+			default:
+				break;
+		}
+
+		if (buffer.readBoolean()) {
+			payload.extension = buffer.readCompoundTag();
+		}
+
+		return payload;
+	}
+
+	/**
+	 * Writes this EventPayload to a buffer.
+	 *
+	 * @param buffer Buffer to write to.
+	 */
+	public void write(PacketByteBuf buffer) {
+		buffer.writeEnumConstant(event);
+
+		switch (event) {
+			case MOUSE_CLICK:
+			case MOUSE_RELEASE:
+				buffer.writeFloat(mouseX);
+				buffer.writeFloat(mouseY);
+				buffer.writeByte(button);
+				break;
+			case MOUSE_DRAG:
+				buffer.writeFloat(mouseX);
+				buffer.writeFloat(mouseY);
+				buffer.writeByte(button);
+				buffer.writeFloat(deltaX);
+				buffer.writeFloat(deltaY);
+				break;
+			case MOUSE_SCROLL:
+				buffer.writeFloat(mouseX);
+				buffer.writeFloat(mouseY);
+				buffer.writeFloat(deltaY);
+				break;
+			case FOCUS:
+				buffer.writeBoolean(focused);
+				break;
+			case KEY_PRESS:
+			case KEY_RELEASE:
+				buffer.writeVarInt(character);
+				buffer.writeVarInt(keyCode);
+				buffer.writeByte(keyModifier);
+				break;
+			case CHAR_TYPE:
+				buffer.writeChar(character);
+				buffer.writeVarInt(keyCode);
+				break;
+			default:
+				break;
+		}
+
+		if (hasExtension()) {
+			buffer.writeBoolean(true);
+			buffer.writeCompoundTag(extension);
+		} else {
+			buffer.writeBoolean(false);
+		}
+	}
+
+	/**
+	 * Builds the legacy CompoundTag representation of this event, as received by
+	 * {@link WNetworked#onInterfaceEvent(WNetworked.Event, CompoundTag)}. Only
+	 * built when a widget does not handle the EventPayload directly.
+	 *
+	 * @return CompoundTag representation of this event.
+	 */
+	public CompoundTag toTag() {
+		CompoundTag tag = new CompoundTag();
+
+		switch (event) {
+			case MOUSE_CLICK:
+			case MOUSE_RELEASE:
+				tag.putDouble("mouseX", mouseX);
+				tag.putDouble("mouseY", mouseY);
+				tag.putInt("button", button);
+				break;
+			case MOUSE_DRAG:
+				tag.putDouble("mouseX", mouseX);
+				tag.putDouble("mouseY", mouseY);
+				tag.putInt("button", button);
+				tag.putDouble("deltaX", deltaX);
+				tag.putDouble("deltaY", deltaY);
+				break;
+			case MOUSE_SCROLL:
+				tag.putDouble("mouseX", mouseX);
+				tag.putDouble("mouseY", mouseY);
+				tag.putDouble("deltaY", deltaY);
+				break;
+			case FOCUS:
+				tag.putBoolean("focused", focused);
+				break;
+			case KEY_PRESS:
+			case KEY_RELEASE:
+				tag.putInt("character", character);
+				tag.putInt("keyCode", keyCode);
+				tag.putInt("keyModifier", keyModifier);
+				break;
+			case CHAR_TYPE:
+				tag.putString("character", String.valueOf((char) character));
+				tag.putInt("keyCode", keyCode);
+				break;
+			default:
+				break;
+		}
+
+		if (hasExtension()) {
+			tag.copyFrom(extension);
+		}
+
+		return tag;
+	}
+
+	public WNetworked.Event getEvent() {
+		return event;
+	}
+
+	public float getMouseX() {
+		return mouseX;
+	}
+
+	public float getMouseY() {
+		return mouseY;
+	}
+
+	public float getDeltaX() {
+		return deltaX;
+	}
+
+	public float getDeltaY() {
+		return deltaY;
+	}
+
+	public int getButton() {
+		return button;
+	}
+
+	public int getCharacter() {
+		return character;
+	}
+
+	public int getKeyCode() {
+		return keyCode;
+	}
+
+	public int getKeyModifier() {
+		return keyModifier;
+	}
+
+	public boolean isFocused() {
+		return focused;
+	}
+
+	public boolean hasExtension() {
+		return extension != null && !extension.isEmpty();
+	}
+
+	public CompoundTag getExtension() {
+		return extension;
+	}
+
+	public EventPayload setExtension(CompoundTag extension) {
+		this.extension = extension;
+		return this;
+	}
+}
@@ -2,6 +2,7 @@ package spinnery.widget.api;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public class Filter {
 	private static final Map<Class<?>, WInputFilter<?>> ENTRIES = new HashMap<>();
@@ -21,7 +22,7 @@ public class Filter {
 	/**
 	 * Filter for strings.
 	 */
-	public static final WInputFilter<String> STRING_FILTER = new WInputFilter<String>() {
+	public static final WInputFilter<String> STRING_FILTER = new SupplierInputFilter<String>() {
 		@Override
 		public String toString(String value) {
 			return value;
@@ -33,7 +34,7 @@ public class Filter {
 		}
 
 		@Override
-		public boolean accepts(String character, String text) {
+		public boolean accepts(String character, Supplier<String> text) {
 			return true;
 		}
 	};
@@ -41,7 +42,7 @@ public class Filter {
 	/**
 	 * Filter for decimal integers and hexadecimal integers.
 	 */
-	public static final WInputFilter<Integer> INTEGER_FILTER = new WInputFilter<Integer>() {
+	public static final WInputFilter<Integer> INTEGER_FILTER = new SupplierInputFilter<Integer>() {
 		@Override
 		public String toString(Integer value) {
 			return String.valueOf(value);
@@ -57,15 +58,15 @@ public class Filter {
 		}
 
 		@Override
-		public boolean accepts(String character, String text) {
-			return "0123456789".contains(character) || (character.equals("x") && !text.contains("x"));
+		public boolean accepts(String character, Supplier<String> text) {
+			return "0123456789".contains(character) || (character.equals("x") && !text.get().contains("x"));
 		}
 	};
 
 	/**
 	 * Filter for decimal longs and hexadecimal longs.
 	 */
-	public static final WInputFilter<Long> LONG_FILTER = new WInputFilter<Long>() {
+	public static final WInputFilter<Long> LONG_FILTER = new SupplierInputFilter<Long>() {
 		@Override
 		public String toString(Long value) {
 			return String.valueOf(value);
@@ -81,15 +82,15 @@ public class Filter {
 		}
 
 		@Override
-		public boolean accepts(String character, String text) {
-			return "0123456789".contains(character) || (character.equals("x") && !text.contains("x"));
+		public boolean accepts(String character, Supplier<String> text) {
+			return "0123456789".contains(character) || (character.equals("x") && !text.get().contains("x"));
 		}
 	};
 
 	/**
 	 * Filter for floats.
 	 */
-	public static final WInputFilter<Float> FLOAT_FILTER = new WInputFilter<Float>() {
+	public static final WInputFilter<Float> FLOAT_FILTER = new SupplierInputFilter<Float>() {
 		@Override
 		public String toString(Float value) {
 			return String.valueOf(value);
@@ -105,15 +106,15 @@ public class Filter {
 		}
 
 		@Override
-		public boolean accepts(String character, String text) {
-			return "0123456789".contains(character) || (character.equals(".") && !text.contains("."));
+		public boolean accepts(String character, Supplier<String> text) {
+			return "0123456789".contains(character) || (character.equals(".") && !text.get().contains("."));
 		}
 	};
 
 	/**
 	 * Filter for doubles.
 	 */
-	public static final WInputFilter<Double> DOUBLE_FILTER = new WInputFilter<Double>() {
+	public static final WInputFilter<Double> DOUBLE_FILTER = new SupplierInputFilter<Double>() {
 		@Override
 		public String toString(Double value) {
 			return String.valueOf(value);
@@ -129,8 +130,8 @@ public class Filter {
 		}
 
 		@Override
-		public boolean accepts(String character, String text) {
-			return "0123456789".contains(character) || (character.equals(".") && !text.contains("."));
+		public boolean accepts(String character, Supplier<String> text) {
+			return "0123456789".contains(character) || (character.equals(".") && !text.get().contains("."));
 		}
 	};
 
@@ -155,6 +156,21 @@ public class Filter {
 		}
 	};
 
+	/**
+	 * Base of filters which retrieve the full text only if needed,
+	 * implementing {@link WInputFilter#accepts(String, Supplier)},
+	 * to which the String overload delegates.
+	 */
+	private static abstract class SupplierInputFilter<T> implements WInputFilter<T> {
+		@Override
+		public boolean accepts(String character, String text) {
+			return accepts(character, () -> text);
+		}
+
+		@Override
+		public abstract boolean accepts(String character, Supplier<String> text);
+	}
+
 	static {
 		register(String.class, Filter.STRING_FILTER);
 		register(Integer.class, Filter.INTEGER_FILTER);
@@ -0,0 +1,127 @@
+package spinnery.widget.api;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.text.Text;
+import net.minecraft.util.PacketByteBuf;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A SyncedProperty is a value of a {@link WSynced} widget which
+ * is synchronized from the server to the client.
+ * <p>
+ * On the server, the value is polled from the getter once per tick,
+ * and the property is marked dirty whenever it differs from the last
+ * value sent. On the client, received values are applied through the
+ * setter. Values are compared with {@link Objects#equals(Object, Object)},
+ * so properties holding mutable objects must be marked dirty manually
+ * through {@link #markDirty()} when their contents change.
+ */
+public class SyncedProperty<T> {
+	protected final Codec<T> codec;
+	protected final Supplier<T> getter;
+	protected final Consumer<T> setter;
+	protected T lastValue;
+	protected boolean isDirty = true;
+
+	public SyncedProperty(Codec<T> codec, Supplier<T> getter, Consumer<T> setter) {
+		this.codec = codec;
+		this.getter = getter;
+		this.setter = setter;
+	}
+
+	public static <T> SyncedProperty<T> of(Codec<T> codec, Supplier<T> getter, Consumer<T> setter) {
+		return new SyncedProperty<>(codec, getter, setter);
+	}
+
+	/**
+	 * Polls the getter of this property, marking it as dirty if
+	 * its value changed since it was last sent.
+	 *
+	 * @return True if dirty; false if not.
+	 */
+	public boolean update() {
+		T value = getter.get();
+
+		if (!Objects.equals(value, lastValue)) {
+			lastValue = value;
+			isDirty = true;
+		}
+
+		return isDirty;
+	}
+
+	/**
+	 * Asserts whether this property has changed since it was last sent.
+	 *
+	 * @return True if dirty; false if not.
+	 */
+	public boolean isDirty() {
+		return isDirty;
+	}
+
+	/**
+	 * Forces this property to be sent on the next synchronization.
+	 */
+	public void markDirty() {
+		isDirty = true;
+	}
+
+	/**
+	 * Writes the last polled value of this property, and marks it as clean.
+	 *
+	 * @param buffer Buffer to write to.
+	 */
+	public void write(PacketByteBuf buffer) {
+		codec.write(buffer, lastValue);
+		isDirty = false;
+	}
+
+	/**
+	 * Reads a value of this property, and applies it through the setter.
+	 *
+	 * @param buffer Buffer to read from.
+	 */
+	public void read(PacketByteBuf buffer) {
+		lastValue = codec.read(buffer);
+		setter.accept(lastValue);
+	}
+
+	/**
+	 * Generic interface representing the binary encoding of a SyncedProperty value.
+	 */
+	public interface Codec<T> {
+		Codec<Integer> INT = of(PacketByteBuf::writeVarInt, PacketByteBuf::readVarInt);
+		Codec<Long> LONG = of(PacketByteBuf::writeVarLong, PacketByteBuf::readVarLong);
+		Codec<Float> FLOAT = of(PacketByteBuf::writeFloat, PacketByteBuf::readFloat);
+		Codec<Double> DOUBLE = of(PacketByteBuf::writeDouble, PacketByteBuf::readDouble);
+		Codec<Boolean> BOOLEAN = of(PacketByteBuf::writeBoolean, PacketByteBuf::readBoolean);
+		Codec<String> STRING = of(PacketByteBuf::writeString, buffer -> buffer.readString(32767));
+		Codec<Text> TEXT = of(PacketByteBuf::writeText, PacketByteBuf::readText);
+		Codec<CompoundTag> COMPOUND_TAG = of(PacketByteBuf::writeCompoundTag, PacketByteBuf::readCompoundTag);
+		Codec<ItemStack> ITEM_STACK = of((buffer, stack) -> buffer.writeCompoundTag(stack.toTag(new CompoundTag())), buffer -> ItemStack.fromTag(buffer.readCompoundTag()));
+
+		static <T> Codec<T> of(BiConsumer<PacketByteBuf, T> writer, Function<PacketByteBuf, T> reader) {
+			return new Codec<T>() {
+				@Override
+				public void write(PacketByteBuf buffer, T value) {
+					writer.accept(buffer, value);
+				}
+
+				@Override
+				public T read(PacketByteBuf buffer) {
+					return reader.apply(buffer);
+				}
+			};
+		}
+
+		void write(PacketByteBuf buffer, T value);
+
+		T read(PacketByteBuf buffer);
+	}
+}
@@ -1,5 +1,8 @@
 package spinnery.widget.api;
 
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import spinnery.client.utility.ScissorArea;
 import spinnery.widget.WAbstractWidget;
 
 import java.util.List;
@@ -26,4 +29,17 @@ public interface WDrawableCollection extends WCollection {
 	 * @return list of layout elements in drawing order
 	 */
 	List<WLayoutElement> getOrderedWidgets();
+
+	/**
+	 * Draws the layout elements returned by {@link #getOrderedWidgets()}, skipping those whose bounds intersect
+	 * neither the active scissor area nor the screen, such that off-screen layout elements cost nothing to draw.
+	 */
+	@Environment(EnvType.CLIENT)
+	default void drawWidgets() {
+		for (WLayoutElement widget : getOrderedWidgets()) {
+			if (ScissorArea.isVisible(widget)) {
+				widget.draw();
+			}
+		}
+	}
 }
@@ -1,5 +1,7 @@
 package spinnery.widget.api;
 
+import java.util.function.Supplier;
+
 /**
  * An input filter for widgets where one
  * is necessary.
@@ -29,4 +31,17 @@ public interface WInputFilter<T> {
 	 * @return the requested boolean.
 	 */
 	boolean accepts(String character, String text);
+
+	/**
+	 * Asserts whether this filter accepts the
+	 * given input or not, retrieving the full
+	 * text only if needed, as building it costs
+	 * as much as the text is long.
+	 * @param character the character typed.
+	 * @param text supplier of the full text for context.
+	 * @return the requested boolean.
+	 */
+	default boolean accepts(String character, Supplier<String> text) {
+		return accepts(character, text.get());
+	}
 }
@@ -9,6 +9,11 @@ import net.minecraft.nbt.CompoundTag;
  * Additionally, after the default payload has been constructed but before the packet has been sent, the
  * {@link #appendPayload(Event, CompoundTag)} method is called on this object, where custom data may be appended to
  * the compound NBT tag.
+ * <p>
+ * Events are sent with the fixed binary layout described in {@link EventPayload}; the payload tag is only
+ * serialized when {@link #appendPayload(Event, CompoundTag)} actually appends something. Widgets that
+ * override {@link #onInterfaceEvent(EventPayload)} read the decoded fields directly, skipping the
+ * construction of the legacy tag.
  */
 public interface WNetworked {
 	/**
@@ -21,6 +26,17 @@ public interface WNetworked {
 
 	void onInterfaceEvent(Event event, CompoundTag payload);
 
+	/**
+	 * Called on the server whenever an event is received. By default, converts the
+	 * payload to its legacy CompoundTag representation and dispatches it to
+	 * {@link #onInterfaceEvent(Event, CompoundTag)}.
+	 *
+	 * @param payload decoded event payload
+	 */
+	default void onInterfaceEvent(EventPayload payload) {
+		onInterfaceEvent(payload.getEvent(), payload.toTag());
+	}
+
 	/**
 	 * Appends custom data to the packet payload. Called after the default payload has been constructed, but before
 	 * the packet has been sent.
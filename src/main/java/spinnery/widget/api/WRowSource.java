@@ -0,0 +1,35 @@
+package spinnery.widget.api;
+
+import spinnery.widget.WAbstractWidget;
+
+/**
+ * Generic interface representing the data source of a virtualized scrollable container. The container only
+ * materializes the rows intersecting its viewport, creating them through {@link #createRow()} and binding them
+ * to an index through {@link #bindRow(WAbstractWidget, int)}; rows scrolled out of view are recycled and bound
+ * to other indices, so binding must fully overwrite whatever a row displayed before.
+ *
+ * @param <W> type of the row widgets
+ */
+public interface WRowSource<W extends WAbstractWidget> {
+	/**
+	 * Returns the total amount of rows, materialized or not.
+	 *
+	 * @return amount of rows
+	 */
+	int getRowCount();
+
+	/**
+	 * Creates a new, unbound row widget. Rows must all have the height given to the container.
+	 *
+	 * @return created row
+	 */
+	W createRow();
+
+	/**
+	 * Binds a row widget to the data at an index, replacing whatever it displayed before.
+	 *
+	 * @param row   row to bind
+	 * @param index index of the data
+	 */
+	void bindRow(W row, int index);
+}
@@ -0,0 +1,27 @@
+package spinnery.widget.api;
+
+import java.util.List;
+
+/**
+ * Generic interface representing a widget whose properties are synchronized from the server to the client.
+ * Every tick, the dirty {@link SyncedProperty} values of all synced widgets of a
+ * {@link spinnery.common.container.BaseContainer} are sent in a single packet, and applied to the client
+ * widgets with the same synchronization ID.
+ */
+public interface WSynced {
+	/**
+	 * Returns the synchronisation ID for this widget, which is used to uniquely identify widgets between the client
+	 * and server.
+	 *
+	 * @return synchronisation ID
+	 */
+	int getSyncId();
+
+	/**
+	 * Returns the synchronized properties of this widget. The order of the properties must match between the
+	 * client and the server, as they are identified by their index.
+	 *
+	 * @return list of synchronized properties
+	 */
+	List<SyncedProperty<?>> getSyncedProperties();
+}
@@ -0,0 +1,80 @@
+package spinnery.client.utility;
+
+import org.junit.jupiter.api.Test;
+import spinnery.widget.WAbstractWidget;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentBoundsTest {
+	protected final WidgetExtents children = new WidgetExtents();
+	protected final ContentBounds bounds = new ContentBounds(children::getWidgets, children::measure);
+
+	@Test
+	public void measuresChildrenWhenFirstQueried() {
+		bounds.add(children.add(0, 0, 10, 10));
+		bounds.add(children.add(-5, 20, 5, 30));
+
+		assertBounds(-5, 0, 10, 30);
+	}
+
+	@Test
+	public void keepsBoundsSharedByOtherChildrenOnRemoval() {
+		assertTrue(bounds.isEmpty());
+
+		WAbstractWidget first = children.add(0, 0, 10, 10);
+		WAbstractWidget second = children.add(0, 0, 10, 10);
+		WAbstractWidget third = children.add(0, 0, 20, 40);
+		bounds.add(first, second, third);
+
+		assertBounds(0, 0, 20, 40);
+
+		remove(third);
+		assertBounds(0, 0, 10, 10);
+
+		remove(first);
+		assertBounds(0, 0, 10, 10);
+
+		remove(second);
+		assertTrue(bounds.isEmpty());
+		assertBounds(0, 0, 0, 0);
+	}
+
+	@Test
+	public void updatesMovedChild() {
+		bounds.add(children.add(0, 0, 10, 10));
+		WAbstractWidget moved = children.add(0, 10, 10, 20);
+		bounds.add(moved);
+
+		assertBounds(0, 0, 10, 20);
+
+		children.move(moved, 0, -30, 10, -20);
+		bounds.update(moved);
+
+		assertBounds(0, -30, 10, 10);
+	}
+
+	@Test
+	public void remeasuresWhenInvalidated() {
+		WAbstractWidget widget = children.add(0, 0, 10, 10);
+		bounds.add(widget);
+
+		assertBounds(0, 0, 10, 10);
+
+		children.move(widget, 0, 0, 50, 50);
+		bounds.invalidate();
+
+		assertBounds(0, 0, 50, 50);
+	}
+
+	protected void remove(WAbstractWidget widget) {
+		children.remove(widget);
+		bounds.remove(widget);
+	}
+
+	protected void assertBounds(float left, float top, float right, float bottom) {
+		assertEquals(left, bounds.getLeft());
+		assertEquals(top, bounds.getTop());
+		assertEquals(right, bounds.getRight());
+		assertEquals(bottom, bounds.getBottom());
+	}
+}
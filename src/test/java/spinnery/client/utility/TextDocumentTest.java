@@ -0,0 +1,83 @@
+package spinnery.client.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TextDocumentTest {
+	@Test
+	public void matchesStringAfterRandomEdits() {
+		Random random = new Random(42);
+		TextDocument document = new TextDocument("first\nsecond\nthird");
+		StringBuilder expected = new StringBuilder("first\nsecond\nthird");
+
+		for (int i = 0; i < 2000; ++i) {
+			int offset = random.nextInt(expected.length() + 1);
+
+			if (random.nextInt(3) == 0 && expected.length() > 0) {
+				int end = Math.min(expected.length(), offset + random.nextInt(8));
+				assertEquals(expected.substring(offset, end), document.delete(offset, end));
+				expected.delete(offset, end);
+			} else {
+				String insert = random.nextInt(4) == 0 ? "\n" : "ab".substring(random.nextInt(2));
+				document.insert(offset, insert);
+				expected.insert(offset, insert);
+			}
+
+			assertEquals(expected.length(), document.length());
+		}
+
+		assertEquals(expected.toString(), document.toString());
+		assertLinesMatch(expected.toString(), document);
+	}
+
+	@Test
+	public void indexesLines() {
+		TextDocument document = new TextDocument("a\nbc\n\ndef");
+		document.insert(3, "x\ny");
+
+		assertLinesMatch("a\nbx\nyc\n\ndef", document);
+		assertEquals(5, document.getLineCount());
+		assertEquals("yc", document.getLine(2));
+		assertEquals(2, document.getLineAt(document.getLineStart(2)));
+	}
+
+	@Test
+	public void extendsPieceWhenTypingSequentially() {
+		TextDocument document = new TextDocument("text");
+
+		for (char character : "typed\nline".toCharArray()) {
+			document.insert(document.length(), String.valueOf(character));
+		}
+
+		assertEquals("texttyped\nline", document.toString());
+		assertEquals(2, count(document.root));
+
+		document.insert(2, "-");
+		document.insert(3, "-");
+
+		assertEquals("te--xttyped\nline", document.toString());
+		assertEquals(4, count(document.root));
+	}
+
+	protected static void assertLinesMatch(String expected, TextDocument document) {
+		String[] lines = expected.split("\n", -1);
+
+		assertEquals(lines.length, document.getLineCount());
+
+		int offset = 0;
+
+		for (int line = 0; line < lines.length; ++line) {
+			assertEquals(offset, document.getLineStart(line));
+			assertEquals(lines[line], document.getLine(line));
+			assertEquals(line, document.getLineAt(offset));
+			offset += lines[line].length() + 1;
+		}
+	}
+
+	protected static int count(TextDocument.Piece node) {
+		return node == null ? 0 : 1 + count(node.left) + count(node.right);
+	}
+}
@@ -0,0 +1,90 @@
+package spinnery.client.utility;
+
+import org.junit.jupiter.api.Test;
+import spinnery.widget.WAbstractWidget;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TileIndexTest {
+	protected final WidgetExtents children = new WidgetExtents();
+	protected final TileIndex index = new TileIndex(16, children::getWidgets, children::measure);
+
+	@Test
+	public void resolvesTilesOfNegativeCoordinates() {
+		assertEquals(0, index.getTile(0));
+		assertEquals(0, index.getTile(15.9F));
+		assertEquals(1, index.getTile(16));
+		assertEquals(-1, index.getTile(-0.1F));
+		assertEquals(-1, index.getTile(-16));
+		assertEquals(-2, index.getTile(-16.1F));
+	}
+
+	@Test
+	public void collectsChildSpanningTilesOnce() {
+		WAbstractWidget spanning = children.add(15, 15, 17, 17);
+
+		assertEquals(Collections.singletonList(spanning), query(0, 0, 1, 1));
+		assertEquals(Collections.singletonList(spanning), query(1, 1, 1, 1));
+		assertEquals(Collections.singletonList(spanning), query(-4, 1, 4, 4));
+		assertTrue(query(2, 0, 3, 1).isEmpty());
+	}
+
+	@Test
+	public void queriesNegativeTilesOfScrolledViewport() {
+		WAbstractWidget aboveLeft = children.add(-35, -5, -30, 0);
+		WAbstractWidget acrossOrigin = children.add(-4, -4, 4, 4);
+		children.add(-80, 0, -60, 8);
+		children.add(0, 40, 8, 48);
+
+		float scrollX = -40;
+		float scrollY = -8;
+
+		List<WAbstractWidget> visible = query(index.getTile(scrollX), index.getTile(scrollY), index.getTile(scrollX + 32), index.getTile(scrollY + 32));
+
+		assertEquals(2, visible.size());
+		assertTrue(visible.containsAll(Arrays.asList(aboveLeft, acrossOrigin)));
+	}
+
+	@Test
+	public void forgetsPreviousTilesOfMovedChild() {
+		WAbstractWidget widget = children.add(0, 0, 8, 8);
+		int revision = index.getRevision();
+
+		children.move(widget, 80, 80, 88, 88);
+		index.update(widget);
+
+		assertNotEquals(revision, index.getRevision());
+		assertTrue(query(0, 0, 0, 0).isEmpty());
+		assertEquals(Collections.singletonList(widget), query(5, 5, 5, 5));
+		assertTrue(index.tiles.keySet().stream().allMatch(key -> key == TileIndex.pack(5, 5)));
+	}
+
+	@Test
+	public void rebuildsFromChildrenWhenInvalidated() {
+		WAbstractWidget first = children.add(0, 0, 8, 8);
+
+		assertEquals(Collections.singletonList(first), query(0, 0, 0, 0));
+
+		WAbstractWidget second = children.add(0, 0, 8, 8);
+		index.invalidate();
+		index.add(second);
+
+		assertEquals(Arrays.asList(first, second), query(0, 0, 0, 0));
+
+		children.remove(first);
+		index.remove(first);
+
+		assertEquals(Collections.singletonList(second), query(0, 0, 0, 0));
+	}
+
+	protected List<WAbstractWidget> query(int minimumTileX, int minimumTileY, int maximumTileX, int maximumTileY) {
+		List<WAbstractWidget> found = new ArrayList<>();
+		index.query(minimumTileX, minimumTileY, maximumTileX, maximumTileY, found);
+		return found;
+	}
+}
@@ -0,0 +1,44 @@
+package spinnery.client.utility;
+
+import spinnery.widget.WAbstractWidget;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Children of a container whose extents are set directly,
+ * rather than measured from their position and size.
+ */
+public class WidgetExtents {
+	protected final List<WAbstractWidget> widgets = new ArrayList<>();
+	protected final Map<WAbstractWidget, float[]> extents = new IdentityHashMap<>();
+
+	public WAbstractWidget add(float left, float top, float right, float bottom) {
+		WAbstractWidget widget = new WAbstractWidget() {
+		};
+
+		widgets.add(widget);
+		move(widget, left, top, right, bottom);
+
+		return widget;
+	}
+
+	public void move(WAbstractWidget widget, float left, float top, float right, float bottom) {
+		extents.put(widget, new float[]{left, top, right, bottom});
+	}
+
+	public void remove(WAbstractWidget widget) {
+		widgets.remove(widget);
+		extents.remove(widget);
+	}
+
+	public List<WAbstractWidget> getWidgets() {
+		return widgets;
+	}
+
+	public void measure(WAbstractWidget widget, float[] extent) {
+		System.arraycopy(extents.get(widget), 0, extent, 0, 4);
+	}
+}
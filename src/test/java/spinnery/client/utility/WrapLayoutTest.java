@@ -0,0 +1,122 @@
+package spinnery.client.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WrapLayoutTest {
+	protected static final int COLUMNS = 4;
+
+	@Test
+	public void resolvesVisualLines() {
+		TextDocument document = new TextDocument("abcdefghij\n\nklm\nnopqrstu");
+		FixedWrapLayout layout = new FixedWrapLayout(document);
+
+		assertEquals(7, layout.getVisualLineCount());
+		assertEquals(3, layout.getFirstVisualLine(1));
+		assertEquals(3, layout.getLogicalLine(6));
+		assertEquals("nopq", layout.getVisualLine(5));
+		assertVisualLinesMatch(document, layout);
+	}
+
+	@Test
+	public void rewrapsOnlyEditedLine() {
+		TextDocument document = new TextDocument("abc\ndef\nghi");
+		FixedWrapLayout layout = new FixedWrapLayout(document);
+
+		assertEquals(3, layout.getVisualLineCount());
+
+		layout.wrapped.clear();
+		document.insert(5, "xxxxxx");
+		layout.onLinesChanged(1, 1, 1);
+
+		assertEquals(Arrays.asList(1), layout.wrapped);
+		assertEquals(5, layout.getVisualLineCount());
+		assertEquals(4, layout.getFirstVisualLine(2));
+		assertVisualLinesMatch(document, layout);
+	}
+
+	@Test
+	public void splitsAndJoinsWrappedLines() {
+		TextDocument document = new TextDocument("abcdefghij\nklm");
+		FixedWrapLayout layout = new FixedWrapLayout(document);
+
+		assertEquals(4, layout.getVisualLineCount());
+
+		document.insert(5, "\n");
+		layout.onLinesChanged(0, 1, 2);
+
+		assertEquals(5, layout.getVisualLineCount());
+		assertVisualLinesMatch(document, layout);
+
+		document.delete(5, 6);
+		layout.onLinesChanged(0, 2, 1);
+
+		assertEquals(4, layout.getVisualLineCount());
+		assertVisualLinesMatch(document, layout);
+
+		layout.wrapped.clear();
+		document.delete(0, document.getLineStart(1));
+		layout.onLinesChanged(0, 2, 1);
+
+		assertEquals(Arrays.asList(0), layout.wrapped);
+		assertEquals(1, layout.getVisualLineCount());
+		assertVisualLinesMatch(document, layout);
+	}
+
+	protected static void assertVisualLinesMatch(TextDocument document, WrapLayout layout) {
+		List<String> expected = new ArrayList<>();
+		List<Integer> logicalLines = new ArrayList<>();
+
+		for (int line = 0; line < document.getLineCount(); ++line) {
+			String text = document.getLine(line);
+
+			assertEquals(expected.size(), layout.getFirstVisualLine(line));
+
+			for (int column = 0; column == 0 || column < text.length(); column += COLUMNS) {
+				expected.add(text.substring(column, Math.min(text.length(), column + COLUMNS)));
+				logicalLines.add(line);
+			}
+		}
+
+		assertEquals(expected.size(), layout.getVisualLineCount());
+
+		for (int visualLine = 0; visualLine < expected.size(); ++visualLine) {
+			int line = logicalLines.get(visualLine);
+
+			assertEquals(line, layout.getLogicalLine(visualLine));
+			assertEquals(expected.get(visualLine), layout.getVisualLine(visualLine));
+			assertEquals(visualLine + 1 == expected.size() || logicalLines.get(visualLine + 1) != line, layout.isLogicalLineEnd(visualLine));
+		}
+	}
+
+	/**
+	 * Wraps lines at a fixed amount of columns, such that
+	 * no TextRenderer is needed, and records which lines it wrapped.
+	 */
+	protected static class FixedWrapLayout extends WrapLayout {
+		protected final List<Integer> wrapped = new ArrayList<>();
+
+		protected FixedWrapLayout(TextDocument document) {
+			super(document);
+		}
+
+		@Override
+		protected int[] wrap(int line) {
+			wrapped.add(line);
+
+			int length = document.getLineLength(line);
+			int[] starts = new int[Math.max(1, (length + COLUMNS - 1) / COLUMNS)];
+
+			for (int i = 0; i < starts.length; ++i) {
+				starts[i] = i * COLUMNS;
+			}
+
+			return starts;
+		}
+	}
+}
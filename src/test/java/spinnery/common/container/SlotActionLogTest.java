@@ -0,0 +1,72 @@
+package spinnery.common.container;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlotActionLogTest {
+	@Test
+	public void acknowledgesAndDiscardsOlderEntries() {
+		SlotActionLog log = new SlotActionLog();
+
+		for (int i = 0; i < 4; ++i) {
+			log.add(new SlotActionLog.Entry(log.nextSequence(), () -> {
+			}));
+		}
+
+		SlotActionLog.Entry acknowledged = log.acknowledge(3);
+
+		assertNotNull(acknowledged);
+		assertEquals(3, acknowledged.getSequence());
+		assertEquals(1, log.getEntries().size());
+		assertEquals(4, log.getEntries().peekFirst().getSequence());
+
+		assertNull(log.acknowledge(3));
+		assertEquals(1, log.getEntries().size());
+	}
+
+	@Test
+	public void returnsNullForDiscardedSequences() {
+		SlotActionLog log = new SlotActionLog();
+
+		for (int i = 0; i < SlotActionLog.MAXIMUM_ENTRIES + 2; ++i) {
+			log.add(new SlotActionLog.Entry(log.nextSequence(), () -> {
+			}));
+		}
+
+		assertEquals(SlotActionLog.MAXIMUM_ENTRIES, log.getEntries().size());
+		assertEquals(3, log.getEntries().peekFirst().getSequence());
+
+		assertNull(log.acknowledge(2));
+		assertEquals(SlotActionLog.MAXIMUM_ENTRIES, log.getEntries().size());
+	}
+
+	@Test
+	public void keepsSequencesOrderedWhenWrappingAround() {
+		SlotActionLog log = new SlotActionLog();
+		log.nextSequence = Integer.MAX_VALUE;
+
+		log.add(new SlotActionLog.Entry(log.nextSequence(), () -> {
+		}));
+		log.add(new SlotActionLog.Entry(log.nextSequence(), () -> {
+		}));
+
+		assertEquals(Integer.MAX_VALUE, log.getEntries().peekFirst().getSequence());
+		assertEquals(Integer.MIN_VALUE, log.getEntries().peekLast().getSequence());
+
+		SlotActionLog.Entry acknowledged = log.acknowledge(Integer.MIN_VALUE);
+
+		assertNotNull(acknowledged);
+		assertEquals(Integer.MIN_VALUE, acknowledged.getSequence());
+		assertTrue(log.isEmpty());
+	}
+
+	@Test
+	public void skipsZeroSequence() {
+		SlotActionLog log = new SlotActionLog();
+		log.nextSequence = -1;
+
+		assertEquals(-1, log.nextSequence());
+		assertEquals(1, log.nextSequence());
+	}
+}
@@ -0,0 +1,127 @@
+package spinnery.common.inventory;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventoryJournalTest {
+	@BeforeAll
+	public static void initialize() {
+		Bootstrap.initialize();
+	}
+
+	@Test
+	public void batchesChangedSlotsOncePerTick() {
+		BaseInventory inventory = new BaseInventory(9);
+		InventoryJournal.Cursor cursor = InventoryJournal.attach(inventory);
+		InventoryJournal journal = cursor.getJournal();
+
+		inventory.setInvStack(2, new ItemStack(Items.STONE, 4));
+		inventory.setInvStack(5, new ItemStack(Items.DIRT, 1));
+		journal.flush(1);
+
+		inventory.setInvStack(3, new ItemStack(Items.STONE, 1));
+		journal.flush(1);
+
+		List<InventoryJournal.Batch> batches = read(cursor);
+
+		assertEquals(1, batches.size());
+		assertArrayEquals(new int[]{2, 5}, batches.get(0).getSlots());
+		assertEquals(4, batches.get(0).getStacks()[0].getCount());
+		assertSame(Items.DIRT, batches.get(0).getStacks()[1].getItem());
+
+		journal.flush(2);
+
+		batches = read(cursor);
+
+		assertEquals(1, batches.size());
+		assertArrayEquals(new int[]{3}, batches.get(0).getSlots());
+		assertTrue(read(cursor).isEmpty());
+
+		cursor.detach();
+	}
+
+	@Test
+	public void skipsSlotsEqualToCache() {
+		BaseInventory inventory = new BaseInventory(new ItemStack(Items.STONE, 4), ItemStack.EMPTY);
+		InventoryJournal.Cursor cursor = InventoryJournal.attach(inventory);
+		InventoryJournal journal = cursor.getJournal();
+
+		inventory.setInvStack(0, new ItemStack(Items.STONE, 4));
+		inventory.setInvStack(1, ItemStack.EMPTY);
+		journal.flush(1);
+
+		assertEquals(0, journal.getRevision());
+
+		inventory.getInvStack(0).setCount(5);
+		inventory.markDirty(0);
+		journal.flush(2);
+
+		assertEquals(1, journal.getRevision());
+
+		inventory.getInvStack(0).getOrCreateTag().putInt("Damage", 1);
+		inventory.markDirty(0);
+		journal.flush(3);
+
+		assertEquals(2, journal.getRevision());
+
+		inventory.getInvStack(0).getOrCreateTag().putInt("Damage", 1);
+		inventory.markDirty();
+		journal.flush(4);
+
+		assertEquals(2, journal.getRevision());
+
+		cursor.detach();
+	}
+
+	@Test
+	public void reportsCursorsBehindDiscardedBatches() {
+		BaseInventory inventory = new BaseInventory(1);
+		InventoryJournal.Cursor reader = InventoryJournal.attach(inventory);
+		InventoryJournal.Cursor idler = InventoryJournal.attach(inventory);
+		InventoryJournal journal = reader.getJournal();
+
+		assertSame(journal, idler.getJournal());
+
+		for (int tick = 1; tick <= InventoryJournal.MAXIMUM_BATCHES; ++tick) {
+			inventory.setInvStack(0, new ItemStack(Items.STONE, tick));
+			journal.flush(tick);
+			read(reader);
+		}
+
+		assertFalse(idler.isBehind());
+
+		inventory.setInvStack(0, ItemStack.EMPTY);
+		journal.flush(InventoryJournal.MAXIMUM_BATCHES + 1);
+		read(reader);
+
+		assertTrue(idler.isBehind());
+		assertFalse(reader.isBehind());
+
+		idler.advance();
+
+		assertFalse(idler.isBehind());
+
+		reader.detach();
+		idler.detach();
+
+		InventoryJournal.Cursor cursor = InventoryJournal.attach(inventory);
+
+		assertNotSame(journal, cursor.getJournal());
+
+		cursor.detach();
+	}
+
+	protected static List<InventoryJournal.Batch> read(InventoryJournal.Cursor cursor) {
+		List<InventoryJournal.Batch> batches = new ArrayList<>();
+		cursor.read(batches::add);
+		return batches;
+	}
+}
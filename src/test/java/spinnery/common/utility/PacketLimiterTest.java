@@ -0,0 +1,80 @@
+package spinnery.common.utility;
+
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PacketLimiterTest {
+	protected static final Identifier CHANNEL = new Identifier("spinnery", "test");
+	protected static final Identifier OTHER_CHANNEL = new Identifier("spinnery", "other");
+	protected static final long SECOND = 1_000_000_000L;
+
+	@Test
+	public void acceptsUnlimitedChannels() {
+		PacketLimiter limiter = new PacketLimiter();
+		Object connection = new Object();
+
+		for (int i = 0; i < 1000; ++i) {
+			assertEquals(PacketLimiter.Result.ACCEPT, limiter.acquire(connection, CHANNEL, 0));
+		}
+	}
+
+	@Test
+	public void rejectsPastCapacityAndRefills() {
+		PacketLimiter limiter = new PacketLimiter().setBudget(CHANNEL, 4, 2);
+		Object connection = new Object();
+
+		for (int i = 0; i < 4; ++i) {
+			assertEquals(PacketLimiter.Result.ACCEPT, limiter.acquire(connection, CHANNEL, 0));
+		}
+
+		assertEquals(PacketLimiter.Result.REJECT, limiter.acquire(connection, CHANNEL, 0));
+		assertEquals(1, limiter.getRejected(CHANNEL));
+
+		assertEquals(PacketLimiter.Result.ACCEPT, limiter.acquire(connection, CHANNEL, SECOND / 2));
+		assertEquals(PacketLimiter.Result.REJECT, limiter.acquire(connection, CHANNEL, SECOND / 2));
+	}
+
+	@Test
+	public void limitsConnectionsAndChannelsSeparately() {
+		PacketLimiter limiter = new PacketLimiter().setBudget(CHANNEL, 1, 1).setBudget(OTHER_CHANNEL, 1, 1);
+		Object first = new Object();
+		Object second = new Object();
+
+		assertEquals(PacketLimiter.Result.ACCEPT, limiter.acquire(first, CHANNEL, 0));
+		assertEquals(PacketLimiter.Result.REJECT, limiter.acquire(first, CHANNEL, 0));
+		assertEquals(PacketLimiter.Result.ACCEPT, limiter.acquire(first, OTHER_CHANNEL, 0));
+		assertEquals(PacketLimiter.Result.ACCEPT, limiter.acquire(second, CHANNEL, 0));
+	}
+
+	@Test
+	public void kicksOnceAfterThreshold() {
+		PacketLimiter limiter = new PacketLimiter().setBudget(CHANNEL, 1, 1).setKickThreshold(2);
+		Object connection = new Object();
+
+		assertEquals(PacketLimiter.Result.ACCEPT, limiter.acquire(connection, CHANNEL, 0));
+		assertEquals(PacketLimiter.Result.REJECT, limiter.acquire(connection, CHANNEL, 0));
+		assertEquals(PacketLimiter.Result.REJECT, limiter.acquire(connection, CHANNEL, 0));
+		assertEquals(PacketLimiter.Result.KICK, limiter.acquire(connection, CHANNEL, 0));
+
+		for (int i = 0; i < 10; ++i) {
+			assertEquals(PacketLimiter.Result.REJECT, limiter.acquire(connection, CHANNEL, 0));
+		}
+
+		assertEquals(PacketLimiter.Result.REJECT, limiter.acquire(connection, CHANNEL, 10 * SECOND));
+	}
+
+	@Test
+	public void forgetsViolationsAfterOneSecond() {
+		PacketLimiter limiter = new PacketLimiter().setBudget(CHANNEL, 1, 0).setKickThreshold(2);
+		Object connection = new Object();
+
+		assertEquals(PacketLimiter.Result.ACCEPT, limiter.acquire(connection, CHANNEL, 0));
+		assertEquals(PacketLimiter.Result.REJECT, limiter.acquire(connection, CHANNEL, 0));
+		assertEquals(PacketLimiter.Result.REJECT, limiter.acquire(connection, CHANNEL, 0));
+		assertEquals(PacketLimiter.Result.REJECT, limiter.acquire(connection, CHANNEL, 2 * SECOND));
+		assertEquals(PacketLimiter.Result.REJECT, limiter.acquire(connection, CHANNEL, 2 * SECOND));
+		assertEquals(PacketLimiter.Result.KICK, limiter.acquire(connection, CHANNEL, 2 * SECOND));
+	}
+}
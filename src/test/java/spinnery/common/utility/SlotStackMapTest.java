@@ -0,0 +1,151 @@
+package spinnery.common.utility;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.item.ItemStack;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlotStackMapTest {
+	@BeforeAll
+	public static void initialize() {
+		Bootstrap.initialize();
+	}
+
+	@Test
+	public void separatesInventoriesAndNegativeSlots() {
+		SlotStackMap map = new SlotStackMap();
+		ItemStack cursor = new ItemStack(null, 1);
+		ItemStack player = new ItemStack(null, 2);
+		ItemStack other = new ItemStack(null, 3);
+
+		map.put(-1, 5, cursor);
+		map.put(0, 5, player);
+		map.put(0, -1, other);
+
+		assertEquals(3, map.size());
+		assertSame(cursor, map.get(-1, 5));
+		assertSame(player, map.get(0, 5));
+		assertSame(other, map.get(0, -1));
+		assertNull(map.get(1, 5));
+
+		assertSame(player, map.put(0, 5, other));
+		assertSame(other, map.remove(0, 5));
+		assertNull(map.remove(0, 5));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	public void shiftsBackClusterWrappingAroundTable() {
+		SlotStackMap map = new SlotStackMap();
+		long[] colliding = findKeys(map, map.mask, 3);
+		long[] following = findKeys(map, 0, 1);
+		List<ItemStack> stacks = new ArrayList<>();
+
+		for (long key : colliding) {
+			stacks.add(put(map, key));
+		}
+
+		ItemStack wrapped = put(map, following[0]);
+
+		assertSame(stacks.get(0), remove(map, colliding[0]));
+		assertSame(stacks.get(1), get(map, colliding[1]));
+		assertSame(stacks.get(2), get(map, colliding[2]));
+		assertSame(wrapped, get(map, following[0]));
+
+		assertSame(stacks.get(2), remove(map, colliding[2]));
+		assertSame(stacks.get(1), get(map, colliding[1]));
+		assertSame(wrapped, get(map, following[0]));
+		assertEquals(2, map.size());
+
+		assertSame(stacks.get(1), remove(map, colliding[1]));
+		assertSame(wrapped, remove(map, following[0]));
+		assertTrue(map.isEmpty());
+
+		for (ItemStack value : map.values) {
+			assertNull(value);
+		}
+	}
+
+	@Test
+	public void keepsCollidingEntriesReachableAfterRemoval() {
+		SlotStackMap map = new SlotStackMap();
+		ItemStack[] stacks = new ItemStack[48];
+
+		for (int slotNumber = 0; slotNumber < stacks.length; ++slotNumber) {
+			stacks[slotNumber] = new ItemStack(null, slotNumber);
+			map.put(0, slotNumber, stacks[slotNumber]);
+		}
+
+		for (int slotNumber = 0; slotNumber < stacks.length; slotNumber += 2) {
+			assertSame(stacks[slotNumber], map.remove(0, slotNumber));
+		}
+
+		for (int slotNumber = 0; slotNumber < stacks.length; ++slotNumber) {
+			assertSame(slotNumber % 2 == 0 ? null : stacks[slotNumber], map.get(0, slotNumber));
+		}
+
+		assertEquals(stacks.length / 2, map.size());
+	}
+
+	@Test
+	public void visitsAndReplacesEverySlot() {
+		SlotStackMap map = new SlotStackMap();
+		ItemStack first = new ItemStack(null, 1);
+		ItemStack second = new ItemStack(null, 2);
+		ItemStack replacement = new ItemStack(null, 3);
+
+		map.put(0, 5, first);
+		map.put(-1, 7, second);
+
+		Map<Long, ItemStack> visited = new HashMap<>();
+		map.forEach((inventoryNumber, slotNumber, stack) -> visited.put(SlotStackMap.pack(inventoryNumber, slotNumber), stack));
+
+		assertEquals(2, visited.size());
+		assertSame(first, visited.get(SlotStackMap.pack(0, 5)));
+		assertSame(second, visited.get(SlotStackMap.pack(-1, 7)));
+
+		map.replaceAll((inventoryNumber, slotNumber, stack) -> inventoryNumber == 0 ? replacement : stack);
+
+		assertSame(replacement, map.get(0, 5));
+		assertSame(second, map.get(-1, 7));
+		assertEquals(2, map.size());
+
+		map.clear();
+
+		assertTrue(map.isEmpty());
+		assertFalse(map.containsKey(0, 5));
+	}
+
+	protected static long[] findKeys(SlotStackMap map, int index, int count) {
+		long[] keys = new long[count];
+
+		for (int slotNumber = 0, found = 0; found < count; ++slotNumber) {
+			if (map.indexOf(SlotStackMap.pack(0, slotNumber)) == index) {
+				keys[found++] = SlotStackMap.pack(0, slotNumber);
+			}
+		}
+
+		return keys;
+	}
+
+	protected static ItemStack put(SlotStackMap map, long key) {
+		ItemStack stack = new ItemStack(null, 1);
+		assertNull(map.put((int) (key >>> 32), (int) key, stack));
+		return stack;
+	}
+
+	protected static ItemStack get(SlotStackMap map, long key) {
+		return map.get((int) (key >>> 32), (int) key);
+	}
+
+	protected static ItemStack remove(SlotStackMap map, long key) {
+		return map.remove((int) (key >>> 32), (int) key);
+	}
+}